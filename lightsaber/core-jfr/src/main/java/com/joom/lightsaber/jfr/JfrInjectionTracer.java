@@ -0,0 +1,91 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.jfr;
+
+import com.joom.lightsaber.InjectionTracer;
+import com.joom.lightsaber.Injector;
+
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+
+import javax.annotation.Nonnull;
+
+import jdk.jfr.Event;
+
+/**
+ * An {@link InjectionTracer} that emits custom JFR events, so injector configuration and singleton construction show up
+ * in a flight recording next to the rest of the application timeline.
+ */
+public class JfrInjectionTracer implements InjectionTracer {
+  private final ThreadLocal<ArrayDeque<Event>> events = new ThreadLocal<ArrayDeque<Event>>() {
+    @Override
+    protected ArrayDeque<Event> initialValue() {
+      return new ArrayDeque<Event>();
+    }
+  };
+
+  @Override
+  public void onModuleConfigurationStarted(@Nonnull final Injector injector, @Nonnull final Object module) {
+    final ModuleConfigurationEvent event = new ModuleConfigurationEvent();
+    event.module = module.getClass().getName();
+    begin(event);
+  }
+
+  @Override
+  public void onModuleConfigurationFinished(@Nonnull final Injector injector, @Nonnull final Object module) {
+    commit();
+  }
+
+  @Override
+  public void onProviderRegistered(@Nonnull final Injector injector, @Nonnull final Object key) {
+    final ProviderRegistrationEvent event = new ProviderRegistrationEvent();
+    if (event.isEnabled()) {
+      event.key = getKeyName(key);
+      event.commit();
+    }
+  }
+
+  @Override
+  public void onSingletonConstructionStarted(@Nonnull final Object key) {
+    final SingletonConstructionEvent event = new SingletonConstructionEvent();
+    event.key = getKeyName(key);
+    begin(event);
+  }
+
+  @Override
+  public void onSingletonConstructionFinished(@Nonnull final Object key) {
+    commit();
+  }
+
+  private void begin(@Nonnull final Event event) {
+    event.begin();
+    events.get().push(event);
+  }
+
+  private void commit() {
+    final Event event = events.get().poll();
+    if (event != null) {
+      event.end();
+      event.commit();
+    }
+  }
+
+  @Nonnull
+  private static String getKeyName(@Nonnull final Object key) {
+    return key instanceof Type ? ((Type) key).getTypeName() : key.toString();
+  }
+}
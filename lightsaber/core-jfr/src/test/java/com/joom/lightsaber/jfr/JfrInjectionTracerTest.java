@@ -0,0 +1,118 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.jfr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.joom.lightsaber.Injector;
+import com.joom.lightsaber.Lightsaber;
+import com.joom.lightsaber.internal.InjectorConfigurator;
+import com.joom.lightsaber.internal.LightsaberInjector;
+import com.joom.lightsaber.internal.SingletonProvider;
+
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Provider;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class JfrInjectionTracerTest {
+  @Test
+  public void testRecordsConfigurationRegistrationAndConstruction() throws Exception {
+    final List<RecordedEvent> events;
+    try (final Recording recording = new Recording()) {
+      recording.enable(ModuleConfigurationEvent.class).withThreshold(Duration.ZERO);
+      recording.enable(ProviderRegistrationEvent.class);
+      recording.enable(SingletonConstructionEvent.class).withThreshold(Duration.ZERO);
+      recording.start();
+
+      final Lightsaber lightsaber = new Lightsaber.Builder().tracer(new JfrInjectionTracer()).build();
+      final Injector injector = lightsaber.createInjector(new ParentModule());
+      injector.getInstance(String.class);
+      injector.getInstance(String.class);
+
+      recording.stop();
+      events = readEvents(recording);
+    }
+
+    final List<String> modules = getValues(events, "com.joom.lightsaber.ModuleConfiguration", "module");
+    assertTrue(modules.toString(), modules.contains(ParentModule.class.getName()));
+    assertTrue(modules.toString(), modules.contains(ChildModule.class.getName()));
+
+    final List<String> registeredKeys = getValues(events, "com.joom.lightsaber.ProviderRegistration", "key");
+    assertTrue(registeredKeys.toString(), registeredKeys.contains("java.lang.String"));
+    assertTrue(registeredKeys.toString(), registeredKeys.contains("java.lang.Integer"));
+
+    final List<String> constructedKeys = getValues(events, "com.joom.lightsaber.SingletonConstruction", "key");
+    assertEquals(1, constructedKeys.size());
+    assertEquals("java.lang.String", constructedKeys.get(0));
+  }
+
+  private static List<RecordedEvent> readEvents(final Recording recording) throws Exception {
+    final Path path = Files.createTempFile("lightsaber", ".jfr");
+    try {
+      recording.dump(path);
+      return RecordingFile.readAllEvents(path);
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  private static List<String> getValues(final List<RecordedEvent> events, final String eventName, final String field) {
+    final List<String> values = new ArrayList<String>();
+    for (final RecordedEvent event : events) {
+      if (event.getEventType().getName().equals(eventName)) {
+        values.add(event.getString(field));
+      }
+    }
+    return values;
+  }
+
+  private static class ParentModule implements InjectorConfigurator {
+    @Override
+    public void configureInjector(final LightsaberInjector injector) {
+      injector.configureModule(new ChildModule());
+      injector.registerProvider(String.class, new SingletonProvider<String>(new Provider<String>() {
+        @Override
+        public String get() {
+          return "String " + injector.getInstance(Integer.class);
+        }
+      }));
+    }
+  }
+
+  private static class ChildModule implements InjectorConfigurator {
+    @Override
+    public void configureInjector(final LightsaberInjector injector) {
+      injector.registerProvider(Integer.class, new Provider<Integer>() {
+        @Override
+        public Integer get() {
+          return 42;
+        }
+      });
+    }
+  }
+}
@@ -79,7 +79,7 @@ public class ProviderInterceptorBuilder {
     return this;
   }
 
-  private static class ImmutableProviderInterceptor implements ProviderInterceptor {
+  private static class ImmutableProviderInterceptor implements ProviderInterceptor.Deterministic {
     private final Map<Key<?>, Provider<?>> providers;
 
     ImmutableProviderInterceptor(@Nonnull final ProviderInterceptorBuilder builder) {
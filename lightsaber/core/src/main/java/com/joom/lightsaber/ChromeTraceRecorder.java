@@ -0,0 +1,150 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber;
+
+import com.joom.lightsaber.internal.TypeUtils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.annotation.Nonnull;
+
+/**
+ * An {@link InjectionTracer} that records events in memory and writes them in the Chrome trace event format, which can be
+ * opened in {@code chrome://tracing} or Perfetto.
+ */
+public class ChromeTraceRecorder implements InjectionTracer {
+  private static final String CATEGORY_CONFIGURATION = "configuration";
+  private static final String CATEGORY_REGISTRATION = "registration";
+  private static final String CATEGORY_CONSTRUCTION = "construction";
+
+  private final long startTimeNanos = System.nanoTime();
+  private final ConcurrentLinkedQueue<Event> events = new ConcurrentLinkedQueue<Event>();
+
+  @Override
+  public void onModuleConfigurationStarted(@Nonnull final Injector injector, @Nonnull final Object module) {
+    record('B', CATEGORY_CONFIGURATION, module.getClass().getName());
+  }
+
+  @Override
+  public void onModuleConfigurationFinished(@Nonnull final Injector injector, @Nonnull final Object module) {
+    record('E', CATEGORY_CONFIGURATION, module.getClass().getName());
+  }
+
+  @Override
+  public void onProviderRegistered(@Nonnull final Injector injector, @Nonnull final Object key) {
+    record('i', CATEGORY_REGISTRATION, getKeyName(key));
+  }
+
+  @Override
+  public void onSingletonConstructionStarted(@Nonnull final Object key) {
+    record('B', CATEGORY_CONSTRUCTION, getKeyName(key));
+  }
+
+  @Override
+  public void onSingletonConstructionFinished(@Nonnull final Object key) {
+    record('E', CATEGORY_CONSTRUCTION, getKeyName(key));
+  }
+
+  /**
+   * Writes all events recorded so far as a JSON object with a {@code traceEvents} array.
+   *
+   * @param writer
+   *     The {@link Writer} to write the trace to. The writer isn't closed by this method.
+   * @throws IOException
+   *     If writing fails.
+   */
+  public void writeTo(@Nonnull final Writer writer) throws IOException {
+    final List<Event> snapshot = new ArrayList<Event>(events);
+    writer.write("{\"traceEvents\":[");
+    for (int i = 0, count = snapshot.size(); i < count; ++i) {
+      if (i != 0) {
+        writer.write(",\n");
+      }
+      snapshot.get(i).writeTo(writer);
+    }
+    writer.write("]}\n");
+    writer.flush();
+  }
+
+  private void record(final char phase, @Nonnull final String category, @Nonnull final String name) {
+    final long timestampNanos = System.nanoTime() - startTimeNanos;
+    events.add(new Event(phase, category, name, timestampNanos, Thread.currentThread().getId()));
+  }
+
+  @Nonnull
+  private static String getKeyName(@Nonnull final Object key) {
+    return key instanceof Type ? TypeUtils.getTypeName((Type) key) : key.toString();
+  }
+
+  private static class Event {
+    private final char phase;
+    private final String category;
+    private final String name;
+    private final long timestampNanos;
+    private final long threadId;
+
+    Event(final char phase, @Nonnull final String category, @Nonnull final String name, final long timestampNanos, final long threadId) {
+      this.phase = phase;
+      this.category = category;
+      this.name = name;
+      this.timestampNanos = timestampNanos;
+      this.threadId = threadId;
+    }
+
+    void writeTo(@Nonnull final Writer writer) throws IOException {
+      writer.write("{\"name\":");
+      writeString(writer, name);
+      writer.write(",\"cat\":\"");
+      writer.write(category);
+      writer.write("\",\"ph\":\"");
+      writer.write(phase);
+      writer.write("\",\"ts\":");
+      // Timestamps are in microseconds but may be fractional.
+      writer.write(Long.toString(timestampNanos / 1000L));
+      writer.write('.');
+      writer.write(String.format(Locale.ROOT, "%03d", timestampNanos % 1000L));
+      if (phase == 'i') {
+        writer.write(",\"s\":\"t\"");
+      }
+      writer.write(",\"pid\":1,\"tid\":");
+      writer.write(Long.toString(threadId));
+      writer.write('}');
+    }
+
+    private static void writeString(@Nonnull final Writer writer, @Nonnull final String string) throws IOException {
+      writer.write('"');
+      for (int i = 0, length = string.length(); i < length; ++i) {
+        final char character = string.charAt(i);
+        if (character == '"' || character == '\\') {
+          writer.write('\\');
+          writer.write(character);
+        } else if (character < 0x20) {
+          writer.write(String.format(Locale.ROOT, "\\u%04x", (int) character));
+        } else {
+          writer.write(character);
+        }
+      }
+      writer.write('"');
+    }
+  }
+}
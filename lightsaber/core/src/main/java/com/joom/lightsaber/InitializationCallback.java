@@ -0,0 +1,46 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Receives the outcome of background initialization started by {@link Lightsaber#createInjectorAsync} or
+ * {@link Lightsaber#createContractAsync}.
+ *
+ * @param <T>
+ *     The type of the object being initialized.
+ */
+public interface InitializationCallback<T> {
+  /**
+   * Called when all eager dependencies have been instantiated.
+   *
+   * @param result
+   *     The object that has been initialized.
+   */
+  void onInitialized(@Nonnull T result);
+
+  /**
+   * Called when instantiation of an eager dependency has failed.
+   *
+   * @param result
+   *     The object whose initialization has failed.
+   * @param throwable
+   *     The failure cause.
+   */
+  void onInitializationFailed(@Nonnull T result, @Nonnull Throwable throwable);
+}
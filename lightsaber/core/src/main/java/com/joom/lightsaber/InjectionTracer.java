@@ -0,0 +1,47 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Receives a timeline of injector configuration and singleton construction when set with
+ * {@link Lightsaber.Builder#tracer(InjectionTracer)}.
+ * <p>
+ * Every {@code Started} callback is followed by the matching {@code Finished} callback on the same thread, even if the
+ * traced operation fails, so nested operations form a proper stack per thread.
+ * </p>
+ */
+public interface InjectionTracer {
+  void onModuleConfigurationStarted(@Nonnull Injector injector, @Nonnull Object module);
+
+  void onModuleConfigurationFinished(@Nonnull Injector injector, @Nonnull Object module);
+
+  /**
+   * Called when a provider is registered in an injector.
+   *
+   * @param injector
+   *     The {@link Injector} the provider is registered in.
+   * @param key
+   *     The {@link Key} with a qualifier or the {@link java.lang.reflect.Type} the provider is registered for.
+   */
+  void onProviderRegistered(@Nonnull Injector injector, @Nonnull Object key);
+
+  void onSingletonConstructionStarted(@Nonnull Object key);
+
+  void onSingletonConstructionFinished(@Nonnull Object key);
+}
@@ -17,6 +17,8 @@
 package com.joom.lightsaber;
 
 import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Collections;
 
 import javax.annotation.Nonnull;
 import javax.inject.Provider;
@@ -25,6 +27,24 @@ public interface Injector {
   @Nonnull
   Injector createChildInjector(@Nonnull final Object component);
 
+  /**
+   * Creates a template for child injectors of this injector with components of the same class. Children created from
+   * a template share the provider map layout, so they don't rehash their providers. The default implementation returns
+   * a template that just calls {@link #createChildInjector(Object)}.
+   *
+   * @return A new {@link InjectorTemplate}.
+   */
+  @Nonnull
+  default InjectorTemplate createChildInjectorTemplate() {
+    return new InjectorTemplate() {
+      @Nonnull
+      @Override
+      public Injector createInjector(@Nonnull final Object component) {
+        return createChildInjector(component);
+      }
+    };
+  }
+
   void injectMembers(@Nonnull Object target);
 
   @Nonnull
@@ -44,4 +64,24 @@ public interface Injector {
 
   @Nonnull
   <T> Provider<T> getProvider(@Nonnull Key<? extends T> key);
+
+  /**
+   * Returns metrics of providers registered in this injector. Providers registered in parent injectors aren't included.
+   * The default implementation returns an empty collection.
+   *
+   * @return A snapshot of {@link ProviderMetrics} or an empty collection if metrics collection is disabled.
+   * @see Lightsaber.Builder#collectMetrics(boolean)
+   */
+  @Nonnull
+  default Collection<ProviderMetrics> getProviderMetrics() {
+    return Collections.emptyList();
+  }
+
+  /**
+   * Releases instances cached by {@link ThreadScoped} providers registered in this injector and closes the ones that
+   * implement {@link java.io.Closeable}. {@link ThreadScoped} dependencies of this injector can't be resolved afterwards.
+   * Child injectors must be disposed separately. The default implementation does nothing.
+   */
+  default void dispose() {
+  }
 }
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Creates child injectors of the same parent for components of the same class. The template remembers the frozen
+ * provider map layout of the first injector it creates and reuses it for the following injectors, so they skip
+ * rehashing their providers. Every injector still configures its component and creates its own providers.
+ * <p>
+ * Passing a component of another class than the first one is an error.
+ * </p>
+ *
+ * @see Injector#createChildInjectorTemplate()
+ */
+public interface InjectorTemplate {
+  @Nonnull
+  Injector createInjector(@Nonnull Object component);
+}
@@ -20,13 +20,18 @@ import com.joom.lightsaber.internal.TypeUtils;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 public class Key<T> {
+  private static final ConcurrentMap<Key<?>, Key<?>> internedKeys = new ConcurrentHashMap<Key<?>, Key<?>>();
+
   private final Type type;
   private final Annotation qualifier;
+  private final int hashCode;
 
   public Key(@Nonnull final Type type) {
     this(type, null);
@@ -35,6 +40,7 @@ public class Key<T> {
   public Key(@Nonnull final Type type, @Nullable final Annotation qualifier) {
     this.type = type;
     this.qualifier = qualifier;
+    this.hashCode = computeHashCode(type, qualifier);
   }
 
   public static <T> Key<T> of(@Nonnull final Class<T> type) {
@@ -63,6 +69,22 @@ public class Key<T> {
     return qualifier;
   }
 
+  /**
+   * Returns a canonical instance of a key that is equal to this one.
+   * <p>
+   * Generated key registries intern the keys they create so lookups of such keys usually succeed on a reference comparison.
+   * Interned keys are never released, so keys created at runtime shouldn't be interned.
+   * </p>
+   *
+   * @return The canonical key equal to this one.
+   */
+  @Nonnull
+  public Key<T> intern() {
+    final Key<?> existingKey = internedKeys.putIfAbsent(this, this);
+    // noinspection unchecked
+    return existingKey != null ? (Key<T>) existingKey : this;
+  }
+
   @Override
   public boolean equals(@Nullable final Object object) {
     if (this == object) {
@@ -74,19 +96,24 @@ public class Key<T> {
     }
 
     final Key<?> key = (Key<?>) object;
-    return TypeUtils.equals(type, key.type) && (qualifier != null ? qualifier.equals(key.qualifier) : key.qualifier == null);
+    return hashCode == key.hashCode
+        && TypeUtils.equals(type, key.type) && (qualifier != null ? qualifier.equals(key.qualifier) : key.qualifier == null);
   }
 
   @Override
   public int hashCode() {
-    int result = 1;
-    result = 31 * result + TypeUtils.hashCode(type);
-    result = 31 * result + (qualifier != null ? qualifier.hashCode() : 0);
-    return result;
+    return hashCode;
   }
 
   @Override
   public String toString() {
     return "Key{type=" + type + ", qualifier=" + qualifier + '}';
   }
+
+  private static int computeHashCode(@Nonnull final Type type, @Nullable final Annotation qualifier) {
+    int result = 1;
+    result = 31 * result + TypeUtils.hashCode(type);
+    result = 31 * result + (qualifier != null ? qualifier.hashCode() : 0);
+    return result;
+  }
 }
@@ -16,28 +16,13 @@
 
 package com.joom.lightsaber;
 
+import com.joom.lightsaber.internal.LazyInitializer;
+
 import javax.annotation.Nonnull;
 import javax.inject.Provider;
 
-public class LazyAdapter<T> implements Lazy<T> {
-  private final Provider<T> provider;
-  private volatile T instance;
-  private final Object instanceLock = new Object();
-
+public class LazyAdapter<T> extends LazyInitializer<T> implements Lazy<T> {
   public LazyAdapter(@Nonnull final Provider<T> provider) {
-    this.provider = provider;
-  }
-
-  @Nonnull
-  @Override
-  public T get() {
-    if (instance == null) {
-      synchronized (instanceLock) {
-        if (instance == null) {
-          instance = provider.get();
-        }
-      }
-    }
-    return instance;
+    super(provider);
   }
 }
@@ -17,11 +17,13 @@
 package com.joom.lightsaber;
 
 import com.joom.lightsaber.internal.ContractCreator;
+import com.joom.lightsaber.internal.InjectorOptions;
 import com.joom.lightsaber.internal.LightsaberInjector;
 
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -29,9 +31,19 @@ import javax.inject.Provider;
 
 public class Lightsaber {
   private final List<ProviderInterceptor> interceptors;
+  private final boolean cacheParentProviders;
+  private final Executor eagerInstantiationExecutor;
+  private final boolean collectMetrics;
+  private final InjectionTracer tracer;
+  private final InjectorOptions options;
 
   Lightsaber(final Builder builder) {
     interceptors = builder.interceptors == null ? null : new ArrayList<ProviderInterceptor>(builder.interceptors);
+    cacheParentProviders = builder.cacheParentProviders;
+    eagerInstantiationExecutor = builder.eagerInstantiationExecutor;
+    collectMetrics = builder.collectMetrics;
+    tracer = builder.tracer;
+    options = new InjectorOptions(interceptors, cacheParentProviders, eagerInstantiationExecutor, collectMetrics, tracer);
   }
 
   @Nonnull
@@ -41,7 +53,7 @@ public class Lightsaber {
 
   @Nonnull
   public Injector createInjector(@Nonnull final Object component) {
-    return new LightsaberInjector(component, null, interceptors);
+    return new LightsaberInjector(component, null, options, false);
   }
 
   @Nonnull
@@ -51,6 +63,62 @@ public class Lightsaber {
     return creator.createContract(createInjector(contractConfiguration));
   }
 
+  /**
+   * Creates an {@link Injector} that can be used right away while its eager dependencies are instantiated in the background.
+   * <p>
+   * Providers are registered on the calling thread. Eager dependencies are instantiated on the given {@link Executor}, and
+   * requesting one of them before it's ready blocks only until that dependency is instantiated. Only components processed
+   * with the {@code parallelEagerInstantiation} flag defer their eager dependencies, other components instantiate them on
+   * the calling thread.
+   * </p>
+   *
+   * @param component
+   *     The component to create the {@link Injector} for.
+   * @param executor
+   *     The {@link Executor} to instantiate eager dependencies on.
+   * @param callback
+   *     The {@link InitializationCallback} that is notified on the executor when all eager dependencies are instantiated.
+   * @return The created {@link Injector}.
+   */
+  @Nonnull
+  public Injector createInjectorAsync(
+      @Nonnull final Object component,
+      @Nonnull final Executor executor,
+      @Nonnull final InitializationCallback<? super Injector> callback
+  ) {
+    checkAsyncArguments(executor, callback);
+    final LightsaberInjector injector = new LightsaberInjector(component, null, options, true);
+    initializeAsync(injector, injector, executor, callback);
+    return injector;
+  }
+
+  /**
+   * Creates a contract that can be used right away while its eager dependencies are instantiated in the background.
+   *
+   * @param contractConfiguration
+   *     The {@link ContractConfiguration} to create the contract from.
+   * @param executor
+   *     The {@link Executor} to instantiate eager dependencies on.
+   * @param callback
+   *     The {@link InitializationCallback} that is notified on the executor when all eager dependencies are instantiated.
+   * @return The created contract.
+   * @see #createInjectorAsync(Object, Executor, InitializationCallback)
+   */
+  @Nonnull
+  public <T> T createContractAsync(
+      @Nonnull final ContractConfiguration<T> contractConfiguration,
+      @Nonnull final Executor executor,
+      @Nonnull final InitializationCallback<? super T> callback
+  ) {
+    checkAsyncArguments(executor, callback);
+    @SuppressWarnings("unchecked")
+    final ContractCreator<T> creator = (ContractCreator<T>) contractConfiguration;
+    final LightsaberInjector injector = new LightsaberInjector(contractConfiguration, null, options, true);
+    final T contract = creator.createContract(injector);
+    initializeAsync(injector, contract, executor, callback);
+    return contract;
+  }
+
   @Nonnull
   public static <T> T getInstance(@Nonnull final Injector injector, @Nonnull final Class<? extends T> type) {
     return injector.getInstance(type);
@@ -73,14 +141,55 @@ public class Lightsaber {
     return injector.getProvider(Key.of(type, annotation));
   }
 
+  private static void checkAsyncArguments(@Nonnull final Executor executor, @Nonnull final InitializationCallback<?> callback) {
+    // noinspection ConstantConditions
+    if (executor == null) {
+      throw new NullPointerException("Executor is null");
+    }
+
+    // noinspection ConstantConditions
+    if (callback == null) {
+      throw new NullPointerException("Callback is null");
+    }
+  }
+
+  private static <T> void initializeAsync(
+      @Nonnull final LightsaberInjector injector,
+      @Nonnull final T result,
+      @Nonnull final Executor executor,
+      @Nonnull final InitializationCallback<? super T> callback
+  ) {
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          injector.instantiateDeferredEagerDependencies();
+        } catch (final Throwable throwable) {
+          callback.onInitializationFailed(result, throwable);
+          return;
+        }
+
+        callback.onInitialized(result);
+      }
+    });
+  }
+
   public static class Builder {
     private List<ProviderInterceptor> interceptors;
+    private boolean cacheParentProviders;
+    private Executor eagerInstantiationExecutor;
+    private boolean collectMetrics;
+    private InjectionTracer tracer;
 
     public Builder() {
     }
 
     Builder(@Nonnull final Lightsaber lightsaber) {
       interceptors = lightsaber.interceptors == null ? null : new ArrayList<ProviderInterceptor>(lightsaber.interceptors);
+      cacheParentProviders = lightsaber.cacheParentProviders;
+      eagerInstantiationExecutor = lightsaber.eagerInstantiationExecutor;
+      collectMetrics = lightsaber.collectMetrics;
+      tracer = lightsaber.tracer;
     }
 
     /**
@@ -89,6 +198,10 @@ public class Lightsaber {
      * <strong>WARNING!</strong> Provider interception affects performance negatively. If a single interceptor is added each dependency resolution
      * produces at least two additional allocations even if it's not affected by the interceptor.
      * </p>
+     * <p>
+     * If every added interceptor implements {@link ProviderInterceptor.Deterministic} the resolved providers are memoized per injector,
+     * so the interceptor chain runs only once for a key.
+     * </p>
      *
      * @param interceptor
      *     The {@link ProviderInterceptor} to add to the interceptor chain.
@@ -109,6 +222,73 @@ public class Lightsaber {
       return this;
     }
 
+    /**
+     * Enables a per-injector cache of providers resolved from parent injectors. When enabled, a child injector remembers
+     * the providers it has found in its ancestors and resolves them again with a single lookup.
+     * <p>
+     * The cache has a fixed size per child injector, so keys that don't fit into it are resolved through the parent chain as usual.
+     * </p>
+     *
+     * @param cacheParentProviders
+     *     {@code true} to cache providers resolved from parent injectors.
+     * @return The current {@link Builder} instance.
+     */
+    @Nonnull
+    public Builder cacheParentProviders(final boolean cacheParentProviders) {
+      this.cacheParentProviders = cacheParentProviders;
+      return this;
+    }
+
+    /**
+     * Sets an {@link Executor} that instantiates independent {@link Eager} dependencies concurrently when an injector is created.
+     * The injector creation still completes only after all eager dependencies are instantiated.
+     * <p>
+     * The option takes effect only for components processed with the {@code parallelEagerInstantiation} flag enabled, which makes
+     * the processor emit the graph of eager dependencies. Otherwise eager dependencies are instantiated sequentially.
+     * </p>
+     *
+     * @param executor
+     *     The {@link Executor} to instantiate eager dependencies on or {@code null} to instantiate them on the calling thread.
+     * @return The current {@link Builder} instance.
+     */
+    @Nonnull
+    public Builder eagerInstantiationExecutor(@Nullable final Executor executor) {
+      this.eagerInstantiationExecutor = executor;
+      return this;
+    }
+
+    /**
+     * Enables collection of per-provider metrics that can be read with {@link Injector#getProviderMetrics()}.
+     * <p>
+     * Each registered provider gets wrapped into a metered one that counts lookups and instantiations with atomic counters
+     * and measures construction time, which costs a couple of atomic increments and two clock reads per instantiation.
+     * </p>
+     *
+     * @param collectMetrics
+     *     {@code true} to collect provider metrics.
+     * @return The current {@link Builder} instance.
+     */
+    @Nonnull
+    public Builder collectMetrics(final boolean collectMetrics) {
+      this.collectMetrics = collectMetrics;
+      return this;
+    }
+
+    /**
+     * Sets an {@link InjectionTracer} that records module configuration, provider registration and singleton construction of
+     * all injectors created by this {@link Lightsaber} instance. Use {@link ChromeTraceRecorder} to export the timeline in the
+     * Chrome trace event format.
+     *
+     * @param tracer
+     *     The {@link InjectionTracer} to use or {@code null} to disable tracing.
+     * @return The current {@link Builder} instance.
+     */
+    @Nonnull
+    public Builder tracer(@Nullable final InjectionTracer tracer) {
+      this.tracer = tracer;
+      return this;
+    }
+
     @Nonnull
     public Lightsaber build() {
       return new Lightsaber(this);
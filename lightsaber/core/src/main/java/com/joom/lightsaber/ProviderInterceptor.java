@@ -35,6 +35,16 @@ public interface ProviderInterceptor {
   @Nonnull
   Provider<?> intercept(@Nonnull Chain chain, @Nonnull Key<?> key);
 
+  /**
+   * A {@link ProviderInterceptor} that always resolves the same {@link Provider} for the same key of the same {@link Injector}.
+   * <p>
+   * When all interceptors added to {@link Lightsaber.Builder} are deterministic, each injector runs the interceptor chain
+   * once per key and reuses the resolved {@link Provider} afterwards.
+   * </p>
+   */
+  interface Deterministic extends ProviderInterceptor {
+  }
+
   interface Chain {
     /** @return The {@link Injector} used to resolve a {@link Provider}. */
     @Nonnull
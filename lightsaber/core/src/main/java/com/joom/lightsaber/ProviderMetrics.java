@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A snapshot of counters collected for a provider registered in an {@link Injector} when metrics collection is enabled with
+ * {@link Lightsaber.Builder#collectMetrics(boolean)}.
+ */
+public final class ProviderMetrics {
+  private final Object key;
+  private final long lookupCount;
+  private final long childLookupCount;
+  private final long unscopedInstantiationCount;
+  private final long singletonInstantiationCount;
+  private final long scopedInstantiationCount;
+  private final long constructionTimeNanos;
+
+  public ProviderMetrics(
+      @Nonnull final Object key,
+      final long lookupCount,
+      final long childLookupCount,
+      final long unscopedInstantiationCount,
+      final long singletonInstantiationCount,
+      final long scopedInstantiationCount,
+      final long constructionTimeNanos
+  ) {
+    this.key = key;
+    this.lookupCount = lookupCount;
+    this.childLookupCount = childLookupCount;
+    this.unscopedInstantiationCount = unscopedInstantiationCount;
+    this.singletonInstantiationCount = singletonInstantiationCount;
+    this.scopedInstantiationCount = scopedInstantiationCount;
+    this.constructionTimeNanos = constructionTimeNanos;
+  }
+
+  /** @return The {@link Key} with a qualifier or the {@link java.lang.reflect.Type} the provider is registered for. */
+  @Nonnull
+  public Object getKey() {
+    return key;
+  }
+
+  /** @return The number of times the provider has been resolved by the injector it's registered in. */
+  public long getLookupCount() {
+    return lookupCount;
+  }
+
+  /** @return The number of times the provider has been resolved by descendant injectors that missed it locally. */
+  public long getChildLookupCount() {
+    return childLookupCount;
+  }
+
+  /** @return The number of instances created by the provider if it's unscoped. */
+  public long getUnscopedInstantiationCount() {
+    return unscopedInstantiationCount;
+  }
+
+  /** @return The number of instances created by the provider if it's a singleton, i.e. zero or one. */
+  public long getSingletonInstantiationCount() {
+    return singletonInstantiationCount;
+  }
+
+  /**
+   * @return The number of instances created by the provider if it's {@link Reusable} or {@link ThreadScoped}. Instances
+   *     created by custom scopes aren't counted since they can't be told from cached ones.
+   */
+  public long getScopedInstantiationCount() {
+    return scopedInstantiationCount;
+  }
+
+  /** @return The total time spent creating instances including creation of their dependencies, in nanoseconds. */
+  public long getConstructionTimeNanos() {
+    return constructionTimeNanos;
+  }
+
+  @Override
+  public String toString() {
+    return "ProviderMetrics{key=" + key
+        + ", lookupCount=" + lookupCount
+        + ", childLookupCount=" + childLookupCount
+        + ", unscopedInstantiationCount=" + unscopedInstantiationCount
+        + ", singletonInstantiationCount=" + singletonInstantiationCount
+        + ", scopedInstantiationCount=" + scopedInstantiationCount
+        + ", constructionTimeNanos=" + constructionTimeNanos + '}';
+  }
+}
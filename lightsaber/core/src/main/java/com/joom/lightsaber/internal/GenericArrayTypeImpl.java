@@ -21,9 +21,11 @@ import java.lang.reflect.Type;
 
 public final class GenericArrayTypeImpl implements GenericArrayType {
   private final Type genericComponentType;
+  private final int typeHashCode;
 
   public GenericArrayTypeImpl(final Type genericComponentType) {
     this.genericComponentType = genericComponentType;
+    this.typeHashCode = TypeUtils.computeGenericArrayTypeHashCode(genericComponentType);
   }
 
   @Override
@@ -31,6 +33,10 @@ public final class GenericArrayTypeImpl implements GenericArrayType {
     return genericComponentType;
   }
 
+  int getTypeHashCode() {
+    return typeHashCode;
+  }
+
   @Override
   public String toString() {
     return TypeUtils.getTypeName(genericComponentType) + "[]";
@@ -18,4 +18,12 @@ package com.joom.lightsaber.internal;
 
 public interface InjectorConfigurator {
   void configureInjector(LightsaberInjector injector);
+
+  /**
+   * Implemented by generated components and contract configurations, so an injector can size its provider map before
+   * the configuration registers providers.
+   */
+  interface Sized extends InjectorConfigurator {
+    int getProviderCount();
+  }
 }
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.internal;
+
+import com.joom.lightsaber.InjectionTracer;
+import com.joom.lightsaber.ProviderInterceptor;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import javax.annotation.Nullable;
+
+public final class InjectorOptions {
+  final List<ProviderInterceptor> interceptors;
+  final boolean cacheParentProviders;
+  final Executor eagerInstantiationExecutor;
+  final boolean collectMetrics;
+  final InjectionTracer tracer;
+
+  public InjectorOptions(
+      @Nullable final List<ProviderInterceptor> interceptors,
+      final boolean cacheParentProviders,
+      @Nullable final Executor eagerInstantiationExecutor,
+      final boolean collectMetrics,
+      @Nullable final InjectionTracer tracer
+  ) {
+    this.interceptors = interceptors;
+    this.cacheParentProviders = cacheParentProviders;
+    this.eagerInstantiationExecutor = eagerInstantiationExecutor;
+    this.collectMetrics = collectMetrics;
+    this.tracer = tracer;
+  }
+}
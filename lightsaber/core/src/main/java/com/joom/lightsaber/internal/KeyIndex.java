@@ -0,0 +1,137 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.internal;
+
+import com.joom.lightsaber.Key;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nonnull;
+
+public class KeyIndex {
+  private static final int INITIAL_CAPACITY = 64;
+
+  private static final Object lock = new Object();
+  private static final ConcurrentHashMap<IndexKey, Integer> indices = new ConcurrentHashMap<IndexKey, Integer>(INITIAL_CAPACITY);
+  private static volatile Object[] keys = new Object[INITIAL_CAPACITY];
+  private static volatile int size;
+
+  private KeyIndex() {
+  }
+
+  public static int getIndex(@Nonnull final Object key) {
+    // noinspection ConstantConditions
+    if (key == null) {
+      throw new NullPointerException("Key is null");
+    }
+
+    final Object normalizedKey = normalizeKey(key);
+    final IndexKey indexKey = new IndexKey(normalizedKey);
+    final Integer index = indices.get(indexKey);
+    if (index != null) {
+      return index;
+    }
+
+    synchronized (lock) {
+      final Integer existingIndex = indices.get(indexKey);
+      if (existingIndex != null) {
+        return existingIndex;
+      }
+
+      final int newIndex = size;
+      Object[] newKeys = keys;
+      if (newIndex == newKeys.length) {
+        newKeys = Arrays.copyOf(newKeys, newKeys.length * 2);
+      }
+
+      // The key must be visible to getKey() before its index can be observed by other threads.
+      newKeys[newIndex] = normalizedKey;
+      keys = newKeys;
+      size = newIndex + 1;
+      indices.put(indexKey, newIndex);
+      return newIndex;
+    }
+  }
+
+  public static int findIndex(@Nonnull final Object key) {
+    if (size == 0) {
+      return -1;
+    }
+
+    final Integer index = indices.get(new IndexKey(normalizeKey(key)));
+    return index != null ? index : -1;
+  }
+
+  @Nonnull
+  public static Object getKey(final int index) {
+    final Object[] currentKeys = keys;
+    final Object key = index >= 0 && index < currentKeys.length ? currentKeys[index] : null;
+    if (key == null) {
+      throw new IllegalArgumentException("Key with index " + index + " isn't registered");
+    }
+    return key;
+  }
+
+  @Nonnull
+  private static Object normalizeKey(@Nonnull final Object key) {
+    if (key instanceof Key<?>) {
+      final Key<?> typedKey = (Key<?>) key;
+      return typedKey.getQualifier() != null ? typedKey : typedKey.getType();
+    }
+    return key;
+  }
+
+  // Compares types the same way PolymorphicKeyHashMap does, so the index can be read without locking.
+  private static final class IndexKey {
+    private final Object key;
+    private final int hashCode;
+
+    IndexKey(@Nonnull final Object key) {
+      this.key = key;
+      this.hashCode = key instanceof Type && !(key instanceof Class<?>) ? TypeUtils.hashCode((Type) key) : key.hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+      if (this == object) {
+        return true;
+      }
+
+      if (!(object instanceof IndexKey)) {
+        return false;
+      }
+
+      final Object otherKey = ((IndexKey) object).key;
+      if (key == otherKey) {
+        return true;
+      }
+
+      if (key instanceof Type && otherKey instanceof Type && !(key instanceof Class<?> && otherKey instanceof Class<?>)) {
+        return TypeUtils.equals((Type) key, (Type) otherKey);
+      } else {
+        return key.equals(otherKey);
+      }
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+}
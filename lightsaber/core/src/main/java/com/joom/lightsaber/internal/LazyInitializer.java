@@ -0,0 +1,137 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.internal;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.Nonnull;
+import javax.inject.Provider;
+
+/**
+ * Creates an instance with a provider at most once. Threads that find the instance being created by another thread park
+ * until it's published or its creation fails. Parking doesn't pin a virtual thread unlike waiting on a monitor.
+ */
+public abstract class LazyInitializer<T> {
+  @SuppressWarnings("rawtypes")
+  private static final AtomicReferenceFieldUpdater<LazyInitializer, Thread> OWNER =
+      AtomicReferenceFieldUpdater.newUpdater(LazyInitializer.class, Thread.class, "owner");
+  @SuppressWarnings("rawtypes")
+  private static final AtomicReferenceFieldUpdater<LazyInitializer, Waiter> WAITERS =
+      AtomicReferenceFieldUpdater.newUpdater(LazyInitializer.class, Waiter.class, "waiters");
+
+  // Cleared once the instance is published to release the dependency graph it has been created from.
+  private Provider<T> provider;
+  private volatile T instance;
+  private volatile Thread owner;
+  private volatile Waiter waiters;
+
+  protected LazyInitializer(@Nonnull final Provider<T> provider) {
+    this.provider = provider;
+  }
+
+  @Nonnull
+  public T get() {
+    final T result = instance;
+    return result != null ? result : initialize();
+  }
+
+  boolean isInstantiated() {
+    return instance != null;
+  }
+
+  @Nonnull
+  private T initialize() {
+    final Thread thread = Thread.currentThread();
+    while (true) {
+      final T result = instance;
+      if (result != null) {
+        return result;
+      }
+
+      final Thread currentOwner = owner;
+      if (currentOwner == thread) {
+        // A circular dependency resolves the instance once again as it used to do with a reentrant lock. The provider
+        // can't be cleared here since only the owner clears it and the owner is still creating the instance.
+        return provider.get();
+      }
+
+      if (currentOwner == null) {
+        if (OWNER.compareAndSet(this, null, thread)) {
+          try {
+            // The instance may have been published after it had been read above but before ownership was acquired.
+            final T published = instance;
+            if (published != null) {
+              return published;
+            }
+
+            // The provider is read and cleared only by the owner, and ownership is handed over through the volatile owner
+            // field, so the next owner sees either the provider or the published instance.
+            final T created = provider.get();
+            instance = created;
+            provider = null;
+            return created;
+          } finally {
+            owner = null;
+            unparkWaiters();
+          }
+        }
+      } else {
+        awaitOwner(thread, currentOwner);
+      }
+    }
+  }
+
+  private void awaitOwner(@Nonnull final Thread thread, @Nonnull final Thread currentOwner) {
+    final Waiter waiter = new Waiter(thread);
+    do {
+      waiter.next = waiters;
+    } while (!WAITERS.compareAndSet(this, waiter.next, waiter));
+
+    // The owner unparks the waiters after it resets the owner, so a waiter that has been pushed after that sees the change
+    // here and a waiter that has been pushed before that is released. Like waiting on a monitor, waiting isn't
+    // interruptible, so the interrupt status is cleared to keep park() from returning immediately and restored afterwards.
+    boolean interrupted = Thread.interrupted();
+    while (!waiter.released && instance == null && owner == currentOwner) {
+      LockSupport.park(this);
+      interrupted |= Thread.interrupted();
+    }
+
+    if (interrupted) {
+      thread.interrupt();
+    }
+  }
+
+  private void unparkWaiters() {
+    Waiter waiter = WAITERS.getAndSet(this, null);
+    while (waiter != null) {
+      waiter.released = true;
+      LockSupport.unpark(waiter.thread);
+      waiter = waiter.next;
+    }
+  }
+
+  private static final class Waiter {
+    final Thread thread;
+    Waiter next;
+    volatile boolean released;
+
+    Waiter(@Nonnull final Thread thread) {
+      this.thread = thread;
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.internal;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Provider;
+
+/**
+ * Keeps the bindings of modules that materialize their providers lazily. A binding takes a slot in a few arrays instead
+ * of an object of its own, and the provider map refers to it with a {@link Slot} that is shared by all injectors.
+ */
+class LazyProviderTable {
+  private static final int MIN_CAPACITY = 8;
+
+  private static final Object slotLock = new Object();
+  private static volatile Slot[] slots = new Slot[0];
+
+  private final LightsaberInjector injector;
+  private Object[] keys = new Object[MIN_CAPACITY];
+  private ProviderFactory[] factories = new ProviderFactory[MIN_CAPACITY];
+  // A provider identifier is shifted left and the lowest bit tells whether the provider is created by a custom scope.
+  private int[] ids = new int[MIN_CAPACITY];
+  private volatile AtomicReferenceArray<Provider<?>> providers = new AtomicReferenceArray<Provider<?>>(MIN_CAPACITY);
+  private int size;
+
+  LazyProviderTable(@Nonnull final LightsaberInjector injector) {
+    this.injector = injector;
+  }
+
+  @Nonnull
+  synchronized Slot add(@Nonnull final Object key, @Nonnull final ProviderFactory factory, final int id, final boolean isCustomScoped) {
+    if (size == keys.length) {
+      final int capacity = size + (size >>> 1);
+      keys = Arrays.copyOf(keys, capacity);
+      factories = Arrays.copyOf(factories, capacity);
+      ids = Arrays.copyOf(ids, capacity);
+      final AtomicReferenceArray<Provider<?>> newProviders = new AtomicReferenceArray<Provider<?>>(capacity);
+      for (int i = 0; i < size; ++i) {
+        newProviders.set(i, providers.get(i));
+      }
+      providers = newProviders;
+    }
+
+    keys[size] = key;
+    factories[size] = factory;
+    ids[size] = (id << 1) | (isCustomScoped ? 1 : 0);
+    return getSlot(size++);
+  }
+
+  @Nonnull
+  Provider<?> get(@Nonnull final Slot slot) {
+    final Provider<?> provider = providers.get(slot.index);
+    return provider != null ? provider : materialize(slot.index);
+  }
+
+  @Nullable
+  Provider<?> find(@Nonnull final Slot slot) {
+    return providers.get(slot.index);
+  }
+
+  // Materialization is serialized with growing the arrays, so a provider is never created twice for the same slot.
+  @Nonnull
+  private synchronized Provider<?> materialize(final int index) {
+    final Provider<?> existingProvider = providers.get(index);
+    if (existingProvider != null) {
+      return existingProvider;
+    }
+
+    final int id = ids[index];
+    final Provider<?> provider = injector.createLazyProvider(keys[index], factories[index], id >> 1, (id & 1) != 0);
+    providers.set(index, provider);
+    return provider;
+  }
+
+  @Nonnull
+  private static Slot getSlot(final int index) {
+    final Slot[] currentSlots = slots;
+    if (index < currentSlots.length) {
+      return currentSlots[index];
+    }
+
+    synchronized (slotLock) {
+      final Slot[] oldSlots = slots;
+      if (index < oldSlots.length) {
+        return oldSlots[index];
+      }
+
+      final Slot[] newSlots = Arrays.copyOf(oldSlots, Math.max(index + 1, Math.max(MIN_CAPACITY, oldSlots.length * 2)));
+      for (int i = oldSlots.length; i < newSlots.length; ++i) {
+        newSlots[i] = new Slot(i);
+      }
+      slots = newSlots;
+      return newSlots[index];
+    }
+  }
+
+  /**
+   * Stands for a lazily materialized provider in the provider map. The injector that owns the map replaces it with the
+   * provider in the same slot of its {@link LazyProviderTable}.
+   */
+  static final class Slot implements Provider<Object> {
+    final int index;
+
+    private Slot(final int index) {
+      this.index = index;
+    }
+
+    @Override
+    public Object get() {
+      throw new IllegalStateException("Lazy provider in slot " + index + " must be materialized by its injector");
+    }
+  }
+}
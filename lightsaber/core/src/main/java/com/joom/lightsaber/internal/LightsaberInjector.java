@@ -17,24 +17,79 @@
 package com.joom.lightsaber.internal;
 
 import com.joom.lightsaber.ConfigurationException;
+import com.joom.lightsaber.InjectionTracer;
 import com.joom.lightsaber.Injector;
+import com.joom.lightsaber.InjectorTemplate;
 import com.joom.lightsaber.Key;
 import com.joom.lightsaber.ProviderInterceptor;
+import com.joom.lightsaber.ProviderMetrics;
 
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.inject.Provider;
 
 public class LightsaberInjector implements Injector {
+  private static final int PARENT_PROVIDER_CACHE_CAPACITY = 128;
+  private static final int INTERCEPTED_PROVIDER_CACHE_CAPACITY = 256;
+  // Lookups in smaller maps take a probe or two anyway, so rebuilding them into a frozen layout doesn't pay off.
+  private static final int MINIMUM_FROZEN_PROVIDER_COUNT = 64;
+
   private final LightsaberInjector parent;
+  private final InjectorOptions options;
   private final List<ProviderInterceptor> interceptors;
-  private final IterableMap<Object, Provider<?>> providers = new PolymorphicKeyHashMap<Provider<?>>();
+  private final Executor eagerInstantiationExecutor;
+  private final boolean collectMetrics;
+  private final InjectionTracer tracer;
+  private final boolean canInlineConstructors;
+  private final List<EagerDependencies> deferredEagerDependencies;
+  private final ProviderCache parentProviderCache;
+  private final ProviderCache interceptedProviderCache;
+  private final PolymorphicKeyHashMap<Provider<?>> providers;
+  private final ProviderTable providerTable;
+  private LazyProviderTable lazyProviders;
+  private final List<ThreadScopedProvider<?>> threadScopedProviders = new ArrayList<ThreadScopedProvider<?>>();
+  private boolean disposed;
 
   public LightsaberInjector(@Nonnull final Object component, final LightsaberInjector parent, final List<ProviderInterceptor> interceptors) {
+    this(component, parent, new InjectorOptions(interceptors, false, null, false, null), false);
+  }
+
+  public LightsaberInjector(
+      @Nonnull final Object component,
+      final LightsaberInjector parent,
+      @Nonnull final InjectorOptions options,
+      final boolean deferEagerInstantiation
+  ) {
+    this(component, parent, options, deferEagerInstantiation, null);
+  }
+
+  LightsaberInjector(
+      @Nonnull final Object component,
+      final LightsaberInjector parent,
+      @Nonnull final InjectorOptions options,
+      final boolean deferEagerInstantiation,
+      @Nullable final InjectorLayout layout
+  ) {
     this.parent = parent;
-    this.interceptors = interceptors;
+    this.options = options;
+    this.interceptors = options.interceptors;
+    this.eagerInstantiationExecutor = options.eagerInstantiationExecutor;
+    this.collectMetrics = options.collectMetrics;
+    this.tracer = options.tracer;
+    this.canInlineConstructors = interceptors == null && !collectMetrics && tracer == null;
+    this.deferredEagerDependencies = deferEagerInstantiation ? new ArrayList<EagerDependencies>() : null;
+    this.parentProviderCache = options.cacheParentProviders && parent != null ? new ProviderCache(PARENT_PROVIDER_CACHE_CAPACITY) : null;
+    this.interceptedProviderCache = areDeterministic(interceptors) ? new ProviderCache(INTERCEPTED_PROVIDER_CACHE_CAPACITY) : null;
+    this.providers = createProviderMap(component, layout);
+    this.providerTable =
+        layout != null ? new ProviderTable(layout.providerTableOffset, layout.providerTableCapacity) : new ProviderTable();
     registerProvider(Injector.class, new Provider<Injector>() {
       @Override
       public Injector get() {
@@ -42,8 +97,12 @@ public class LightsaberInjector implements Injector {
       }
     });
 
-    final InjectorConfigurator configurator = (InjectorConfigurator) component;
-    configurator.configureInjector(this);
+    configureModule(component);
+    // Freezing costs more than it saves for short-lived children, so only roots are frozen here and children
+    // created from a template share the layout frozen once in getLayout().
+    if (parent == null && providers.size() >= MINIMUM_FROZEN_PROVIDER_COUNT) {
+      providers.freeze();
+    }
   }
 
   @Nonnull
@@ -54,7 +113,39 @@ public class LightsaberInjector implements Injector {
       throw new NullPointerException("Trying to create an injector with a null component");
     }
 
-    return new LightsaberInjector(component, this, interceptors);
+    return new LightsaberInjector(component, this, options, false);
+  }
+
+  @Nonnull
+  @Override
+  public InjectorTemplate createChildInjectorTemplate() {
+    return new LightsaberInjectorTemplate(this, options);
+  }
+
+  /**
+   * Lets a module register its providers in this injector. Generated modules call this method for the modules they import,
+   * so the configuration can be traced module by module.
+   *
+   * @param module
+   *     The module that must implement {@link InjectorConfigurator}.
+   */
+  public void configureModule(@Nonnull final Object module) {
+    if (!(module instanceof InjectorConfigurator)) {
+      throw new ConfigurationException("Module " + module + " hasn't been processed by Lightsaber");
+    }
+
+    final InjectorConfigurator configurator = (InjectorConfigurator) module;
+    if (tracer == null) {
+      configurator.configureInjector(this);
+      return;
+    }
+
+    tracer.onModuleConfigurationStarted(this, module);
+    try {
+      configurator.configureInjector(this);
+    } finally {
+      tracer.onModuleConfigurationFinished(this, module);
+    }
   }
 
   @Override
@@ -99,7 +190,7 @@ public class LightsaberInjector implements Injector {
     }
 
     // noinspection unchecked
-    return (Provider<T>) new ProviderResolutionChain().proceed(Key.of(type));
+    return (Provider<T>) getInterceptedProvider(type, null);
   }
 
   @Nonnull
@@ -114,7 +205,62 @@ public class LightsaberInjector implements Injector {
     }
 
     // noinspection unchecked
-    return (Provider<T>) new ProviderResolutionChain().proceed(key);
+    return (Provider<T>) getInterceptedProvider(key.getQualifier() != null ? key : key.getType(), key);
+  }
+
+  @Nonnull
+  public <T> Provider<T> getProvider(final int index) {
+    if (interceptors == null) {
+      LightsaberInjector injector = this;
+      do {
+        final Provider<?> provider = injector.providerTable.get(index);
+        if (provider != null) {
+          final Provider<?> materializedProvider = injector.materialize(provider);
+          if (collectMetrics) {
+            recordLookup(materializedProvider);
+          }
+          // noinspection unchecked
+          return (Provider<T>) materializedProvider;
+        }
+        injector = injector.parent;
+      } while (injector != null);
+    }
+
+    final Object key = KeyIndex.getKey(index);
+    if (key instanceof Key<?>) {
+      // noinspection unchecked
+      return getProvider((Key<T>) key);
+    } else {
+      return getProvider((Type) key);
+    }
+  }
+
+  // Generated code calls this method instead of getProvider(int), so other Injector implementations, e.g. test doubles,
+  // keep resolving providers by their keys.
+  @Nonnull
+  public static <T> Provider<T> getIndexedProvider(@Nonnull final Injector injector, final int index) {
+    if (injector instanceof LightsaberInjector) {
+      return ((LightsaberInjector) injector).getProvider(index);
+    }
+
+    final Object key = KeyIndex.getKey(index);
+    if (key instanceof Key<?>) {
+      // noinspection unchecked
+      return injector.getProvider((Key<T>) key);
+    } else if (key instanceof Class<?>) {
+      // noinspection unchecked
+      return injector.getProvider((Class<T>) key);
+    } else {
+      return injector.getProvider((Type) key);
+    }
+  }
+
+  /**
+   * Tells whether generated code may create unscoped dependencies by calling their constructors directly. Such instances
+   * bypass interceptors, metrics and tracing, so the injector must be created without any of them.
+   */
+  public static boolean canInlineConstructors(@Nonnull final Injector injector) {
+    return injector instanceof LightsaberInjector && ((LightsaberInjector) injector).canInlineConstructors;
   }
 
   @Nonnull
@@ -122,54 +268,361 @@ public class LightsaberInjector implements Injector {
     return providers;
   }
 
+  @Nonnull
+  @Override
+  public Collection<ProviderMetrics> getProviderMetrics() {
+    if (!collectMetrics) {
+      return Collections.emptyList();
+    }
+
+    final List<ProviderMetrics> metrics = new ArrayList<ProviderMetrics>(providers.size());
+    final MapIterator<Object, Provider<?>> iterator = providers.iterator();
+    while (iterator.hasNext()) {
+      final Object key = iterator.next();
+      Provider<?> provider = iterator.getValue();
+      if (provider instanceof LazyProviderTable.Slot) {
+        provider = lazyProviders.find((LazyProviderTable.Slot) provider);
+        if (provider == null) {
+          // The provider has never been requested.
+          metrics.add(new ProviderMetrics(key, 0L, 0L, 0L, 0L, 0L, 0L));
+          continue;
+        }
+      }
+
+      if (provider instanceof MeteredProvider<?>) {
+        metrics.add(((MeteredProvider<?>) provider).getMetrics(key));
+      }
+    }
+
+    return metrics;
+  }
+
+  @Override
+  public void dispose() {
+    final List<ThreadScopedProvider<?>> disposedProviders;
+    synchronized (threadScopedProviders) {
+      disposed = true;
+      disposedProviders = new ArrayList<ThreadScopedProvider<?>>(threadScopedProviders);
+      threadScopedProviders.clear();
+    }
+
+    for (final ThreadScopedProvider<?> provider : disposedProviders) {
+      provider.dispose();
+    }
+  }
+
+  public void instantiateEagerDependencies(@Nonnull final Object[] keys, @Nonnull final int[][] prerequisites) {
+    if (deferredEagerDependencies != null) {
+      deferredEagerDependencies.add(new EagerDependencies(keys, prerequisites));
+      return;
+    }
+
+    instantiateEagerDependenciesNow(keys, prerequisites);
+  }
+
+  /**
+   * Instantiates eager dependencies that were deferred during configuration of an injector created with
+   * {@code deferEagerInstantiation} enabled. Must be called only once.
+   */
+  public void instantiateDeferredEagerDependencies() {
+    if (deferredEagerDependencies == null) {
+      return;
+    }
+
+    for (final EagerDependencies eagerDependencies : deferredEagerDependencies) {
+      instantiateEagerDependenciesNow(eagerDependencies.keys, eagerDependencies.prerequisites);
+    }
+  }
+
+  private void instantiateEagerDependenciesNow(@Nonnull final Object[] keys, @Nonnull final int[][] prerequisites) {
+    if (eagerInstantiationExecutor == null) {
+      for (final Object key : keys) {
+        getInstanceByKeyOrType(key);
+      }
+    } else {
+      new ParallelEagerInstantiator(this, eagerInstantiationExecutor, keys, prerequisites).instantiate();
+    }
+  }
+
   public <T> void registerProvider(final Class<? extends T> type, final Provider<? extends T> provider) {
-    registerProviderInternal(type, provider);
+    registerProviderInternal(type, provider, false);
   }
 
   public <T> void registerProvider(final Type type, final Provider<? extends T> provider) {
-    registerProviderInternal(type, provider);
+    registerProviderInternal(type, provider, false);
   }
 
   public <T> void registerProvider(final Key<T> key, final Provider<? extends T> provider) {
-    if (key.getQualifier() != null) {
-      registerProviderInternal(key, provider);
-    } else {
-      registerProviderInternal(key.getType(), provider);
-    }
+    registerProviderInternal(key.getQualifier() != null ? key : key.getType(), provider, false);
+  }
+
+  public <T> void registerProvider(final int index, final Provider<? extends T> provider) {
+    providerTable.put(index, putProvider(KeyIndex.getKey(index), provider, false));
+  }
+
+  /**
+   * Registers a provider that the factory creates when it's requested for the first time.
+   *
+   * @param factory
+   *     The factory that creates the provider.
+   * @param id
+   *     The identifier of the provider in the factory.
+   * @param isCustomScoped
+   *     Whether the provider is created by a custom {@link com.joom.lightsaber.ScopeProvider}.
+   */
+  public void registerLazyProvider(final Class<?> type, final ProviderFactory factory, final int id, final boolean isCustomScoped) {
+    registerLazyProviderInternal(type, factory, id, isCustomScoped);
+  }
+
+  public void registerLazyProvider(final Type type, final ProviderFactory factory, final int id, final boolean isCustomScoped) {
+    registerLazyProviderInternal(type, factory, id, isCustomScoped);
+  }
+
+  public void registerLazyProvider(final Key<?> key, final ProviderFactory factory, final int id, final boolean isCustomScoped) {
+    registerLazyProviderInternal(key.getQualifier() != null ? key : key.getType(), factory, id, isCustomScoped);
+  }
+
+  public void registerLazyProvider(final int index, final ProviderFactory factory, final int id, final boolean isCustomScoped) {
+    final Object key = KeyIndex.getKey(index);
+    providerTable.put(index, putLazyProvider(key, factory, id, isCustomScoped));
+  }
+
+  /**
+   * Registers a provider created by a custom {@link com.joom.lightsaber.ScopeProvider}. Such a provider may return cached
+   * instances, so metrics don't count its calls as instantiations.
+   */
+  public <T> void registerCustomScopedProvider(final Class<? extends T> type, final Provider<? extends T> provider) {
+    registerProviderInternal(type, provider, true);
+  }
+
+  public <T> void registerCustomScopedProvider(final Type type, final Provider<? extends T> provider) {
+    registerProviderInternal(type, provider, true);
+  }
+
+  public <T> void registerCustomScopedProvider(final Key<T> key, final Provider<? extends T> provider) {
+    registerProviderInternal(key.getQualifier() != null ? key : key.getType(), provider, true);
+  }
+
+  public <T> void registerCustomScopedProvider(final int index, final Provider<? extends T> provider) {
+    providerTable.put(index, putProvider(KeyIndex.getKey(index), provider, true));
   }
 
   @Nonnull
   private <T> Provider<T> getProviderInternal(@Nonnull final Object key) {
-    // noinspection unchecked
-    final Provider<T> provider = (Provider<T>) providers.get(key);
+    final Provider<?> provider = findProvider(key);
     if (provider == null) {
-      if (parent != null) {
-        try {
-          return parent.getProviderInternal(key);
-        } catch (final ConfigurationException exception) {
-          throwConfigurationException(key, exception);
+      throw new ConfigurationException("Provider for " + key + " not found in " + this);
+    }
+
+    if (collectMetrics) {
+      recordLookup(provider);
+    }
+
+    // noinspection unchecked
+    return (Provider<T>) provider;
+  }
+
+  @Nonnull
+  private Provider<?> materialize(@Nonnull final Provider<?> provider) {
+    return provider instanceof LazyProviderTable.Slot ? lazyProviders.get((LazyProviderTable.Slot) provider) : provider;
+  }
+
+  @Nonnull
+  Provider<?> createLazyProvider(
+      @Nonnull final Object key,
+      @Nonnull final ProviderFactory factory,
+      final int id,
+      final boolean isCustomScoped
+  ) {
+    final Provider<?> provider = factory.createProvider(this, id);
+    onProviderMaterialized(provider);
+    return collectMetrics || tracer != null ? wrapProvider(key, provider, isCustomScoped) : provider;
+  }
+
+  private void onProviderMaterialized(@Nonnull final Provider<?> provider) {
+    if (provider instanceof ThreadScopedProvider<?>) {
+      final ThreadScopedProvider<?> threadScopedProvider = (ThreadScopedProvider<?>) provider;
+      synchronized (threadScopedProviders) {
+        if (!disposed) {
+          threadScopedProviders.add(threadScopedProvider);
+          return;
         }
-      } else {
-        throwConfigurationException(key, null);
       }
+
+      // A provider materialized lazily after the injector has been disposed must not cache instances either.
+      threadScopedProvider.dispose();
     }
-    // noinspection ConstantConditions
+  }
+
+  @Nullable
+  private Provider<?> findProvider(@Nonnull final Object key) {
+    final Provider<?> provider = providers.get(key);
+    if (provider != null) {
+      return materialize(provider);
+    }
+
+    if (parent == null) {
+      return null;
+    }
+
+    if (parentProviderCache == null) {
+      return parent.findProvider(key);
+    }
+
+    final Provider<?> cachedProvider = parentProviderCache.get(key);
+    if (cachedProvider != null) {
+      return cachedProvider;
+    }
+
+    final Provider<?> parentProvider = parent.findProvider(key);
+    if (parentProvider != null) {
+      parentProviderCache.put(key, parentProvider);
+    }
+    return parentProvider;
+  }
+
+  @Nonnull
+  Object getInstanceByKeyOrType(@Nonnull final Object key) {
+    if (key instanceof Key<?>) {
+      return getInstance((Key<?>) key);
+    } else {
+      return getInstance((Type) key);
+    }
+  }
+
+  @Nonnull
+  private Provider<?> getInterceptedProvider(@Nonnull final Object key, @Nullable final Key<?> originalKey) {
+    if (interceptedProviderCache == null) {
+      return new ProviderResolutionChain().proceed(originalKey != null ? originalKey : Key.of((Type) key));
+    }
+
+    final Provider<?> cachedProvider = interceptedProviderCache.get(key);
+    if (cachedProvider != null) {
+      if (collectMetrics) {
+        recordLookup(cachedProvider);
+      }
+      return cachedProvider;
+    }
+
+    final Provider<?> provider = new ProviderResolutionChain().proceed(originalKey != null ? originalKey : Key.of((Type) key));
+    interceptedProviderCache.put(key, provider);
     return provider;
   }
 
-  private <T> void registerProviderInternal(final Object key, final Provider<? extends T> provider) {
-    final Provider<?> oldProvider = providers.put(key, provider);
+  private void recordLookup(@Nonnull final Provider<?> provider) {
+    if (provider instanceof MeteredProvider<?>) {
+      ((MeteredProvider<?>) provider).recordLookup(this);
+    }
+  }
+
+  private <T> void registerProviderInternal(final Object key, final Provider<? extends T> provider, final boolean isCustomScoped) {
+    final Provider<?> registeredProvider = putProvider(key, provider, isCustomScoped);
+    final int index = KeyIndex.findIndex(key);
+    if (index >= 0) {
+      providerTable.put(index, registeredProvider);
+    }
+  }
+
+  @Nonnull
+  private <T> Provider<?> putProvider(final Object key, final Provider<? extends T> provider, final boolean isCustomScoped) {
+    onProviderMaterialized(provider);
+    final Provider<?> registeredProvider = collectMetrics || tracer != null ? wrapProvider(key, provider, isCustomScoped) : provider;
+    putRegisteredProvider(key, registeredProvider);
+    return registeredProvider;
+  }
+
+  private void registerLazyProviderInternal(
+      final Object key,
+      final ProviderFactory factory,
+      final int id,
+      final boolean isCustomScoped
+  ) {
+    final Provider<?> slot = putLazyProvider(key, factory, id, isCustomScoped);
+    final int index = KeyIndex.findIndex(key);
+    if (index >= 0) {
+      providerTable.put(index, slot);
+    }
+  }
+
+  @Nonnull
+  private Provider<?> putLazyProvider(final Object key, final ProviderFactory factory, final int id, final boolean isCustomScoped) {
+    if (lazyProviders == null) {
+      lazyProviders = new LazyProviderTable(this);
+    }
+
+    // Metrics and tracing wrappers are applied when the provider is created.
+    final Provider<?> slot = lazyProviders.add(key, factory, id, isCustomScoped);
+    putRegisteredProvider(key, slot);
+    return slot;
+  }
+
+  private void putRegisteredProvider(final Object key, final Provider<?> registeredProvider) {
+    final Provider<?> oldProvider = providers.put(key, registeredProvider);
     if (oldProvider != null) {
       throw new ConfigurationException("Provider for " + key + " already registered in " + this);
     }
+
+    if (tracer != null) {
+      tracer.onProviderRegistered(this, key);
+    }
   }
 
-  private void throwConfigurationException(@Nonnull final Object key, final Throwable cause) {
-    final ConfigurationException exception = new ConfigurationException("Provider for " + key + " not found in " + this);
-    if (cause != null) {
-      exception.initCause(cause);
+  @Nonnull
+  private <T> Provider<? extends T> wrapProvider(
+      final Object key,
+      final Provider<? extends T> provider,
+      final boolean isCustomScoped
+  ) {
+    @SuppressWarnings("unchecked")
+    final SingletonProvider<? extends T> singletonProvider =
+        provider instanceof SingletonProvider<?> ? (SingletonProvider<? extends T>) provider : null;
+
+    Provider<? extends T> wrappedProvider = provider;
+    if (tracer != null && singletonProvider != null) {
+      wrappedProvider = new TracingProvider<T>(tracer, key, singletonProvider);
+    }
+
+    if (collectMetrics) {
+      wrappedProvider = new MeteredProvider<T>(this, wrappedProvider, provider, isCustomScoped);
     }
-    throw exception;
+
+    return wrappedProvider;
+  }
+
+  @Nonnull
+  InjectorLayout getLayout(@Nonnull final Class<?> componentType) {
+    // The layout is shared by all injectors created from a template, so the rebuild is worth it regardless of the size.
+    providers.freeze();
+    return new InjectorLayout(componentType, providers.getLayout(), providerTable.getOffset(), providerTable.getCapacity());
+  }
+
+  @Nonnull
+  private static PolymorphicKeyHashMap<Provider<?>> createProviderMap(@Nonnull final Object component, @Nullable final InjectorLayout layout) {
+    if (layout != null && layout.providerMapLayout != null) {
+      return new PolymorphicKeyHashMap<Provider<?>>(layout.providerMapLayout);
+    }
+
+    if (!(component instanceof InjectorConfigurator.Sized)) {
+      return new PolymorphicKeyHashMap<Provider<?>>();
+    }
+
+    // The injector registers a provider for itself in addition to the ones registered by the component.
+    final int providerCount = ((InjectorConfigurator.Sized) component).getProviderCount() + 1;
+    return new PolymorphicKeyHashMap<Provider<?>>(LightweightHashMap.calculateCapacity(providerCount));
+  }
+
+  private static boolean areDeterministic(@Nullable final List<ProviderInterceptor> interceptors) {
+    if (interceptors == null) {
+      return false;
+    }
+
+    for (final ProviderInterceptor interceptor : interceptors) {
+      if (!(interceptor instanceof ProviderInterceptor.Deterministic)) {
+        return false;
+      }
+    }
+
+    return true;
   }
 
   private class ProviderResolutionChain implements ProviderInterceptor.Chain {
@@ -202,4 +655,14 @@ public class LightsaberInjector implements Injector {
       }
     }
   }
+
+  private static class EagerDependencies {
+    private final Object[] keys;
+    private final int[][] prerequisites;
+
+    EagerDependencies(@Nonnull final Object[] keys, @Nonnull final int[][] prerequisites) {
+      this.keys = keys;
+      this.prerequisites = prerequisites;
+    }
+  }
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.internal;
+
+import com.joom.lightsaber.Injector;
+import com.joom.lightsaber.InjectorTemplate;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import javax.annotation.Nonnull;
+
+class LightsaberInjectorTemplate implements InjectorTemplate {
+  private static final AtomicReferenceFieldUpdater<LightsaberInjectorTemplate, InjectorLayout> LAYOUT =
+      AtomicReferenceFieldUpdater.newUpdater(LightsaberInjectorTemplate.class, InjectorLayout.class, "layout");
+
+  private final LightsaberInjector parent;
+  private final InjectorOptions options;
+  private volatile InjectorLayout layout;
+
+  LightsaberInjectorTemplate(@Nonnull final LightsaberInjector parent, @Nonnull final InjectorOptions options) {
+    this.parent = parent;
+    this.options = options;
+  }
+
+  @Nonnull
+  @Override
+  public Injector createInjector(@Nonnull final Object component) {
+    // noinspection ConstantConditions
+    if (component == null) {
+      throw new NullPointerException("Trying to create an injector with a null component");
+    }
+
+    final InjectorLayout currentLayout = layout;
+    if (currentLayout != null) {
+      checkComponentType(currentLayout, component);
+      return new LightsaberInjector(component, parent, options, false, currentLayout);
+    }
+
+    final LightsaberInjector injector = new LightsaberInjector(component, parent, options, false, null);
+    if (!LAYOUT.compareAndSet(this, null, injector.getLayout(component.getClass()))) {
+      checkComponentType(layout, component);
+    }
+    return injector;
+  }
+
+  private static void checkComponentType(@Nonnull final InjectorLayout layout, @Nonnull final Object component) {
+    if (layout.componentType != component.getClass()) {
+      throw new IllegalArgumentException(
+          "Template for components of " + layout.componentType.getName() + " cannot create an injector for " + component
+      );
+    }
+  }
+}
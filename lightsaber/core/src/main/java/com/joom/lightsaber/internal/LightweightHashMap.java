@@ -24,17 +24,22 @@ import java.util.NoSuchElementException;
 import java.util.Set;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 public class LightweightHashMap<K, V> implements IterableMap<K, V> {
   private static final int DEFAULT_CAPACITY = 16;
   private static final float DEFAULT_LOAD_FACTOR = 0.7f;
   private static final int MAXIMUM_CAPACITY = 1 << 29;
+  private static final float FROZEN_LOAD_FACTOR = 0.8f;
+  private static final int MAXIMUM_SEED_ATTEMPTS = 1 << 10;
 
   private final transient float loadFactor;
   private transient int size;
   private transient Object[] data;
   private transient int threshold;
   private transient int modificationCount;
+  private transient int[] seeds;
+  private transient boolean keepsLayout;
 
   public LightweightHashMap() {
     this(DEFAULT_CAPACITY);
@@ -51,6 +56,26 @@ public class LightweightHashMap<K, V> implements IterableMap<K, V> {
     this.threshold = calculateThreshold(capacity, loadFactor);
   }
 
+  /**
+   * Creates an empty frozen map with the layout of another map. Entries whose slots are free in the layout are put
+   * without rebuilding the table, so a map filled with the same keys as the original one stays frozen.
+   */
+  public LightweightHashMap(@Nonnull final Layout layout) {
+    this.loadFactor = layout.loadFactor;
+    this.data = new Object[layout.capacity << 1];
+    this.threshold = calculateThreshold(layout.capacity, loadFactor);
+    this.seeds = layout.seeds;
+    this.keepsLayout = true;
+  }
+
+  /**
+   * Calculates an initial capacity that lets a map with the default load factor hold the given number of entries
+   * without resizing.
+   */
+  public static int calculateCapacity(final int expectedSize) {
+    return (int) (expectedSize / DEFAULT_LOAD_FACTOR) + 1;
+  }
+
   @Override
   public int size() {
     return size;
@@ -64,7 +89,7 @@ public class LightweightHashMap<K, V> implements IterableMap<K, V> {
   @Override
   public boolean containsKey(final Object key) {
     final int index = findInTable(key);
-    return getKeyAt(index) != null;
+    return index != -1 && getKeyAt(index) != null;
   }
 
   @Override
@@ -98,6 +123,16 @@ public class LightweightHashMap<K, V> implements IterableMap<K, V> {
   @Override
   public V put(final K key, final V value) {
     modificationCount++;
+    final int[] currentSeeds = seeds;
+    if (keepsLayout && currentSeeds != null) {
+      final int index = findSlotInFrozenTable(key, currentSeeds);
+      if (index != -1) {
+        // noinspection unchecked
+        return (V) setValueAt(index, key, value);
+      }
+    }
+
+    thaw();
     maybeEnsureCapacity();
     final int index = findInTable(key);
     if (index == -1) {
@@ -119,6 +154,7 @@ public class LightweightHashMap<K, V> implements IterableMap<K, V> {
       return;
     }
 
+    thaw();
     ensureCapacity(calculateNewCapacity(size + map.size()));
     if (map instanceof IterableMap<?, ?>) {
       // noinspection unchecked
@@ -144,9 +180,93 @@ public class LightweightHashMap<K, V> implements IterableMap<K, V> {
   @Override
   public void clear() {
     size = 0;
+    seeds = null;
+    keepsLayout = false;
+    threshold = calculateThreshold(data.length >>> 1, loadFactor);
     Arrays.fill(data, null);
   }
 
+  /**
+   * Rebuilds the table into a collision-free layout so that every lookup takes a single probe. The layout is
+   * discarded on the next modification of the map. If no such layout can be found the map is left unchanged.
+   */
+  public void freeze() {
+    if (seeds != null || size == 0) {
+      return;
+    }
+
+    final int capacity = calculateNewCapacity((int) (size / FROZEN_LOAD_FACTOR) + 1);
+    if (capacity >= MAXIMUM_CAPACITY) {
+      return;
+    }
+
+    final int bucketCount = calculateNewCapacity(Math.max(1, size >>> 1));
+    final int[] bucketSizes = new int[bucketCount];
+    final int[] hashes = new int[size];
+    final int[] entries = new int[size];
+    for (int i = 0, entry = 0, count = data.length; i < count; i += 2) {
+      final Object escapedKey = data[i];
+      if (escapedKey != null) {
+        final int hash = hashCode(escapedKey == Null.VALUE ? null : escapedKey);
+        hashes[entry] = hash;
+        entries[entry] = i;
+        bucketSizes[bucketIndex(hash, bucketCount)] += 1;
+        entry += 1;
+      }
+    }
+
+    final int[] bucketOffsets = new int[bucketCount + 1];
+    for (int bucket = 0; bucket < bucketCount; ++bucket) {
+      bucketOffsets[bucket + 1] = bucketOffsets[bucket] + bucketSizes[bucket];
+    }
+
+    final int[] bucketEntries = new int[size];
+    final int[] bucketPositions = Arrays.copyOf(bucketOffsets, bucketCount);
+    for (int entry = 0; entry < size; ++entry) {
+      final int bucket = bucketIndex(hashes[entry], bucketCount);
+      bucketEntries[bucketPositions[bucket]++] = entry;
+    }
+
+    final Object[] frozenData = new Object[capacity << 1];
+    final int[] frozenSeeds = new int[bucketCount];
+    final int mask = capacity - 1;
+    for (int bucketSize = maximumOf(bucketSizes); bucketSize > 0; --bucketSize) {
+      for (int bucket = 0; bucket < bucketCount; ++bucket) {
+        if (bucketSizes[bucket] != bucketSize) {
+          continue;
+        }
+
+        final int from = bucketOffsets[bucket];
+        final int to = bucketOffsets[bucket + 1];
+        final int seed = placeBucket(frozenData, mask, hashes, entries, bucketEntries, from, to);
+        if (seed == -1) {
+          return;
+        }
+        frozenSeeds[bucket] = seed;
+      }
+    }
+
+    modificationCount++;
+    data = frozenData;
+    seeds = frozenSeeds;
+    threshold = calculateThreshold(capacity, loadFactor);
+  }
+
+  public boolean isFrozen() {
+    return seeds != null;
+  }
+
+  /**
+   * Returns the layout of a frozen map that can be used to create maps for the same keys.
+   *
+   * @return The layout of the map or {@code null} if the map isn't frozen.
+   */
+  @Nullable
+  public Layout getLayout() {
+    final int[] currentSeeds = seeds;
+    return currentSeeds == null ? null : new Layout(data.length >>> 1, loadFactor, currentSeeds);
+  }
+
   @Nonnull
   @Override
   public Set<K> keySet() {
@@ -256,6 +376,11 @@ public class LightweightHashMap<K, V> implements IterableMap<K, V> {
   }
 
   private int findInTable(final Object key) {
+    final int[] currentSeeds = seeds;
+    if (currentSeeds != null) {
+      return findInFrozenTable(key, currentSeeds);
+    }
+
     final int fromIndex = hashIndex(key);
     final int index = findInRange(key, fromIndex, data.length >>> 1);
     if (index != -1) {
@@ -264,6 +389,109 @@ public class LightweightHashMap<K, V> implements IterableMap<K, V> {
     return findInRange(key, 0, fromIndex);
   }
 
+  private int findInFrozenTable(final Object key, final int[] currentSeeds) {
+    final int index = findSlotInFrozenTable(key, currentSeeds);
+    return index != -1 && getKeyAt(index) != null ? index : -1;
+  }
+
+  private int findSlotInFrozenTable(final Object key, final int[] currentSeeds) {
+    final int hash = hashCode(key);
+    final int seed = currentSeeds[bucketIndex(hash, currentSeeds.length)];
+    final int index = slotIndex(hash, seed, (data.length >>> 1) - 1);
+    final Object currentKey = getKeyAt(index);
+    if (currentKey == null) {
+      return index;
+    }
+    return (currentKey == Null.VALUE && key == null) || areKeysEqual(currentKey, key) ? index : -1;
+  }
+
+  private int placeBucket(
+      final Object[] frozenData,
+      final int mask,
+      final int[] hashes,
+      final int[] entries,
+      final int[] bucketEntries,
+      final int from,
+      final int to
+  ) {
+    for (int i = from; i < to; ++i) {
+      for (int j = i + 1; j < to; ++j) {
+        if (hashes[bucketEntries[i]] == hashes[bucketEntries[j]]) {
+          return -1;
+        }
+      }
+    }
+
+    for (int seed = 0; seed < MAXIMUM_SEED_ATTEMPTS; ++seed) {
+      int placed = from;
+      while (placed < to) {
+        final int entry = bucketEntries[placed];
+        final int keyIndex = slotIndex(hashes[entry], seed, mask) << 1;
+        if (frozenData[keyIndex] != null) {
+          break;
+        }
+        frozenData[keyIndex] = data[entries[entry]];
+        frozenData[keyIndex + 1] = data[entries[entry] + 1];
+        placed += 1;
+      }
+
+      if (placed == to) {
+        return seed;
+      }
+
+      for (int i = from; i < placed; ++i) {
+        final int keyIndex = slotIndex(hashes[bucketEntries[i]], seed, mask) << 1;
+        frozenData[keyIndex] = null;
+        frozenData[keyIndex + 1] = null;
+      }
+    }
+
+    return -1;
+  }
+
+  private void thaw() {
+    if (seeds == null) {
+      return;
+    }
+
+    final Object[] frozenData = data;
+    final int capacity = calculateNewCapacity((int) (size / loadFactor) + 1);
+    seeds = null;
+    keepsLayout = false;
+    data = new Object[capacity << 1];
+    threshold = calculateThreshold(capacity, loadFactor);
+    for (int i = 0, count = frozenData.length; i < count; i += 2) {
+      final Object escapedKey = frozenData[i];
+      if (escapedKey != null) {
+        final int keyIndex = findInTable(escapedKey == Null.VALUE ? null : escapedKey) << 1;
+        data[keyIndex] = escapedKey;
+        data[keyIndex + 1] = frozenData[i + 1];
+      }
+    }
+  }
+
+  private static int bucketIndex(final int hash, final int bucketCount) {
+    return (hash ^ (hash >>> 16)) & (bucketCount - 1);
+  }
+
+  private static int slotIndex(final int hash, final int seed, final int mask) {
+    int result = hash ^ (seed * 0x9E3779B9);
+    result ^= result >>> 16;
+    result *= 0x85EBCA6B;
+    result ^= result >>> 13;
+    result *= 0xC2B2AE35;
+    result ^= result >>> 16;
+    return result & mask;
+  }
+
+  private static int maximumOf(final int[] values) {
+    int result = 0;
+    for (final int value : values) {
+      result = Math.max(result, value);
+    }
+    return result;
+  }
+
   private int findInRange(final Object key, final int fromIndex, final int toIndex) {
     for (int i = fromIndex; i < toIndex; ++i) {
       final Object currentKey = getKeyAt(i);
@@ -360,6 +588,18 @@ public class LightweightHashMap<K, V> implements IterableMap<K, V> {
     VALUE
   }
 
+  public static final class Layout {
+    private final int capacity;
+    private final float loadFactor;
+    private final int[] seeds;
+
+    private Layout(final int capacity, final float loadFactor, @Nonnull final int[] seeds) {
+      this.capacity = capacity;
+      this.loadFactor = loadFactor;
+      this.seeds = seeds;
+    }
+  }
+
   private static class AddOnlyHashMapIterator<K, V> implements MapIterator<K, V> {
     private static final int STATE_INITIAL = -1;
     private static final int STATE_UNKNOWN = 0;
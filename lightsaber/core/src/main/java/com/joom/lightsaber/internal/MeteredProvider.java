@@ -0,0 +1,133 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.internal;
+
+import com.joom.lightsaber.ProviderMetrics;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import javax.annotation.Nonnull;
+import javax.inject.Provider;
+
+class MeteredProvider<T> implements Provider<T> {
+  @SuppressWarnings("rawtypes")
+  private static final AtomicLongFieldUpdater<MeteredProvider> LOOKUP_COUNT =
+      AtomicLongFieldUpdater.newUpdater(MeteredProvider.class, "lookupCount");
+  @SuppressWarnings("rawtypes")
+  private static final AtomicLongFieldUpdater<MeteredProvider> CHILD_LOOKUP_COUNT =
+      AtomicLongFieldUpdater.newUpdater(MeteredProvider.class, "childLookupCount");
+  @SuppressWarnings("rawtypes")
+  private static final AtomicLongFieldUpdater<MeteredProvider> INSTANTIATION_COUNT =
+      AtomicLongFieldUpdater.newUpdater(MeteredProvider.class, "instantiationCount");
+  @SuppressWarnings("rawtypes")
+  private static final AtomicLongFieldUpdater<MeteredProvider> CONSTRUCTION_TIME_NANOS =
+      AtomicLongFieldUpdater.newUpdater(MeteredProvider.class, "constructionTimeNanos");
+
+  private final LightsaberInjector injector;
+  private final Provider<? extends T> provider;
+  private final Kind kind;
+  private final ScopedProvider scopedProvider;
+
+  private volatile long lookupCount;
+  private volatile long childLookupCount;
+  private volatile long instantiationCount;
+  private volatile long constructionTimeNanos;
+
+  /**
+   * @param provider
+   *     The provider that creates instances, possibly wrapped for tracing.
+   * @param registeredProvider
+   *     The provider registered in the injector that determines the scope.
+   * @param isCustomScoped
+   *     Whether the registered provider has been created by a custom scope.
+   */
+  MeteredProvider(
+      @Nonnull final LightsaberInjector injector,
+      @Nonnull final Provider<? extends T> provider,
+      @Nonnull final Provider<?> registeredProvider,
+      final boolean isCustomScoped
+  ) {
+    this.injector = injector;
+    this.provider = provider;
+    this.kind = getKind(registeredProvider, isCustomScoped);
+    this.scopedProvider = registeredProvider instanceof ScopedProvider ? (ScopedProvider) registeredProvider : null;
+  }
+
+  @Override
+  public T get() {
+    // Instances created by custom scope providers can't be told from cached ones.
+    if (kind == Kind.CUSTOM_SCOPED || (scopedProvider != null && scopedProvider.isInstantiated())) {
+      return provider.get();
+    }
+
+    final long startTime = System.nanoTime();
+    final T instance = provider.get();
+    final long elapsedTime = System.nanoTime() - startTime;
+
+    // Threads that have waited for a singleton being created concurrently don't count as instantiations.
+    if (kind != Kind.SINGLETON || INSTANTIATION_COUNT.compareAndSet(this, 0L, 1L)) {
+      if (kind != Kind.SINGLETON) {
+        INSTANTIATION_COUNT.incrementAndGet(this);
+      }
+      CONSTRUCTION_TIME_NANOS.addAndGet(this, elapsedTime);
+    }
+
+    return instance;
+  }
+
+  void recordLookup(@Nonnull final LightsaberInjector requester) {
+    if (requester == injector) {
+      LOOKUP_COUNT.incrementAndGet(this);
+    } else {
+      CHILD_LOOKUP_COUNT.incrementAndGet(this);
+    }
+  }
+
+  @Nonnull
+  ProviderMetrics getMetrics(@Nonnull final Object key) {
+    final long instantiations = instantiationCount;
+    return new ProviderMetrics(
+        key,
+        lookupCount,
+        childLookupCount,
+        kind == Kind.UNSCOPED ? instantiations : 0L,
+        kind == Kind.SINGLETON ? instantiations : 0L,
+        kind == Kind.SCOPED ? instantiations : 0L,
+        constructionTimeNanos
+    );
+  }
+
+  @Nonnull
+  private static Kind getKind(@Nonnull final Provider<?> provider, final boolean isCustomScoped) {
+    if (provider instanceof SingletonProvider<?>) {
+      return Kind.SINGLETON;
+    }
+
+    if (provider instanceof ScopedProvider) {
+      return Kind.SCOPED;
+    }
+
+    return isCustomScoped ? Kind.CUSTOM_SCOPED : Kind.UNSCOPED;
+  }
+
+  private enum Kind {
+    UNSCOPED,
+    SINGLETON,
+    SCOPED,
+    CUSTOM_SCOPED
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.internal;
+
+import com.joom.lightsaber.ConfigurationException;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Instantiates eager dependencies on an {@link Executor} in an order that respects their prerequisites.
+ * <p>
+ * The calling thread takes part in the instantiation too, so the process completes even if the executor
+ * doesn't run submitted tasks, e.g. when it's a single-threaded executor the injector is being created on.
+ * </p>
+ */
+class ParallelEagerInstantiator {
+  private final LightsaberInjector injector;
+  private final Executor executor;
+  private final Object[] keys;
+  private final int[][] dependents;
+  private final AtomicIntegerArray pendingPrerequisites;
+  private final AtomicInteger remainingCount;
+  private final AtomicInteger activeCount = new AtomicInteger();
+  private final Queue<Integer> readyIndices = new ConcurrentLinkedQueue<Integer>();
+  private final Semaphore signals = new Semaphore(0);
+  private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+  private final Runnable task = new Runnable() {
+    @Override
+    public void run() {
+      final Integer index = readyIndices.poll();
+      if (index != null) {
+        instantiate(index);
+      }
+    }
+  };
+
+  ParallelEagerInstantiator(
+      @Nonnull final LightsaberInjector injector,
+      @Nonnull final Executor executor,
+      @Nonnull final Object[] keys,
+      @Nonnull final int[][] prerequisites
+  ) {
+    this.injector = injector;
+    this.executor = executor;
+    this.keys = keys;
+    this.dependents = computeDependents(prerequisites);
+    this.pendingPrerequisites = new AtomicIntegerArray(keys.length);
+    this.remainingCount = new AtomicInteger(keys.length);
+
+    for (int i = 0; i < keys.length; ++i) {
+      pendingPrerequisites.set(i, prerequisites[i].length);
+    }
+  }
+
+  void instantiate() {
+    for (int i = 0; i < keys.length; ++i) {
+      if (pendingPrerequisites.get(i) == 0) {
+        schedule(i);
+      }
+    }
+
+    while (!isCompleted()) {
+      signals.acquireUninterruptibly();
+      final Integer index = readyIndices.poll();
+      if (index != null) {
+        instantiate(index);
+      }
+    }
+
+    final Throwable throwable = failure.get();
+    if (throwable instanceof RuntimeException) {
+      throw (RuntimeException) throwable;
+    }
+
+    if (throwable instanceof Error) {
+      throw (Error) throwable;
+    }
+
+    if (throwable != null) {
+      // Providers written in Kotlin may throw checked exceptions.
+      throw new ConfigurationException("Failed to instantiate an eager dependency", throwable);
+    }
+  }
+
+  private void schedule(final int index) {
+    readyIndices.add(index);
+    signals.release();
+
+    try {
+      executor.execute(task);
+    } catch (final RejectedExecutionException exception) {
+      // The calling thread will instantiate the dependency itself.
+    }
+  }
+
+  private boolean isCompleted() {
+    // After a failure nothing is scheduled anymore, but dependencies that are being instantiated must be waited for, so the
+    // injector doesn't keep creating singletons in the background after its creation has failed.
+    return remainingCount.get() == 0 || (failure.get() != null && activeCount.get() == 0);
+  }
+
+  private void instantiate(final int index) {
+    activeCount.incrementAndGet();
+    try {
+      if (failure.get() == null) {
+        instantiateAndScheduleDependents(index);
+      }
+    } finally {
+      if (activeCount.decrementAndGet() == 0 && failure.get() != null) {
+        signals.release();
+      }
+    }
+  }
+
+  private void instantiateAndScheduleDependents(final int index) {
+    try {
+      injector.getInstanceByKeyOrType(keys[index]);
+    } catch (final Throwable throwable) {
+      failure.compareAndSet(null, throwable);
+      return;
+    }
+
+    for (final int dependent : dependents[index]) {
+      if (pendingPrerequisites.decrementAndGet(dependent) == 0) {
+        schedule(dependent);
+      }
+    }
+
+    if (remainingCount.decrementAndGet() == 0) {
+      signals.release();
+    }
+  }
+
+  @Nonnull
+  private static int[][] computeDependents(@Nonnull final int[][] prerequisites) {
+    final int[] dependentCounts = new int[prerequisites.length];
+    for (final int[] indices : prerequisites) {
+      for (final int index : indices) {
+        dependentCounts[index] += 1;
+      }
+    }
+
+    final int[][] dependents = new int[prerequisites.length][];
+    for (int i = 0; i < prerequisites.length; ++i) {
+      dependents[i] = new int[dependentCounts[i]];
+    }
+
+    for (int i = 0; i < prerequisites.length; ++i) {
+      for (final int index : prerequisites[i]) {
+        dependents[index][--dependentCounts[index]] = i;
+      }
+    }
+
+    return dependents;
+  }
+}
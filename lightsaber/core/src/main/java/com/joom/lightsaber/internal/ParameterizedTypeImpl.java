@@ -23,11 +23,13 @@ public final class ParameterizedTypeImpl implements ParameterizedType {
   private final Type ownerType;
   private final Class<?> rawType;
   private final Type[] typeArguments;
+  private final int typeHashCode;
 
   public ParameterizedTypeImpl(final Type ownerType, final Class<?> rawType, final Type... typeArguments) {
     this.ownerType = ownerType;
     this.rawType = rawType;
     this.typeArguments = typeArguments;
+    this.typeHashCode = TypeUtils.computeParameterizedTypeHashCode(ownerType, rawType, typeArguments);
   }
 
   @Override
@@ -45,6 +47,10 @@ public final class ParameterizedTypeImpl implements ParameterizedType {
     return ownerType;
   }
 
+  int getTypeHashCode() {
+    return typeHashCode;
+  }
+
   @Override
   public String toString() {
     final StringBuilder builder = new StringBuilder();
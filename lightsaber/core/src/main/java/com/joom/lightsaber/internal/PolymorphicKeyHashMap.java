@@ -18,6 +18,8 @@ package com.joom.lightsaber.internal;
 
 import java.lang.reflect.Type;
 
+import javax.annotation.Nonnull;
+
 public class PolymorphicKeyHashMap<V> extends LightweightHashMap<Object, V> {
   public PolymorphicKeyHashMap() {
   }
@@ -30,6 +32,10 @@ public class PolymorphicKeyHashMap<V> extends LightweightHashMap<Object, V> {
     super(initialCapacity, loadFactor);
   }
 
+  public PolymorphicKeyHashMap(@Nonnull final Layout layout) {
+    super(layout);
+  }
+
   @Override
   protected int hashCode(final Object key) {
     if (key instanceof Class<?>) {
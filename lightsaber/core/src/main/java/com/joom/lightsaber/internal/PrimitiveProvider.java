@@ -0,0 +1,55 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.internal;
+
+/**
+ * A provider of a primitive value. Generated providers of primitive bindings implement one of the nested interfaces
+ * in addition to {@link javax.inject.Provider}, so injection sites can get the value without boxing it.
+ */
+public interface PrimitiveProvider {
+  interface OfBoolean extends PrimitiveProvider {
+    boolean getBoolean();
+  }
+
+  interface OfByte extends PrimitiveProvider {
+    byte getByte();
+  }
+
+  interface OfChar extends PrimitiveProvider {
+    char getChar();
+  }
+
+  interface OfShort extends PrimitiveProvider {
+    short getShort();
+  }
+
+  interface OfInt extends PrimitiveProvider {
+    int getInt();
+  }
+
+  interface OfLong extends PrimitiveProvider {
+    long getLong();
+  }
+
+  interface OfFloat extends PrimitiveProvider {
+    float getFloat();
+  }
+
+  interface OfDouble extends PrimitiveProvider {
+    double getDouble();
+  }
+}
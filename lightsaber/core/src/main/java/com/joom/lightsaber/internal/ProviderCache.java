@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.internal;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Provider;
+
+class ProviderCache {
+  private static final int MAXIMUM_PROBES = 8;
+
+  private final AtomicReferenceArray<Entry> entries;
+  private final int mask;
+
+  ProviderCache(final int capacity) {
+    if (Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+    }
+
+    this.entries = new AtomicReferenceArray<Entry>(capacity);
+    this.mask = capacity - 1;
+  }
+
+  @Nullable
+  Provider<?> get(@Nonnull final Object key) {
+    final int index = hashCode(key);
+    for (int probe = 0; probe < MAXIMUM_PROBES; ++probe) {
+      final Entry entry = entries.get((index + probe) & mask);
+      if (entry == null) {
+        return null;
+      }
+
+      if (areKeysEqual(entry.key, key)) {
+        return entry.provider;
+      }
+    }
+
+    return null;
+  }
+
+  void put(@Nonnull final Object key, @Nonnull final Provider<?> provider) {
+    final int index = hashCode(key);
+    final Entry newEntry = new Entry(key, provider);
+    for (int probe = 0; probe < MAXIMUM_PROBES; ++probe) {
+      final int position = (index + probe) & mask;
+      if (entries.compareAndSet(position, null, newEntry)) {
+        return;
+      }
+
+      if (areKeysEqual(entries.get(position).key, key)) {
+        return;
+      }
+    }
+  }
+
+  private static int hashCode(@Nonnull final Object key) {
+    final int hash = key instanceof Type ? TypeUtils.hashCode((Type) key) : key.hashCode();
+    return hash ^ (hash >>> 16);
+  }
+
+  private static boolean areKeysEqual(@Nonnull final Object key1, @Nonnull final Object key2) {
+    if (key1 == key2) {
+      return true;
+    }
+
+    if (key1 instanceof Type && key2 instanceof Type) {
+      return TypeUtils.equals((Type) key1, (Type) key2);
+    } else {
+      return key1.equals(key2);
+    }
+  }
+
+  private static class Entry {
+    final Object key;
+    final Provider<?> provider;
+
+    Entry(final Object key, final Provider<?> provider) {
+      this.key = key;
+      this.provider = provider;
+    }
+  }
+}
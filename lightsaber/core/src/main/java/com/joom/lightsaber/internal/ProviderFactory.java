@@ -0,0 +1,30 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.internal;
+
+import javax.annotation.Nonnull;
+import javax.inject.Provider;
+
+/**
+ * Implemented by generated modules when providers are materialized lazily. Creates a provider that the module has
+ * registered with {@link LightsaberInjector#registerLazyProvider(int, ProviderFactory, int, boolean)} under the given
+ * identifier.
+ */
+public interface ProviderFactory {
+  @Nonnull
+  Provider<?> createProvider(@Nonnull LightsaberInjector injector, int id);
+}
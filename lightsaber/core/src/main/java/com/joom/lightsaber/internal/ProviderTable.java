@@ -0,0 +1,157 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.internal;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Provider;
+
+// Indices are global, so the dense array covers only a compact range of them. Providers that would make the array
+// mostly empty are kept in a small open addressing table instead.
+class ProviderTable {
+  private static final int MIN_CAPACITY = 8;
+  private static final int MIN_SPARSE_CAPACITY = 64;
+  private static final int MAX_SPARSENESS = 4;
+
+  private Provider<?>[] providers;
+  private int offset;
+  private int size;
+
+  private int[] sparseIndices;
+  private Provider<?>[] sparseProviders;
+  private int sparseSize;
+
+  ProviderTable() {
+  }
+
+  ProviderTable(final int offset, final int capacity) {
+    if (capacity > 0) {
+      this.providers = new Provider<?>[capacity];
+      this.offset = offset;
+    }
+  }
+
+  int getOffset() {
+    return offset;
+  }
+
+  int getCapacity() {
+    return providers == null ? 0 : providers.length;
+  }
+
+  @Nullable
+  Provider<?> get(final int index) {
+    final Provider<?>[] currentProviders = providers;
+    if (currentProviders != null) {
+      final int position = index - offset;
+      if (position >= 0 && position < currentProviders.length) {
+        final Provider<?> provider = currentProviders[position];
+        if (provider != null) {
+          return provider;
+        }
+      }
+    }
+
+    return sparseProviders != null ? getSparse(index) : null;
+  }
+
+  void put(final int index, @Nonnull final Provider<?> provider) {
+    if (providers == null) {
+      providers = new Provider<?>[MIN_CAPACITY];
+      offset = index;
+    } else if (index < offset) {
+      if (isTooSparse(providers.length + offset - index)) {
+        putSparse(index, provider);
+        return;
+      }
+
+      final int shift = Math.min(Math.max(offset - index, providers.length / 2), offset);
+      final Provider<?>[] newProviders = new Provider<?>[providers.length + shift];
+      System.arraycopy(providers, 0, newProviders, shift, providers.length);
+      providers = newProviders;
+      offset -= shift;
+    } else if (index - offset >= providers.length) {
+      if (isTooSparse(index - offset + 1)) {
+        putSparse(index, provider);
+        return;
+      }
+
+      final int length = Math.max(index - offset + 1, providers.length + providers.length / 2);
+      final Provider<?>[] newProviders = new Provider<?>[length];
+      System.arraycopy(providers, 0, newProviders, 0, providers.length);
+      providers = newProviders;
+    }
+
+    final int position = index - offset;
+    if (providers[position] == null) {
+      size += 1;
+    }
+    providers[position] = provider;
+  }
+
+  private boolean isTooSparse(final int capacity) {
+    return capacity > MIN_SPARSE_CAPACITY && capacity > (size + 1) * MAX_SPARSENESS;
+  }
+
+  @Nullable
+  private Provider<?> getSparse(final int index) {
+    final int mask = sparseIndices.length - 1;
+    int position = hash(index) & mask;
+    while (true) {
+      final Provider<?> provider = sparseProviders[position];
+      if (provider == null || sparseIndices[position] == index) {
+        return provider;
+      }
+      position = (position + 1) & mask;
+    }
+  }
+
+  private void putSparse(final int index, @Nonnull final Provider<?> provider) {
+    if (sparseProviders == null) {
+      sparseIndices = new int[MIN_CAPACITY];
+      sparseProviders = new Provider<?>[MIN_CAPACITY];
+    } else if ((sparseSize + 1) * 2 > sparseProviders.length) {
+      final int[] oldIndices = sparseIndices;
+      final Provider<?>[] oldProviders = sparseProviders;
+      sparseIndices = new int[oldIndices.length * 2];
+      sparseProviders = new Provider<?>[oldProviders.length * 2];
+      sparseSize = 0;
+      for (int i = 0; i < oldProviders.length; i++) {
+        if (oldProviders[i] != null) {
+          putSparse(oldIndices[i], oldProviders[i]);
+        }
+      }
+    }
+
+    final int mask = sparseIndices.length - 1;
+    int position = hash(index) & mask;
+    while (sparseProviders[position] != null && sparseIndices[position] != index) {
+      position = (position + 1) & mask;
+    }
+
+    if (sparseProviders[position] == null) {
+      sparseSize += 1;
+    }
+    sparseIndices[position] = index;
+    sparseProviders[position] = provider;
+  }
+
+  private static int hash(final int index) {
+    final int hash = index * 0x9E3779B9;
+    return hash ^ (hash >>> 16);
+  }
+}
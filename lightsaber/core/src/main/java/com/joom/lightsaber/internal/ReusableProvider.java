@@ -0,0 +1,48 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.internal;
+
+import javax.annotation.Nonnull;
+import javax.inject.Provider;
+
+public class ReusableProvider<T> implements Provider<T>, ScopedProvider {
+  private final Provider<T> provider;
+  private volatile T instance;
+
+  public ReusableProvider(@Nonnull final Provider<T> provider) {
+    this.provider = provider;
+  }
+
+  @Nonnull
+  @Override
+  public T get() {
+    final T result = instance;
+    if (result != null) {
+      return result;
+    }
+
+    // Threads racing on the first request create their own instances instead of waiting for each other.
+    final T created = provider.get();
+    instance = created;
+    return created;
+  }
+
+  @Override
+  public boolean isInstantiated() {
+    return instance != null;
+  }
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.internal;
+
+/**
+ * A provider that caches the instances it creates, so only some of its {@code get()} calls create new instances.
+ */
+interface ScopedProvider {
+  /**
+   * @return {@code true} if {@code get()} called on the current thread returns a cached instance.
+   */
+  boolean isInstantiated();
+}
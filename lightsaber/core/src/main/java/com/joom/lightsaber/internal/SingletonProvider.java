@@ -19,25 +19,13 @@ package com.joom.lightsaber.internal;
 import javax.annotation.Nonnull;
 import javax.inject.Provider;
 
-public class SingletonProvider<T> implements Provider<T> {
-  private final Provider<T> provider;
-  private volatile T instance;
-  private final Object instanceLock = new Object();
-
+public class SingletonProvider<T> extends LazyInitializer<T> implements Provider<T>, ScopedProvider {
   public SingletonProvider(@Nonnull final Provider<T> provider) {
-    this.provider = provider;
+    super(provider);
   }
 
-  @Nonnull
   @Override
-  public T get() {
-    if (instance == null) {
-      synchronized (instanceLock) {
-        if (instance == null) {
-          instance = provider.get();
-        }
-      }
-    }
-    return instance;
+  public boolean isInstantiated() {
+    return super.isInstantiated();
   }
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.internal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.inject.Provider;
+
+public class ThreadScopedProvider<T> implements Provider<T>, ScopedProvider {
+  private static final int MIN_EXPUNGE_THRESHOLD = 16;
+
+  private final Provider<T> provider;
+  // A thread keeps its instance reachable through the thread local, so instances of finished threads can be collected.
+  private final List<WeakReference<T>> instances = new ArrayList<WeakReference<T>>();
+  private int expungeThreshold = MIN_EXPUNGE_THRESHOLD;
+  private boolean disposed;
+  private volatile ThreadLocal<T> threadInstance = new ThreadLocal<T>();
+
+  public ThreadScopedProvider(@Nonnull final Provider<T> provider) {
+    this.provider = provider;
+  }
+
+  @Nonnull
+  @Override
+  public T get() {
+    final ThreadLocal<T> local = threadInstance;
+    if (local == null) {
+      throw new IllegalStateException("Cannot provide a thread scoped instance after the injector has been disposed");
+    }
+
+    final T result = local.get();
+    if (result != null) {
+      return result;
+    }
+
+    final T created = provider.get();
+    final boolean isDisposed;
+    synchronized (instances) {
+      isDisposed = disposed;
+      if (!isDisposed) {
+        addInstance(created);
+      }
+    }
+
+    if (isDisposed) {
+      // The injector has been disposed while the instance was being created, so nobody else will close it.
+      closeAll(created);
+      throw new IllegalStateException("Cannot provide a thread scoped instance after the injector has been disposed");
+    }
+
+    local.set(created);
+    return created;
+  }
+
+  @Override
+  public boolean isInstantiated() {
+    final ThreadLocal<T> local = threadInstance;
+    return local != null && local.get() != null;
+  }
+
+  void dispose() {
+    final List<T> disposedInstances = new ArrayList<T>();
+    synchronized (instances) {
+      if (disposed) {
+        return;
+      }
+
+      disposed = true;
+      // Dropping the thread local lets the threads that still reference it expunge their stale entries.
+      threadInstance = null;
+      for (final WeakReference<T> reference : instances) {
+        final T instance = reference.get();
+        if (instance != null) {
+          disposedInstances.add(instance);
+        }
+      }
+      instances.clear();
+    }
+
+    closeAll(disposedInstances.toArray());
+  }
+
+  private void addInstance(@Nonnull final T instance) {
+    if (instances.size() >= expungeThreshold) {
+      int size = 0;
+      for (final WeakReference<T> reference : instances) {
+        if (reference.get() != null) {
+          instances.set(size++, reference);
+        }
+      }
+      instances.subList(size, instances.size()).clear();
+      expungeThreshold = Math.max(MIN_EXPUNGE_THRESHOLD, size * 2);
+    }
+
+    instances.add(new WeakReference<T>(instance));
+  }
+
+  private static void closeAll(@Nonnull final Object... instances) {
+    IOException exception = null;
+    for (final Object instance : instances) {
+      if (instance instanceof Closeable) {
+        try {
+          ((Closeable) instance).close();
+        } catch (final IOException e) {
+          if (exception == null) {
+            exception = e;
+          }
+        }
+      }
+    }
+
+    if (exception != null) {
+      throw new IllegalStateException("Failed to dispose a thread scoped instance", exception);
+    }
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.internal;
+
+import com.joom.lightsaber.InjectionTracer;
+
+import javax.annotation.Nonnull;
+import javax.inject.Provider;
+
+class TracingProvider<T> implements Provider<T> {
+  private final InjectionTracer tracer;
+  private final Object key;
+  private final SingletonProvider<? extends T> provider;
+
+  TracingProvider(@Nonnull final InjectionTracer tracer, @Nonnull final Object key, @Nonnull final SingletonProvider<? extends T> provider) {
+    this.tracer = tracer;
+    this.key = key;
+    this.provider = provider;
+  }
+
+  @Override
+  public T get() {
+    if (provider.isInstantiated()) {
+      return provider.get();
+    }
+
+    tracer.onSingletonConstructionStarted(key);
+    try {
+      return provider.get();
+    } finally {
+      tracer.onSingletonConstructionFinished(key);
+    }
+  }
+}
@@ -22,7 +22,6 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.lang.reflect.WildcardType;
-import java.util.Arrays;
 
 public class TypeUtils {
   private TypeUtils() {
@@ -48,7 +47,13 @@ public class TypeUtils {
 
     if (type1 instanceof Class<?> && type2 instanceof Class<?>) {
       return type1.equals(type2);
-    } else if (type1 instanceof ParameterizedType && type2 instanceof ParameterizedType) {
+    }
+
+    if (hasTypeHashCode(type1) && hasTypeHashCode(type2) && hashCode(type1) != hashCode(type2)) {
+      return false;
+    }
+
+    if (type1 instanceof ParameterizedType && type2 instanceof ParameterizedType) {
       return equals((ParameterizedType) type1, (ParameterizedType) type2);
     } else if (type1 instanceof WildcardType && type2 instanceof WildcardType) {
       return equals((WildcardType) type1, (WildcardType) type2);
@@ -68,6 +73,12 @@ public class TypeUtils {
 
     if (type instanceof Class<?>) {
       return type.hashCode();
+    } else if (type instanceof ParameterizedTypeImpl) {
+      return ((ParameterizedTypeImpl) type).getTypeHashCode();
+    } else if (type instanceof WildcardTypeImpl) {
+      return ((WildcardTypeImpl) type).getTypeHashCode();
+    } else if (type instanceof GenericArrayTypeImpl) {
+      return ((GenericArrayTypeImpl) type).getTypeHashCode();
     } else if (type instanceof ParameterizedType) {
       return hashCode((ParameterizedType) type);
     } else if (type instanceof WildcardType) {
@@ -141,23 +152,39 @@ public class TypeUtils {
     return object1 == object2 || (object1 != null && object1.equals(object2));
   }
 
-  private static int hashCode(final ParameterizedType type) {
+  static int computeParameterizedTypeHashCode(final Type ownerType, final Type rawType, final Type[] typeArguments) {
     int result = 1;
-    result = 31 * result + hashCode(type.getActualTypeArguments());
-    result = 31 * result + hashCode(type.getOwnerType());
-    result = 31 * result + hashCode(type.getRawType());
+    result = 31 * result + hashCode(typeArguments);
+    result = 31 * result + hashCode(ownerType);
+    result = 31 * result + hashCode(rawType);
     return result;
   }
 
-  private static int hashCode(final WildcardType type) {
+  static int computeWildcardTypeHashCode(final Type[] upperBounds, final Type[] lowerBounds) {
     int result = 1;
-    result = 31 * result + Arrays.hashCode(type.getUpperBounds());
-    result = 31 * result + Arrays.hashCode(type.getLowerBounds());
+    result = 31 * result + hashCode(upperBounds);
+    result = 31 * result + hashCode(lowerBounds);
     return result;
   }
 
+  static int computeGenericArrayTypeHashCode(final Type genericComponentType) {
+    return 31 + hashCode(genericComponentType);
+  }
+
+  private static boolean hasTypeHashCode(final Type type) {
+    return type instanceof ParameterizedTypeImpl || type instanceof WildcardTypeImpl || type instanceof GenericArrayTypeImpl;
+  }
+
+  private static int hashCode(final ParameterizedType type) {
+    return computeParameterizedTypeHashCode(type.getOwnerType(), type.getRawType(), type.getActualTypeArguments());
+  }
+
+  private static int hashCode(final WildcardType type) {
+    return computeWildcardTypeHashCode(type.getUpperBounds(), type.getLowerBounds());
+  }
+
   private static int hashCode(final GenericArrayType type) {
-    return 31 + hashCode(type.getGenericComponentType());
+    return computeGenericArrayTypeHashCode(type.getGenericComponentType());
   }
 
   private static int hashCode(final TypeVariable<?> type) {
@@ -28,6 +28,7 @@ public class WildcardTypeImpl implements WildcardType {
   private final Type[] upperBounds;
   @Nonnull
   private final Type[] lowerBounds;
+  private final int typeHashCode;
 
   public WildcardTypeImpl(
     @Nullable final Type upperBound,
@@ -35,6 +36,7 @@ public class WildcardTypeImpl implements WildcardType {
   ) {
     this.upperBounds = upperBound != null ? new Type[]{upperBound} : new Type[0];
     this.lowerBounds = lowerBound != null ? new Type[]{lowerBound} : new Type[0];
+    this.typeHashCode = TypeUtils.computeWildcardTypeHashCode(upperBounds, lowerBounds);
   }
 
   @Override
@@ -47,6 +49,10 @@ public class WildcardTypeImpl implements WildcardType {
     return lowerBounds;
   }
 
+  int getTypeHashCode() {
+    return typeHashCode;
+  }
+
   @Override
   public String getTypeName() {
     if (lowerBounds.length != 0) {
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.joom.lightsaber.internal.InjectorConfigurator;
+import com.joom.lightsaber.internal.LightsaberInjector;
+import com.joom.lightsaber.internal.SingletonProvider;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Locale;
+
+import javax.inject.Provider;
+
+public class ChromeTraceRecorderTest {
+  @Test
+  public void testRecordsConfigurationRegistrationAndConstruction() throws IOException {
+    final ChromeTraceRecorder recorder = new ChromeTraceRecorder();
+    final Lightsaber lightsaber = new Lightsaber.Builder().tracer(recorder).build();
+    final Injector injector = lightsaber.createInjector(new ParentModule());
+
+    injector.getInstance(String.class);
+    injector.getInstance(String.class);
+
+    final StringWriter writer = new StringWriter();
+    recorder.writeTo(writer);
+    final String trace = writer.toString();
+
+    assertTrue(trace, trace.startsWith("{\"traceEvents\":["));
+    assertTrue(trace, trace.contains("\"name\":\"" + ParentModule.class.getName() + "\",\"cat\":\"configuration\",\"ph\":\"B\""));
+    assertTrue(trace, trace.contains("\"name\":\"" + ChildModule.class.getName() + "\",\"cat\":\"configuration\",\"ph\":\"B\""));
+    assertTrue(trace, trace.contains("\"name\":\"java.lang.Integer\",\"cat\":\"registration\",\"ph\":\"i\""));
+    assertEquals(2, countOccurrences(trace, "\"cat\":\"construction\""));
+    assertEquals(2, countOccurrences(trace, "\"name\":\"java.lang.String\",\"cat\":\"construction\""));
+    assertEquals(countOccurrences(trace, "\"ph\":\"B\""), countOccurrences(trace, "\"ph\":\"E\""));
+  }
+
+  @Test
+  public void testWritesAsciiTraceInLocaleWithNonAsciiDigits() throws IOException {
+    final Locale defaultLocale = Locale.getDefault();
+    Locale.setDefault(new Locale("fa"));
+    try {
+      final ChromeTraceRecorder recorder = new ChromeTraceRecorder();
+      final Lightsaber lightsaber = new Lightsaber.Builder().tracer(recorder).build();
+      lightsaber.createInjector(new ParentModule()).getInstance(String.class);
+
+      final StringWriter writer = new StringWriter();
+      recorder.writeTo(writer);
+      final String trace = writer.toString();
+
+      for (int i = 0, length = trace.length(); i < length; ++i) {
+        assertTrue(trace, trace.charAt(i) < 0x80);
+      }
+    } finally {
+      Locale.setDefault(defaultLocale);
+    }
+  }
+
+  private static int countOccurrences(final String string, final String substring) {
+    int count = 0;
+    int index = string.indexOf(substring);
+    while (index >= 0) {
+      count += 1;
+      index = string.indexOf(substring, index + substring.length());
+    }
+    return count;
+  }
+
+  private static class ParentModule implements InjectorConfigurator {
+    @Override
+    public void configureInjector(final LightsaberInjector injector) {
+      injector.configureModule(new ChildModule());
+      injector.registerProvider(String.class, new SingletonProvider<String>(new Provider<String>() {
+        @Override
+        public String get() {
+          return "String " + injector.getInstance(Integer.class);
+        }
+      }));
+    }
+  }
+
+  private static class ChildModule implements InjectorConfigurator {
+    @Override
+    public void configureInjector(final LightsaberInjector injector) {
+      injector.registerProvider(Integer.class, new Provider<Integer>() {
+        @Override
+        public Integer get() {
+          return 42;
+        }
+      });
+    }
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.joom.lightsaber.internal.ParameterizedTypeImpl;
+import com.joom.lightsaber.internal.TypeUtils;
+import com.joom.lightsaber.internal.WildcardTypeImpl;
+
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+import javax.inject.Named;
+
+public class KeyTest {
+  @Test
+  public void testKeysAreNotInternedByFactoryMethods() {
+    final Key<String> key1 = Key.of(String.class, createNamedAnnotation("NotInterned"));
+    final Key<String> key2 = Key.of(String.class, createNamedAnnotation("NotInterned"));
+
+    assertNotSame(key1, key2);
+    assertEquals(key1, key2);
+  }
+
+  @Test
+  public void testInternedKeysAreSame() {
+    final Key<String> key1 = new Key<String>(String.class, createNamedAnnotation("Interned")).intern();
+    final Key<String> key2 = new Key<String>(String.class, createNamedAnnotation("Interned")).intern();
+
+    assertSame(key1, key2);
+    assertSame(Key.of(String.class).intern(), Key.of(String.class).intern());
+  }
+
+  @Test
+  public void testGeneratedTypeIsEqualToReflectiveType() {
+    final Type reflectiveType = new TypeReference<List<? extends String>>() {}.getType();
+    final Type generatedType = new ParameterizedTypeImpl(null, List.class, new WildcardTypeImpl(String.class, null));
+
+    assertTrue(TypeUtils.equals(reflectiveType, generatedType));
+    assertEquals(TypeUtils.hashCode(reflectiveType), TypeUtils.hashCode(generatedType));
+    assertEquals(Key.of(reflectiveType), Key.of(generatedType));
+    assertEquals(Key.of(reflectiveType).hashCode(), Key.of(generatedType).hashCode());
+  }
+
+  private static Named createNamedAnnotation(final String value) {
+    return new AnnotationBuilder<Named>(Named.class).addMember("value", value).build();
+  }
+}
@@ -17,22 +17,37 @@
 package com.joom.lightsaber;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import com.joom.lightsaber.internal.InjectorConfigurator;
+import com.joom.lightsaber.internal.KeyIndex;
 import com.joom.lightsaber.internal.LightsaberInjector;
+import com.joom.lightsaber.internal.ReusableProvider;
+import com.joom.lightsaber.internal.SingletonProvider;
+import com.joom.lightsaber.internal.ThreadScopedProvider;
 
 import org.junit.Test;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.inject.Named;
 import javax.inject.Provider;
 
@@ -127,6 +142,357 @@ public class LightsaberTest {
     assertEquals("Child Annotated String", childInjector.getInstance(Key.of(String.class, annotation)));
   }
 
+  @Test
+  public void testDeterministicInterceptorIsInvokedOncePerKey() {
+    final ProviderInterceptor.Deterministic interceptor = createProceedingInterceptor(ProviderInterceptor.Deterministic.class);
+    final Lightsaber lightsaber = new Lightsaber.Builder().addProviderInterceptor(interceptor).build();
+    final Injector injector = lightsaber.createInjector(createParentComponent());
+
+    final Provider<String> provider = injector.getProvider(String.class);
+    assertSame(provider, injector.getProvider(String.class));
+    assertSame(provider, injector.getProvider(Key.of(String.class)));
+    assertEquals("Parent String", injector.getInstance(String.class));
+
+    verify(interceptor).intercept(any(ProviderInterceptor.Chain.class), eq(Key.of(String.class)));
+    verifyNoMoreInteractions(interceptor);
+  }
+
+  @Test
+  public void testNonDeterministicInterceptorIsInvokedForEachResolution() {
+    final ProviderInterceptor interceptor = createProceedingInterceptor(ProviderInterceptor.class);
+    final Lightsaber lightsaber = new Lightsaber.Builder().addProviderInterceptor(interceptor).build();
+    final Injector injector = lightsaber.createInjector(createParentComponent());
+
+    injector.getProvider(String.class);
+    injector.getProvider(Key.of(String.class));
+    injector.getInstance(String.class);
+
+    verify(interceptor, times(3)).intercept(any(ProviderInterceptor.Chain.class), eq(Key.of(String.class)));
+  }
+
+  @Test
+  public void testCreateInjectorAsync() {
+    final List<Runnable> tasks = new ArrayList<Runnable>();
+    final AtomicInteger instantiationCount = new AtomicInteger();
+    @SuppressWarnings("unchecked")
+    final InitializationCallback<Injector> callback = mock(InitializationCallback.class);
+    final Lightsaber lightsaber = new Lightsaber.Builder().build();
+
+    final Injector injector = lightsaber.createInjectorAsync(createEagerComponent(instantiationCount), createQueueExecutor(tasks), callback);
+
+    assertEquals("Parent String", injector.getInstance(String.class));
+    assertEquals(0, instantiationCount.get());
+    assertEquals(1, tasks.size());
+    verifyNoMoreInteractions(callback);
+
+    tasks.get(0).run();
+
+    assertEquals(1, instantiationCount.get());
+    verify(callback).onInitialized(injector);
+    verifyNoMoreInteractions(callback);
+  }
+
+  @Test
+  public void testCreateInjectorAsyncWithEarlyRequest() {
+    final List<Runnable> tasks = new ArrayList<Runnable>();
+    final AtomicInteger instantiationCount = new AtomicInteger();
+    @SuppressWarnings("unchecked")
+    final InitializationCallback<Injector> callback = mock(InitializationCallback.class);
+    final Lightsaber lightsaber = new Lightsaber.Builder().build();
+
+    final Injector injector = lightsaber.createInjectorAsync(createEagerComponent(instantiationCount), createQueueExecutor(tasks), callback);
+    final Object eagerObject = injector.getInstance(Object.class);
+    tasks.get(0).run();
+
+    assertSame(eagerObject, injector.getInstance(Object.class));
+    assertEquals(1, instantiationCount.get());
+    verify(callback).onInitialized(injector);
+  }
+
+  @Test
+  public void testCreateInjectorAsyncFailure() {
+    final List<Runnable> tasks = new ArrayList<Runnable>();
+    @SuppressWarnings("unchecked")
+    final InitializationCallback<Injector> callback = mock(InitializationCallback.class);
+    final Lightsaber lightsaber = new Lightsaber.Builder().build();
+
+    final Injector injector = lightsaber.createInjectorAsync(createEagerComponent(null), createQueueExecutor(tasks), callback);
+    tasks.get(0).run();
+
+    verify(callback).onInitializationFailed(eq(injector), any(IllegalStateException.class));
+    verifyNoMoreInteractions(callback);
+  }
+
+  @Test
+  public void testProviderMetrics() {
+    final Lightsaber lightsaber = new Lightsaber.Builder().collectMetrics(true).build();
+    final Injector injector = lightsaber.createInjector(createParentComponent());
+    final Injector childInjector = injector.createChildInjector(createSingletonComponent());
+
+    injector.getInstance(String.class);
+    childInjector.getInstance(String.class);
+    childInjector.getInstance(Key.of(String.class));
+    childInjector.getInstance(Object.class);
+    childInjector.getInstance(Object.class);
+
+    final ProviderMetrics stringMetrics = findProviderMetrics(injector, String.class);
+    assertEquals(1, stringMetrics.getLookupCount());
+    assertEquals(2, stringMetrics.getChildLookupCount());
+    assertEquals(3, stringMetrics.getUnscopedInstantiationCount());
+    assertEquals(0, stringMetrics.getSingletonInstantiationCount());
+    assertEquals(0, stringMetrics.getScopedInstantiationCount());
+
+    final ProviderMetrics objectMetrics = findProviderMetrics(childInjector, Object.class);
+    assertEquals(2, objectMetrics.getLookupCount());
+    assertEquals(0, objectMetrics.getChildLookupCount());
+    assertEquals(0, objectMetrics.getUnscopedInstantiationCount());
+    assertEquals(1, objectMetrics.getSingletonInstantiationCount());
+    assertEquals(0, objectMetrics.getScopedInstantiationCount());
+    assertNull(findProviderMetrics(injector, Object.class));
+  }
+
+  @Test
+  public void testProviderMetricsForScopedProviders() throws Exception {
+    final Lightsaber lightsaber = new Lightsaber.Builder().collectMetrics(true).build();
+    final Injector injector = lightsaber.createInjector(new InjectorConfigurator() {
+      @Override
+      public void configureInjector(final LightsaberInjector injector) {
+        injector.registerProvider(Integer.class, new ReusableProvider<Integer>(new Provider<Integer>() {
+          @Override
+          public Integer get() {
+            return 42;
+          }
+        }));
+        injector.registerProvider(Long.class, new ThreadScopedProvider<Long>(new Provider<Long>() {
+          @Override
+          public Long get() {
+            return Thread.currentThread().getId();
+          }
+        }));
+        injector.registerCustomScopedProvider(Double.class, new CustomScopeProvider<Double>(new Provider<Double>() {
+          @Override
+          public Double get() {
+            return 42.0;
+          }
+        }));
+        injector.registerProvider(Float.class, new CustomScopeProvider<Float>(new Provider<Float>() {
+          @Override
+          public Float get() {
+            return 42.0f;
+          }
+        }));
+      }
+    });
+
+    for (int i = 0; i < 3; ++i) {
+      injector.getInstance(Integer.class);
+      injector.getInstance(Long.class);
+      injector.getInstance(Double.class);
+      injector.getInstance(Float.class);
+    }
+
+    final Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        injector.getInstance(Long.class);
+      }
+    });
+    thread.start();
+    thread.join();
+
+    final ProviderMetrics reusableMetrics = findProviderMetrics(injector, Integer.class);
+    assertEquals(3, reusableMetrics.getLookupCount());
+    assertEquals(0, reusableMetrics.getUnscopedInstantiationCount());
+    assertEquals(0, reusableMetrics.getSingletonInstantiationCount());
+    assertEquals(1, reusableMetrics.getScopedInstantiationCount());
+
+    final ProviderMetrics threadScopedMetrics = findProviderMetrics(injector, Long.class);
+    assertEquals(4, threadScopedMetrics.getLookupCount());
+    assertEquals(0, threadScopedMetrics.getUnscopedInstantiationCount());
+    assertEquals(0, threadScopedMetrics.getSingletonInstantiationCount());
+    assertEquals(2, threadScopedMetrics.getScopedInstantiationCount());
+
+    final ProviderMetrics customScopeMetrics = findProviderMetrics(injector, Double.class);
+    assertEquals(3, customScopeMetrics.getLookupCount());
+    assertEquals(0, customScopeMetrics.getUnscopedInstantiationCount());
+    assertEquals(0, customScopeMetrics.getSingletonInstantiationCount());
+    assertEquals(0, customScopeMetrics.getScopedInstantiationCount());
+    assertEquals(0, customScopeMetrics.getConstructionTimeNanos());
+
+    // The provider class isn't inspected, so only providers registered as custom scoped are treated as such.
+    final ProviderMetrics unscopedMetrics = findProviderMetrics(injector, Float.class);
+    assertEquals(3, unscopedMetrics.getLookupCount());
+    assertEquals(3, unscopedMetrics.getUnscopedInstantiationCount());
+  }
+
+  @Test
+  public void testProviderMetricsAreDisabledByDefault() {
+    final Injector injector = new Lightsaber.Builder().build().createInjector(createParentComponent());
+
+    injector.getInstance(String.class);
+
+    assertTrue(injector.getProviderMetrics().isEmpty());
+  }
+
+  @Test
+  public void testCreateChildInjectorWithParentProviderCache() {
+    final Lightsaber lightsaber = new Lightsaber.Builder().cacheParentProviders(true).build();
+    final InjectorConfigurator parentComponent = createParentComponent();
+    final InjectorConfigurator childComponent = createChildComponent();
+    final InjectorConfigurator childAnnotatedComponent = createChildAnnotatedComponent();
+
+    final Injector injector = lightsaber.createInjector(parentComponent);
+    final Injector childInjector = injector.createChildInjector(childComponent);
+    final Injector grandchildInjector = childInjector.createChildInjector(childAnnotatedComponent);
+
+    final Provider<String> stringProvider = grandchildInjector.getProvider(String.class);
+    assertSame(stringProvider, grandchildInjector.getProvider(String.class));
+    assertSame(injector.getProvider(String.class), stringProvider);
+    assertEquals("Parent String", grandchildInjector.getInstance(String.class));
+    assertEquals("Child Object", grandchildInjector.getInstance(Object.class));
+    assertEquals("Child Object", grandchildInjector.getInstance(Key.of(Object.class)));
+    assertSame(grandchildInjector, grandchildInjector.getInstance(Injector.class));
+    final Named annotation = createNamedAnnotation("Annotated");
+    assertEquals("Child Annotated String", grandchildInjector.getInstance(Key.of(String.class, annotation)));
+  }
+
+  @Test
+  public void testProviderNotFoundInChildInjector() {
+    final Lightsaber lightsaber = new Lightsaber.Builder().build();
+    final Injector injector = lightsaber.createInjector(createParentComponent());
+    final Injector childInjector = injector.createChildInjector(createChildComponent());
+
+    try {
+      childInjector.getInstance(Integer.class);
+      fail("Expected ConfigurationException");
+    } catch (final ConfigurationException exception) {
+      assertNull(exception.getCause());
+    }
+  }
+
+  @Test
+  public void testIndexedProviders() {
+    final int stringIndex = KeyIndex.getIndex(String.class);
+    final int objectIndex = KeyIndex.getIndex(Object.class);
+    final int injectorIndex = KeyIndex.getIndex(Injector.class);
+    final Lightsaber lightsaber = new Lightsaber.Builder().build();
+    final InjectorConfigurator parentComponent = createParentComponent();
+    final InjectorConfigurator childComponent = mock(InjectorConfigurator.class);
+    doAnswer(new Answer<Object>() {
+      @Override
+      public Object answer(final InvocationOnMock invocation) {
+        final LightsaberInjector injector = (LightsaberInjector) invocation.getArguments()[0];
+        injector.registerProvider(objectIndex, new Provider<Object>() {
+          @Nonnull
+          @Override
+          public Object get() {
+            return "Child Object";
+          }
+        });
+        return null;
+      }
+    })
+        .when(childComponent).configureInjector(any(LightsaberInjector.class));
+
+    final Injector injector = lightsaber.createInjector(parentComponent);
+    final LightsaberInjector childInjector = (LightsaberInjector) injector.createChildInjector(childComponent);
+
+    assertEquals("Parent String", childInjector.<String>getProvider(stringIndex).get());
+    assertEquals("Child Object", childInjector.getProvider(objectIndex).get());
+    assertEquals("Child Object", childInjector.getInstance(Object.class));
+    assertSame(childInjector, childInjector.getProvider(injectorIndex).get());
+  }
+
+  @Test(expected = ConfigurationException.class)
+  public void testIndexedProviderNotFound() {
+    final int index = KeyIndex.getIndex(Key.of(String.class, createNamedAnnotation("Missing")));
+    final LightsaberInjector injector = (LightsaberInjector) new Lightsaber.Builder().build().createInjector(createParentComponent());
+
+    injector.getProvider(index);
+  }
+
+  @Test
+  public void testIndexedProviderFromCustomInjector() {
+    final Key<String> key = Key.of(String.class, createNamedAnnotation("Custom"));
+    final int qualifiedIndex = KeyIndex.getIndex(key);
+    final int classIndex = KeyIndex.getIndex(Object.class);
+    final Provider<String> qualifiedProvider = mock(Provider.class);
+    final Provider<Object> classProvider = mock(Provider.class);
+    final Injector injector = mock(Injector.class);
+    when(injector.<String>getProvider(key)).thenReturn(qualifiedProvider);
+    when(injector.getProvider(Object.class)).thenReturn(classProvider);
+
+    assertSame(qualifiedProvider, LightsaberInjector.getIndexedProvider(injector, qualifiedIndex));
+    assertSame(classProvider, LightsaberInjector.getIndexedProvider(injector, classIndex));
+  }
+
+  private static <T extends ProviderInterceptor> T createProceedingInterceptor(final Class<T> interceptorClass) {
+    final T interceptor = mock(interceptorClass);
+    when(interceptor.intercept(any(ProviderInterceptor.Chain.class), any(Key.class))).thenAnswer(new Answer<Object>() {
+      @Override
+      public Object answer(final InvocationOnMock invocation) {
+        final ProviderInterceptor.Chain chain = (ProviderInterceptor.Chain) invocation.getArguments()[0];
+        return chain.proceed((Key<?>) invocation.getArguments()[1]);
+      }
+    });
+    return interceptor;
+  }
+
+  @Nullable
+  private static ProviderMetrics findProviderMetrics(final Injector injector, final Object key) {
+    for (final ProviderMetrics metrics : injector.getProviderMetrics()) {
+      if (metrics.getKey().equals(key)) {
+        return metrics;
+      }
+    }
+
+    return null;
+  }
+
+  private static InjectorConfigurator createSingletonComponent() {
+    return new InjectorConfigurator() {
+      @Override
+      public void configureInjector(final LightsaberInjector injector) {
+        injector.registerProvider(Object.class, new SingletonProvider<Object>(new Provider<Object>() {
+          @Override
+          public Object get() {
+            return new Object();
+          }
+        }));
+      }
+    };
+  }
+
+  private static Executor createQueueExecutor(final List<Runnable> tasks) {
+    return new Executor() {
+      @Override
+      public void execute(@Nonnull final Runnable command) {
+        tasks.add(command);
+      }
+    };
+  }
+
+  private static InjectorConfigurator createEagerComponent(@Nullable final AtomicInteger instantiationCount) {
+    return new InjectorConfigurator() {
+      @Override
+      public void configureInjector(final LightsaberInjector injector) {
+        createParentComponent().configureInjector(injector);
+        injector.registerProvider(Object.class, new SingletonProvider<Object>(new Provider<Object>() {
+          @Override
+          public Object get() {
+            if (instantiationCount == null) {
+              throw new IllegalStateException();
+            }
+
+            instantiationCount.incrementAndGet();
+            return new Object();
+          }
+        }));
+        injector.instantiateEagerDependencies(new Object[] { Object.class }, new int[][] { {} });
+      }
+    };
+  }
+
   private static InjectorConfigurator createParentComponent() {
     final InjectorConfigurator configurator = mock(InjectorConfigurator.class);
     doAnswer(new Answer<Object>() {
@@ -191,4 +557,21 @@ public class LightsaberTest {
   private static Named createNamedAnnotation(@SuppressWarnings("SameParameterValue") final String value) {
     return new AnnotationBuilder<Named>(Named.class).addMember("value", value).build();
   }
+
+  private static class CustomScopeProvider<T> implements Provider<T> {
+    private final Provider<T> provider;
+    private T instance;
+
+    CustomScopeProvider(@Nonnull final Provider<T> provider) {
+      this.provider = provider;
+    }
+
+    @Override
+    public synchronized T get() {
+      if (instance == null) {
+        instance = provider.get();
+      }
+      return instance;
+    }
+  }
 }
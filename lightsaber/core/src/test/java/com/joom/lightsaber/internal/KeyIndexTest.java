@@ -0,0 +1,118 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+import com.joom.lightsaber.AnnotationBuilder;
+import com.joom.lightsaber.Key;
+
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.inject.Named;
+
+public class KeyIndexTest {
+  @Test
+  public void testIndexIsStable() {
+    final int index = KeyIndex.getIndex(KeyIndexTest.class);
+
+    assertEquals(index, KeyIndex.getIndex(KeyIndexTest.class));
+    assertEquals(index, KeyIndex.findIndex(KeyIndexTest.class));
+    assertSame(KeyIndexTest.class, KeyIndex.getKey(index));
+  }
+
+  @Test
+  public void testUnqualifiedKeyIsIndexedAsType() {
+    final int index = KeyIndex.getIndex(Key.of(Runnable.class));
+
+    assertEquals(index, KeyIndex.getIndex(Runnable.class));
+    assertSame(Runnable.class, KeyIndex.getKey(index));
+  }
+
+  @Test
+  public void testEqualGenericTypesShareIndex() {
+    final int index = KeyIndex.getIndex(new ParameterizedTypeImpl(null, List.class, Thread.class));
+
+    assertEquals(index, KeyIndex.getIndex(new ParameterizedTypeImpl(null, List.class, Thread.class)));
+    assertNotEquals(index, KeyIndex.getIndex(new ParameterizedTypeImpl(null, List.class, Runnable.class)));
+  }
+
+  @Test
+  public void testQualifiedKeysHaveDistinctIndices() {
+    final Named first = new AnnotationBuilder<Named>(Named.class).addMember("value", "First").build();
+    final Named second = new AnnotationBuilder<Named>(Named.class).addMember("value", "Second").build();
+
+    final int firstIndex = KeyIndex.getIndex(Key.of(Thread.class, first));
+    final int secondIndex = KeyIndex.getIndex(Key.of(Thread.class, second));
+
+    assertNotEquals(firstIndex, secondIndex);
+    assertEquals(firstIndex, KeyIndex.getIndex(Key.of(Thread.class, first)));
+    assertNotEquals(firstIndex, KeyIndex.getIndex(Thread.class));
+  }
+
+  @Test
+  public void testConcurrentlyIndexedKeyHasSingleIndex() throws Exception {
+    final Type type = new ParameterizedTypeImpl(null, List.class, KeyIndexTest.class);
+    final int threadCount = 8;
+    final CyclicBarrier barrier = new CyclicBarrier(threadCount);
+    final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      final List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+      for (int i = 0; i < threadCount; ++i) {
+        futures.add(executor.submit(new Callable<Integer>() {
+          @Override
+          public Integer call() throws Exception {
+            barrier.await();
+            return KeyIndex.getIndex(type);
+          }
+        }));
+      }
+
+      final int index = futures.get(0).get();
+      for (final Future<Integer> future : futures) {
+        assertEquals(index, (int) future.get());
+      }
+      assertEquals(index, KeyIndex.findIndex(new ParameterizedTypeImpl(null, List.class, KeyIndexTest.class)));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testUnknownKeyHasNoIndex() {
+    assertEquals(-1, KeyIndex.findIndex(KeyIndexTest.Unknown.class));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testGetKeyWithUnknownIndex() {
+    KeyIndex.getKey(Integer.MAX_VALUE);
+  }
+
+  private interface Unknown {
+  }
+}
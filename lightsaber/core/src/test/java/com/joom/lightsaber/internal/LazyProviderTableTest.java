@@ -0,0 +1,156 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.joom.lightsaber.Injector;
+import com.joom.lightsaber.Lightsaber;
+import com.joom.lightsaber.ProviderMetrics;
+
+import org.junit.Test;
+
+import java.util.Collection;
+
+import javax.annotation.Nonnull;
+import javax.inject.Provider;
+
+public class LazyProviderTableTest {
+  @Test
+  public void testMaterializesProviderOnFirstLookup() {
+    final LazyModule module = new LazyModule();
+    final Injector injector = new Lightsaber.Builder().build().createInjector(module);
+
+    assertEquals(0, module.createdProviderCount);
+
+    final Provider<String> provider = injector.getProvider(String.class);
+
+    assertFalse((Object) provider instanceof LazyProviderTable.Slot);
+    assertSame(provider, injector.getProvider(String.class));
+    assertEquals("String", injector.getInstance(String.class));
+    assertEquals(1, module.createdProviderCount);
+  }
+
+  @Test
+  public void testMaterializesProviderOnFirstLookupWhenMetricsAreCollected() {
+    final LazyModule module = new LazyModule();
+    final Injector injector = new Lightsaber.Builder().collectMetrics(true).build().createInjector(module);
+
+    assertEquals(0, module.createdProviderCount);
+
+    final Provider<Integer> provider = injector.getProvider(Integer.class);
+
+    assertTrue(provider instanceof MeteredProvider<?>);
+    assertEquals(Integer.valueOf(42), provider.get());
+    assertEquals(1, module.createdProviderCount);
+  }
+
+  @Test
+  public void testReportsMetricsOfProvidersThatHaveNotBeenMaterialized() {
+    final LazyModule module = new LazyModule();
+    final Injector injector = new Lightsaber.Builder().collectMetrics(true).build().createInjector(module);
+
+    injector.getInstance(Integer.class);
+
+    final Collection<ProviderMetrics> metrics = injector.getProviderMetrics();
+
+    assertEquals(0L, findMetrics(metrics, String.class).getUnscopedInstantiationCount());
+    assertEquals(1L, findMetrics(metrics, Integer.class).getUnscopedInstantiationCount());
+    assertEquals(1, module.createdProviderCount);
+  }
+
+  @Test
+  public void testMaterializesProvidersOfParentInjectorInParentTable() {
+    final LazyModule parentModule = new LazyModule();
+    final Injector parentInjector = new Lightsaber.Builder().build().createInjector(parentModule);
+    final LazyChildModule childModule = new LazyChildModule();
+    final Injector childInjector = parentInjector.createChildInjector(childModule);
+
+    assertEquals("String", childInjector.getInstance(String.class));
+    assertEquals(Long.valueOf(7L), childInjector.getInstance(Long.class));
+    assertSame(parentInjector.getProvider(String.class), childInjector.getProvider(String.class));
+    assertEquals(1, parentModule.createdProviderCount);
+    assertEquals(1, childModule.createdProviderCount);
+  }
+
+  private static ProviderMetrics findMetrics(final Collection<ProviderMetrics> metrics, final Object key) {
+    for (final ProviderMetrics providerMetrics : metrics) {
+      if (key.equals(providerMetrics.getKey())) {
+        return providerMetrics;
+      }
+    }
+
+    throw new AssertionError("No metrics for " + key);
+  }
+
+  private static class LazyModule implements InjectorConfigurator, ProviderFactory {
+    int createdProviderCount;
+
+    @Override
+    public void configureInjector(final LightsaberInjector injector) {
+      injector.registerLazyProvider(String.class, this, 0, false);
+      injector.registerLazyProvider(Integer.class, this, 1, false);
+    }
+
+    @Nonnull
+    @Override
+    public Provider<?> createProvider(@Nonnull final LightsaberInjector injector, final int id) {
+      createdProviderCount += 1;
+      switch (id) {
+        case 0:
+          return new Provider<String>() {
+            @Override
+            public String get() {
+              return "String";
+            }
+          };
+        case 1:
+          return new Provider<Integer>() {
+            @Override
+            public Integer get() {
+              return 42;
+            }
+          };
+        default:
+          throw new IllegalArgumentException("Unknown provider " + id);
+      }
+    }
+  }
+  private static class LazyChildModule implements InjectorConfigurator, ProviderFactory {
+    int createdProviderCount;
+
+    @Override
+    public void configureInjector(final LightsaberInjector injector) {
+      injector.registerLazyProvider(Long.class, this, 0, false);
+    }
+
+    @Nonnull
+    @Override
+    public Provider<?> createProvider(@Nonnull final LightsaberInjector injector, final int id) {
+      createdProviderCount += 1;
+      return new Provider<Long>() {
+        @Override
+        public Long get() {
+          return 7L;
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.joom.lightsaber.Injector;
+import com.joom.lightsaber.InjectorTemplate;
+import com.joom.lightsaber.Lightsaber;
+
+import org.junit.Test;
+
+import javax.inject.Provider;
+
+public class LightsaberInjectorTemplateTest {
+  @Test
+  public void testCreatesChildInjectorsWithSharedLayout() {
+    final Injector parent = new Lightsaber.Builder().build().createInjector(new ParentModule());
+    final InjectorTemplate template = parent.createChildInjectorTemplate();
+
+    final LightsaberInjector first = (LightsaberInjector) template.createInjector(new RequestModule("first"));
+    final LightsaberInjector second = (LightsaberInjector) template.createInjector(new RequestModule("second"));
+
+    assertEquals("first", first.getInstance(String.class));
+    assertEquals("second", second.getInstance(String.class));
+    assertEquals(Integer.valueOf(42), second.getInstance(Integer.class));
+    assertSame(second, second.getInstance(Injector.class));
+    assertNotSame(first.getInstance(Object.class), second.getInstance(Object.class));
+    assertTrue(((LightweightHashMap<?, ?>) second.getProviders()).isFrozen());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRejectsComponentOfAnotherClass() {
+    final Injector parent = new Lightsaber.Builder().build().createInjector(new ParentModule());
+    final InjectorTemplate template = parent.createChildInjectorTemplate();
+
+    template.createInjector(new RequestModule("request"));
+    template.createInjector(new ParentModule());
+  }
+
+  @Test
+  public void testFreezesProvidersOfRootAndTemplateInjectorsOnly() {
+    final Injector root = new Lightsaber.Builder().build().createInjector(new LargeModule());
+    final LightsaberInjector child = (LightsaberInjector) root.createChildInjector(new LargeModule());
+    final InjectorTemplate template = root.createChildInjectorTemplate();
+    template.createInjector(new LargeModule());
+    final LightsaberInjector templateChild = (LightsaberInjector) template.createInjector(new LargeModule());
+
+    assertTrue(((LightweightHashMap<?, ?>) ((LightsaberInjector) root).getProviders()).isFrozen());
+    assertFalse(((LightweightHashMap<?, ?>) child.getProviders()).isFrozen());
+    assertTrue(((LightweightHashMap<?, ?>) templateChild.getProviders()).isFrozen());
+  }
+
+  private static class ParentModule implements InjectorConfigurator {
+    @Override
+    public void configureInjector(final LightsaberInjector injector) {
+      injector.registerProvider(Integer.class, new Provider<Integer>() {
+        @Override
+        public Integer get() {
+          return 42;
+        }
+      });
+    }
+  }
+
+  private static class LargeModule implements InjectorConfigurator {
+    private static final NamedType[] TYPES = createTypes(100);
+
+    @Override
+    public void configureInjector(final LightsaberInjector injector) {
+      for (final NamedType type : TYPES) {
+        injector.registerProvider(type, new Provider<String>() {
+          @Override
+          public String get() {
+            return type.toString();
+          }
+        });
+      }
+    }
+
+    private static NamedType[] createTypes(final int count) {
+      final NamedType[] types = new NamedType[count];
+      for (int i = 0; i < count; ++i) {
+        types[i] = NamedType.create("Type" + i);
+      }
+      return types;
+    }
+  }
+
+  private static class RequestModule implements InjectorConfigurator {
+    private final String name;
+
+    RequestModule(final String name) {
+      this.name = name;
+    }
+
+    @Override
+    public void configureInjector(final LightsaberInjector injector) {
+      injector.registerProvider(String.class, new Provider<String>() {
+        @Override
+        public String get() {
+          return name;
+        }
+      });
+      injector.registerProvider(Object.class, new SingletonProvider<Object>(new Provider<Object>() {
+        @Override
+        public Object get() {
+          return new Object();
+        }
+      }));
+    }
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class LightweightHashMapTest {
+  @Test
+  public void testFrozenMapContainsAllEntries() {
+    final LightweightHashMap<String, Integer> map = createMap(1000);
+
+    map.freeze();
+
+    assertTrue(map.isFrozen());
+    assertEquals(1000, map.size());
+    for (int i = 0; i < 1000; ++i) {
+      assertEquals(Integer.valueOf(i), map.get("Key" + i));
+      assertTrue(map.containsKey("Key" + i));
+    }
+  }
+
+  @Test
+  public void testFrozenMapDoesNotContainMissingEntries() {
+    final LightweightHashMap<String, Integer> map = createMap(100);
+
+    map.freeze();
+
+    for (int i = 100; i < 1000; ++i) {
+      assertNull(map.get("Key" + i));
+      assertFalse(map.containsKey("Key" + i));
+    }
+  }
+
+  @Test
+  public void testFrozenMapWithNullKey() {
+    final LightweightHashMap<String, Integer> map = createMap(10);
+    map.put(null, -1);
+
+    map.freeze();
+
+    assertEquals(Integer.valueOf(-1), map.get(null));
+    assertEquals(Integer.valueOf(5), map.get("Key5"));
+  }
+
+  @Test
+  public void testPutAfterFreeze() {
+    final LightweightHashMap<String, Integer> map = createMap(100);
+    map.freeze();
+
+    assertNull(map.put("Key100", 100));
+    assertEquals(Integer.valueOf(0), map.put("Key0", 1000));
+
+    assertFalse(map.isFrozen());
+    assertEquals(101, map.size());
+    assertEquals(Integer.valueOf(1000), map.get("Key0"));
+    for (int i = 1; i <= 100; ++i) {
+      assertEquals(Integer.valueOf(i), map.get("Key" + i));
+    }
+  }
+
+  @Test
+  public void testRefillAfterFreezeAndClear() {
+    final LightweightHashMap<String, Integer> map = createMap(12);
+    map.freeze();
+    map.clear();
+
+    for (int i = 0; i < 100; ++i) {
+      map.put("Key" + i, i);
+    }
+
+    assertFalse(map.isFrozen());
+    assertEquals(createMap(100), map);
+  }
+
+  @Test
+  public void testIteratorOverFrozenMap() {
+    final LightweightHashMap<String, Integer> map = createMap(100);
+    map.freeze();
+
+    final Map<String, Integer> entries = new HashMap<String, Integer>();
+    final MapIterator<String, Integer> iterator = map.iterator();
+    while (iterator.hasNext()) {
+      final String key = iterator.next();
+      entries.put(key, iterator.getValue());
+    }
+
+    assertEquals(createMap(100), entries);
+  }
+
+  @Test
+  public void testFrozenPolymorphicKeyHashMap() {
+    final PolymorphicKeyHashMap<String> map = new PolymorphicKeyHashMap<String>();
+    map.put(String.class, "String");
+    map.put(new ParameterizedTypeImpl(null, List.class, String.class), "List<String>");
+    map.put(new ParameterizedTypeImpl(null, Map.class, String.class, Integer.class), "Map<String, Integer>");
+
+    map.freeze();
+
+    assertEquals("String", map.get(String.class));
+    assertEquals("List<String>", map.get(new ParameterizedTypeImpl(null, List.class, String.class)));
+    assertNull(map.get(new ParameterizedTypeImpl(null, List.class, Integer.class)));
+  }
+
+  @Test
+  public void testPresizedMapContainsAllEntries() {
+    for (final int size : new int[] { 0, 1, 11, 12, 100, 1000 }) {
+      final LightweightHashMap<String, Integer> map =
+          new LightweightHashMap<String, Integer>(LightweightHashMap.calculateCapacity(size));
+      for (int i = 0; i < size; ++i) {
+        map.put("Key" + i, i);
+      }
+
+      assertEquals(createMap(size), map);
+    }
+  }
+
+  @Test
+  public void testMapWithLayoutStaysFrozen() {
+    final LightweightHashMap<String, Integer> original = createMap(100);
+    original.freeze();
+
+    final LightweightHashMap<String, Integer> map = new LightweightHashMap<String, Integer>(original.getLayout());
+    for (int i = 0; i < 100; ++i) {
+      assertNull(map.get("Key" + i));
+      assertNull(map.put("Key" + i, i));
+    }
+
+    assertTrue(map.isFrozen());
+    assertEquals(original, map);
+  }
+
+  @Test
+  public void testMapWithLayoutAcceptsOtherKeys() {
+    final LightweightHashMap<String, Integer> original = createMap(100);
+    original.freeze();
+
+    final LightweightHashMap<String, Integer> map = new LightweightHashMap<String, Integer>(original.getLayout());
+    for (int i = 0; i < 1000; ++i) {
+      map.put("Key" + i, i);
+    }
+
+    assertEquals(createMap(1000), map);
+  }
+
+  private static LightweightHashMap<String, Integer> createMap(final int size) {
+    final LightweightHashMap<String, Integer> map = new LightweightHashMap<String, Integer>();
+    for (int i = 0; i < size; ++i) {
+      map.put("Key" + i, i);
+    }
+    return map;
+  }
+}
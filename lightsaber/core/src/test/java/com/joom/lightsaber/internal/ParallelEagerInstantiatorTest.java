@@ -0,0 +1,212 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.joom.lightsaber.ConfigurationException;
+import com.joom.lightsaber.Lightsaber;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Nonnull;
+import javax.inject.Provider;
+
+public class ParallelEagerInstantiatorTest {
+  @Test
+  public void testInstantiatesPrerequisitesFirst() {
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final Set<Class<?>> instantiated = createInjector(executor, false);
+      assertEquals(3, instantiated.size());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testCompletesWhenExecutorDoesNotRunTasks() {
+    final Executor executor = new Executor() {
+      @Override
+      public void execute(@Nonnull final Runnable command) {
+      }
+    };
+
+    final Set<Class<?>> instantiated = createInjector(executor, false);
+    assertEquals(3, instantiated.size());
+  }
+
+  @Test
+  public void testPropagatesFailure() {
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      createInjector(executor, true);
+      fail("Expected IllegalStateException");
+    } catch (final IllegalStateException exception) {
+      assertEquals("Failed", exception.getMessage());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testPropagatesCheckedException() {
+    final IOException failure = new IOException("Failed");
+    final InjectorConfigurator configurator = new InjectorConfigurator() {
+      @Override
+      public void configureInjector(final LightsaberInjector injector) {
+        injector.registerProvider(String.class, new Provider<String>() {
+          @Override
+          public String get() {
+            return ParallelEagerInstantiatorTest.<RuntimeException>sneakyThrow(failure);
+          }
+        });
+        injector.instantiateEagerDependencies(new Object[] { String.class }, new int[][] { {} });
+      }
+    };
+
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      new Lightsaber.Builder().eagerInstantiationExecutor(executor).build().createInjector(configurator);
+      fail("Expected ConfigurationException");
+    } catch (final ConfigurationException exception) {
+      assertSame(failure, exception.getCause());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testWaitsForInstantiationsInProgressBeforePropagatingFailure() {
+    final CountDownLatch startedLatch = new CountDownLatch(1);
+    final AtomicBoolean finished = new AtomicBoolean();
+    final InjectorConfigurator configurator = new InjectorConfigurator() {
+      @Override
+      public void configureInjector(final LightsaberInjector injector) {
+        injector.registerProvider(String.class, new Provider<String>() {
+          @Override
+          public String get() {
+            awaitUninterruptibly(startedLatch);
+            throw new IllegalStateException("Failed");
+          }
+        });
+        injector.registerProvider(Integer.class, new Provider<Integer>() {
+          @Override
+          public Integer get() {
+            startedLatch.countDown();
+            sleepUninterruptibly(100);
+            finished.set(true);
+            return 42;
+          }
+        });
+        injector.instantiateEagerDependencies(new Object[] { String.class, Integer.class }, new int[][] { {}, {} });
+      }
+    };
+
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      new Lightsaber.Builder().eagerInstantiationExecutor(executor).build().createInjector(configurator);
+      fail("Expected IllegalStateException");
+    } catch (final IllegalStateException exception) {
+      assertEquals("Failed", exception.getMessage());
+      assertTrue(finished.get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <E extends Throwable> String sneakyThrow(final Throwable throwable) throws E {
+    throw (E) throwable;
+  }
+
+  private static void awaitUninterruptibly(final CountDownLatch latch) {
+    try {
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+    } catch (final InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void sleepUninterruptibly(final long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (final InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static Set<Class<?>> createInjector(final Executor executor, final boolean fail) {
+    final Set<Class<?>> instantiated = ConcurrentHashMap.newKeySet();
+    final InjectorConfigurator configurator = new InjectorConfigurator() {
+      @Override
+      public void configureInjector(final LightsaberInjector injector) {
+        injector.registerProvider(String.class, new RecordingProvider(instantiated, String.class, fail));
+        injector.registerProvider(Integer.class, new RecordingProvider(instantiated, Integer.class, false));
+        injector.registerProvider(Object.class, new RecordingProvider(instantiated, Object.class, false, String.class, Integer.class));
+        injector.instantiateEagerDependencies(
+            new Object[] { String.class, Integer.class, Object.class },
+            new int[][] { {}, {}, { 0, 1 } }
+        );
+      }
+    };
+
+    new Lightsaber.Builder().eagerInstantiationExecutor(executor).build().createInjector(configurator);
+    return instantiated;
+  }
+
+  private static class RecordingProvider implements Provider<Object> {
+    private final Set<Class<?>> instantiated;
+    private final Class<?> type;
+    private final boolean fail;
+    private final Class<?>[] prerequisites;
+
+    RecordingProvider(final Set<Class<?>> instantiated, final Class<?> type, final boolean fail, final Class<?>... prerequisites) {
+      this.instantiated = instantiated;
+      this.type = type;
+      this.fail = fail;
+      this.prerequisites = prerequisites;
+    }
+
+    @Override
+    public Object get() {
+      if (fail) {
+        throw new IllegalStateException("Failed");
+      }
+
+      for (final Class<?> prerequisite : prerequisites) {
+        assertTrue(instantiated.contains(prerequisite));
+      }
+
+      instantiated.add(type);
+      return type;
+    }
+  }
+}
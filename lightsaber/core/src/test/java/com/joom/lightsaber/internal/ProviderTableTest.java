@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.internal;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import javax.inject.Provider;
+
+public class ProviderTableTest {
+  @Test
+  public void testEmptyTable() {
+    final ProviderTable table = new ProviderTable();
+
+    assertNull(table.get(0));
+    assertNull(table.get(100));
+  }
+
+  @Test
+  public void testGrowsInBothDirections() {
+    final ProviderTable table = new ProviderTable();
+    final Provider<?> middle = new ConstantProvider("Middle");
+    final Provider<?> low = new ConstantProvider("Low");
+    final Provider<?> high = new ConstantProvider("High");
+
+    table.put(50, middle);
+    table.put(3, low);
+    table.put(200, high);
+
+    assertSame(middle, table.get(50));
+    assertSame(low, table.get(3));
+    assertSame(high, table.get(200));
+    assertNull(table.get(0));
+    assertNull(table.get(51));
+    assertNull(table.get(201));
+  }
+
+  @Test
+  public void testKeepsDistantIndicesOutOfDenseArray() {
+    final ProviderTable table = new ProviderTable();
+    final Provider<?>[] providers = new Provider<?>[100];
+    for (int i = 0; i < providers.length; i++) {
+      providers[i] = new ConstantProvider("Provider " + i);
+      table.put(i * 1000, providers[i]);
+    }
+
+    assertTrue(table.getCapacity() <= 8);
+    for (int i = 0; i < providers.length; i++) {
+      assertSame(providers[i], table.get(i * 1000));
+      assertNull(table.get(i * 1000 + 1));
+    }
+  }
+
+  @Test
+  public void testReplacesSparseProvider() {
+    final ProviderTable table = new ProviderTable();
+    final Provider<?> first = new ConstantProvider("First");
+    final Provider<?> second = new ConstantProvider("Second");
+
+    table.put(0, new ConstantProvider("Dense"));
+    table.put(100000, first);
+    table.put(100000, second);
+
+    assertSame(second, table.get(100000));
+  }
+
+  private static class ConstantProvider implements Provider<String> {
+    private final String value;
+
+    ConstantProvider(final String value) {
+      this.value = value;
+    }
+
+    @Override
+    public String get() {
+      return value;
+    }
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Provider;
+
+public class ReusableProviderTest {
+  @Test
+  public void testReusesInstance() {
+    final AtomicInteger count = new AtomicInteger();
+    final ReusableProvider<Object> provider = new ReusableProvider<Object>(new Provider<Object>() {
+      @Override
+      public Object get() {
+        count.incrementAndGet();
+        return new Object();
+      }
+    });
+
+    final Object instance = provider.get();
+
+    assertSame(instance, provider.get());
+    assertEquals(1, count.get());
+  }
+
+  @Test
+  public void testCreatesInstanceAgainAfterFailure() {
+    final AtomicInteger attempts = new AtomicInteger();
+    final ReusableProvider<Object> provider = new ReusableProvider<Object>(new Provider<Object>() {
+      @Override
+      public Object get() {
+        if (attempts.incrementAndGet() == 1) {
+          throw new IllegalStateException();
+        }
+        return new Object();
+      }
+    });
+
+    try {
+      provider.get();
+    } catch (final IllegalStateException exception) {
+      // Expected.
+    }
+
+    final Object instance = provider.get();
+    assertSame(instance, provider.get());
+    assertEquals(2, attempts.get());
+  }
+}
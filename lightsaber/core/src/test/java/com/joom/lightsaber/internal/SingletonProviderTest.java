@@ -0,0 +1,241 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nonnull;
+import javax.inject.Provider;
+
+public class SingletonProviderTest {
+  @Test
+  public void testCreatesInstanceOnce() {
+    final CountingProvider delegate = new CountingProvider();
+    final SingletonProvider<Object> provider = new SingletonProvider<Object>(delegate);
+
+    final Object instance = provider.get();
+
+    assertSame(instance, provider.get());
+    assertEquals(1, delegate.count.get());
+  }
+
+  @Test
+  public void testRetriesAfterFailure() {
+    final AtomicInteger attempts = new AtomicInteger();
+    final SingletonProvider<Object> provider = new SingletonProvider<Object>(new Provider<Object>() {
+      @Override
+      public Object get() {
+        if (attempts.incrementAndGet() == 1) {
+          throw new IllegalStateException();
+        }
+        return new Object();
+      }
+    });
+
+    try {
+      provider.get();
+      fail("Expected IllegalStateException");
+    } catch (final IllegalStateException exception) {
+      // Expected.
+    }
+
+    final Object instance = provider.get();
+    assertSame(instance, provider.get());
+    assertEquals(2, attempts.get());
+  }
+
+  @Test
+  public void testCreatesInstanceOnceConcurrently() throws Exception {
+    final int threadCount = 8;
+    final CountDownLatch startLatch = new CountDownLatch(1);
+    final CountingProvider delegate = new CountingProvider();
+    final SingletonProvider<Object> provider = new SingletonProvider<Object>(delegate);
+    final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      final List<Future<Object>> futures = new ArrayList<Future<Object>>();
+      for (int i = 0; i < threadCount; ++i) {
+        futures.add(executor.submit(new Callable<Object>() {
+          @Override
+          public Object call() throws Exception {
+            startLatch.await();
+            return provider.get();
+          }
+        }));
+      }
+
+      startLatch.countDown();
+      final Object instance = futures.get(0).get();
+      for (final Future<Object> future : futures) {
+        assertSame(instance, future.get());
+      }
+      assertEquals(1, delegate.count.get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testWaiterParksUntilInstanceIsPublished() throws Exception {
+    final CountDownLatch creationStartedLatch = new CountDownLatch(1);
+    final CountDownLatch creationAllowedLatch = new CountDownLatch(1);
+    final SingletonProvider<Object> provider = new SingletonProvider<Object>(new Provider<Object>() {
+      @Override
+      public Object get() {
+        creationStartedLatch.countDown();
+        try {
+          creationAllowedLatch.await();
+        } catch (final InterruptedException exception) {
+          Thread.currentThread().interrupt();
+        }
+        return new Object();
+      }
+    });
+
+    final Thread owner = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        provider.get();
+      }
+    });
+    owner.start();
+    creationStartedLatch.await();
+
+    final AtomicReference<Object> waiterResult = new AtomicReference<Object>();
+    final Thread waiter = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        waiterResult.set(provider.get());
+      }
+    });
+    waiter.start();
+    awaitState(waiter, Thread.State.WAITING);
+
+    creationAllowedLatch.countDown();
+    owner.join();
+    waiter.join();
+
+    assertSame(provider.get(), waiterResult.get());
+  }
+
+  @Test
+  public void testInterruptedWaiterParksUntilInstanceIsPublished() throws Exception {
+    final CountDownLatch creationStartedLatch = new CountDownLatch(1);
+    final CountDownLatch creationAllowedLatch = new CountDownLatch(1);
+    final SingletonProvider<Object> provider = new SingletonProvider<Object>(new Provider<Object>() {
+      @Override
+      public Object get() {
+        creationStartedLatch.countDown();
+        try {
+          creationAllowedLatch.await();
+        } catch (final InterruptedException exception) {
+          Thread.currentThread().interrupt();
+        }
+        return new Object();
+      }
+    });
+
+    final Thread owner = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        provider.get();
+      }
+    });
+    owner.start();
+    creationStartedLatch.await();
+
+    final AtomicReference<Object> waiterResult = new AtomicReference<Object>();
+    final AtomicBoolean waiterInterrupted = new AtomicBoolean();
+    final Thread waiter = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        waiterResult.set(provider.get());
+        waiterInterrupted.set(Thread.currentThread().isInterrupted());
+      }
+    });
+    waiter.start();
+    awaitState(waiter, Thread.State.WAITING);
+
+    waiter.interrupt();
+    Thread.sleep(10);
+    assertEquals(Thread.State.WAITING, waiter.getState());
+    assertNull(waiterResult.get());
+
+    creationAllowedLatch.countDown();
+    owner.join();
+    waiter.join();
+
+    assertSame(provider.get(), waiterResult.get());
+    assertTrue(waiterInterrupted.get());
+  }
+
+  @Test
+  public void testReleasesDelegateAfterPublishingInstance() throws Exception {
+    final SingletonProvider<Object> provider = new SingletonProvider<Object>(new CountingProvider());
+    final Field delegateField = LazyInitializer.class.getDeclaredField("provider");
+    delegateField.setAccessible(true);
+
+    assertNotNull(delegateField.get(provider));
+    provider.get();
+    assertNull(delegateField.get(provider));
+  }
+
+  private static void awaitState(final Thread thread, final Thread.State state) throws InterruptedException {
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (thread.getState() != state) {
+      if (System.nanoTime() > deadline) {
+        fail("Thread " + thread + " is " + thread.getState() + " instead of " + state);
+      }
+      Thread.sleep(1);
+    }
+  }
+
+  private static class CountingProvider implements Provider<Object> {
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Nonnull
+    @Override
+    public Object get() {
+      count.incrementAndGet();
+      try {
+        Thread.sleep(10);
+      } catch (final InterruptedException exception) {
+        Thread.currentThread().interrupt();
+      }
+      return new Object();
+    }
+  }
+}
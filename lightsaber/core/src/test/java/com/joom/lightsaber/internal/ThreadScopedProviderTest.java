@@ -0,0 +1,164 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.internal;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.inject.Provider;
+
+public class ThreadScopedProviderTest {
+  @Test
+  public void testCachesInstancePerThread() throws InterruptedException {
+    final ThreadScopedProvider<Object> provider = new ThreadScopedProvider<Object>(new Provider<Object>() {
+      @Override
+      public Object get() {
+        return new Object();
+      }
+    });
+
+    final Object instance = provider.get();
+    final AtomicReference<Object> otherInstance = new AtomicReference<Object>();
+    final Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        otherInstance.set(provider.get());
+      }
+    });
+    thread.start();
+    thread.join();
+
+    assertSame(instance, provider.get());
+    assertNotSame(instance, otherInstance.get());
+  }
+
+  @Test
+  public void testClosesInstancesOnDispose() {
+    final ThreadScopedProvider<CloseableObject> provider = new ThreadScopedProvider<CloseableObject>(new Provider<CloseableObject>() {
+      @Override
+      public CloseableObject get() {
+        return new CloseableObject();
+      }
+    });
+
+    final CloseableObject instance = provider.get();
+    provider.dispose();
+
+    assertTrue(instance.closed);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testFailsAfterDispose() {
+    final ThreadScopedProvider<Object> provider = new ThreadScopedProvider<Object>(new Provider<Object>() {
+      @Override
+      public Object get() {
+        return new Object();
+      }
+    });
+
+    provider.get();
+    provider.dispose();
+    provider.get();
+  }
+
+  @Test
+  public void testClosesInstanceCreatedConcurrentlyWithDispose() throws InterruptedException {
+    final CountDownLatch creationStartedLatch = new CountDownLatch(1);
+    final CountDownLatch creationAllowedLatch = new CountDownLatch(1);
+    final CloseableObject instance = new CloseableObject();
+    final ThreadScopedProvider<CloseableObject> provider = new ThreadScopedProvider<CloseableObject>(new Provider<CloseableObject>() {
+      @Override
+      public CloseableObject get() {
+        creationStartedLatch.countDown();
+        try {
+          creationAllowedLatch.await();
+        } catch (final InterruptedException exception) {
+          Thread.currentThread().interrupt();
+        }
+        return instance;
+      }
+    });
+
+    final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+    final Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          provider.get();
+        } catch (final Throwable throwable) {
+          failure.set(throwable);
+        }
+      }
+    });
+    thread.start();
+    creationStartedLatch.await();
+    provider.dispose();
+    creationAllowedLatch.countDown();
+    thread.join();
+
+    assertTrue(instance.closed);
+    assertTrue(failure.get() instanceof IllegalStateException);
+  }
+
+  @Test
+  public void testReleasesInstancesOfFinishedThreads() throws InterruptedException {
+    final ThreadScopedProvider<Object> provider = new ThreadScopedProvider<Object>(new Provider<Object>() {
+      @Override
+      public Object get() {
+        return new Object();
+      }
+    });
+
+    final AtomicReference<WeakReference<Object>> reference = new AtomicReference<WeakReference<Object>>();
+    final Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        reference.set(new WeakReference<Object>(provider.get()));
+      }
+    });
+    thread.start();
+    thread.join();
+
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (reference.get().get() != null) {
+      if (System.nanoTime() > deadline) {
+        fail("The instance of a finished thread is still reachable");
+      }
+      System.gc();
+      Thread.sleep(10);
+    }
+  }
+
+  private static class CloseableObject implements Closeable {
+    boolean closed;
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+}
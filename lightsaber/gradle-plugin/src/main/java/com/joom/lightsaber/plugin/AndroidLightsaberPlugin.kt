@@ -74,11 +74,27 @@ abstract class AndroidLightsaberPlugin : BaseLightsaberPlugin() {
     val validateUnusedImportsByDefault = Flags.validateUnusedImportsByDefault(project)
     val validateUnusedImportsVerboseByDefault = Flags.validateUnusedImportsVerboseByDefault(project)
     val dumpDebugReportByDefault = Flags.dumpDebugReportByDefault(project)
+    val cacheDependencyProvidersByDefault = Flags.cacheDependencyProvidersByDefault(project)
+    val indexProvidersByDefault = Flags.indexProvidersByDefault(project)
+    val parallelEagerInstantiationByDefault = Flags.parallelEagerInstantiationByDefault(project)
+    val lazyProvidersByDefault = Flags.lazyProvidersByDefault(project)
+    val mergeProvidersByDefault = Flags.mergeProvidersByDefault(project)
+    val flattenContractsByDefault = Flags.flattenContractsByDefault(project)
+    val constantDynamicKeysByDefault = Flags.constantDynamicKeysByDefault(project)
+    val shardKeyRegistryByDefault = Flags.shardKeyRegistryByDefault(project)
 
     val validateUsage = project.provider { extension.validateUsage ?: validateUsageByDefault }
     val validateUnusedImports = project.provider { extension.validateUnusedImports ?: validateUnusedImportsByDefault }
     val validateUnusedImportsVerbose = project.provider { extension.validateUnusedImportsVerbose ?: validateUnusedImportsVerboseByDefault }
     val dumpDebugReport = project.provider { extension.dumpDebugReport ?: dumpDebugReportByDefault }
+    val cacheDependencyProviders = project.provider { extension.cacheDependencyProviders ?: cacheDependencyProvidersByDefault }
+    val indexProviders = project.provider { extension.indexProviders ?: indexProvidersByDefault }
+    val parallelEagerInstantiation = project.provider { extension.parallelEagerInstantiation ?: parallelEagerInstantiationByDefault }
+    val lazyProviders = project.provider { extension.lazyProviders ?: lazyProvidersByDefault }
+    val mergeProviders = project.provider { extension.mergeProviders ?: mergeProvidersByDefault }
+    val flattenContracts = project.provider { extension.flattenContracts ?: flattenContractsByDefault }
+    val constantDynamicKeys = project.provider { extension.constantDynamicKeys ?: constantDynamicKeysByDefault }
+    val shardKeyRegistry = project.provider { extension.shardKeyRegistry ?: shardKeyRegistryByDefault }
 
     project.applicationAndroidComponents?.apply {
       onVariants(selector().all()) { variant ->
@@ -88,6 +104,14 @@ abstract class AndroidLightsaberPlugin : BaseLightsaberPlugin() {
           validateUnusedImports = validateUnusedImports,
           validateUnusedImportsVerbose = validateUnusedImportsVerbose,
           dumpDebugReport = dumpDebugReport,
+          cacheDependencyProviders = cacheDependencyProviders,
+          indexProviders = indexProviders,
+          parallelEagerInstantiation = parallelEagerInstantiation,
+          lazyProviders = lazyProviders,
+          mergeProviders = mergeProviders,
+          flattenContracts = flattenContracts,
+          constantDynamicKeys = constantDynamicKeys,
+          shardKeyRegistry = shardKeyRegistry,
           buildCacheService = buildCacheService
         )
       }
@@ -101,6 +125,14 @@ abstract class AndroidLightsaberPlugin : BaseLightsaberPlugin() {
           validateUnusedImports = validateUnusedImports,
           validateUnusedImportsVerbose = validateUnusedImportsVerbose,
           dumpDebugReport = dumpDebugReport,
+          cacheDependencyProviders = cacheDependencyProviders,
+          indexProviders = indexProviders,
+          parallelEagerInstantiation = parallelEagerInstantiation,
+          lazyProviders = lazyProviders,
+          mergeProviders = mergeProviders,
+          flattenContracts = flattenContracts,
+          constantDynamicKeys = constantDynamicKeys,
+          shardKeyRegistry = shardKeyRegistry,
           buildCacheService = buildCacheService
         )
       }
@@ -113,6 +145,14 @@ abstract class AndroidLightsaberPlugin : BaseLightsaberPlugin() {
     validateUnusedImports: Provider<Boolean>,
     validateUnusedImportsVerbose: Provider<Boolean>,
     dumpDebugReport: Provider<Boolean>,
+    cacheDependencyProviders: Provider<Boolean>,
+    indexProviders: Provider<Boolean>,
+    parallelEagerInstantiation: Provider<Boolean>,
+    lazyProviders: Provider<Boolean>,
+    mergeProviders: Provider<Boolean>,
+    flattenContracts: Provider<Boolean>,
+    constantDynamicKeys: Provider<Boolean>,
+    shardKeyRegistry: Provider<Boolean>,
     buildCacheService: Provider<LightsaberSharedBuildCacheService>,
   ) where T : Variant, T : HasAndroidTest {
     val runtimeClasspath = runtimeClasspathConfiguration()
@@ -123,6 +163,14 @@ abstract class AndroidLightsaberPlugin : BaseLightsaberPlugin() {
       validateUnusedImports = validateUnusedImports,
       validateUnusedImportsVerbose = validateUnusedImportsVerbose,
       dumpDebugReport = dumpDebugReport,
+      cacheDependencyProviders = cacheDependencyProviders,
+      indexProviders = indexProviders,
+      parallelEagerInstantiation = parallelEagerInstantiation,
+      lazyProviders = lazyProviders,
+      mergeProviders = mergeProviders,
+      flattenContracts = flattenContracts,
+      constantDynamicKeys = constantDynamicKeys,
+      shardKeyRegistry = shardKeyRegistry,
       classpathProvider = classpathProvider(runtimeClasspath),
       modulesClasspathProvider = modulesClasspathProvider(runtimeClasspath),
       buildCacheService = buildCacheService,
@@ -137,6 +185,14 @@ abstract class AndroidLightsaberPlugin : BaseLightsaberPlugin() {
         validateUnusedImports = validateUnusedImports,
         validateUnusedImportsVerbose = validateUnusedImportsVerbose,
         dumpDebugReport = dumpDebugReport,
+        cacheDependencyProviders = cacheDependencyProviders,
+        indexProviders = indexProviders,
+        parallelEagerInstantiation = parallelEagerInstantiation,
+        lazyProviders = lazyProviders,
+        mergeProviders = mergeProviders,
+        flattenContracts = flattenContracts,
+        constantDynamicKeys = constantDynamicKeys,
+        shardKeyRegistry = shardKeyRegistry,
         classpathProvider = classpathProvider(androidTestRuntimeClasspath),
         modulesClasspathProvider = modulesClasspathProvider(androidTestRuntimeClasspath) - modulesClasspathProvider(runtimeClasspath),
         buildCacheService = buildCacheService,
@@ -150,6 +206,14 @@ abstract class AndroidLightsaberPlugin : BaseLightsaberPlugin() {
     validateUnusedImports: Provider<Boolean>,
     validateUnusedImportsVerbose: Provider<Boolean>,
     dumpDebugReport: Provider<Boolean>,
+    cacheDependencyProviders: Provider<Boolean>,
+    indexProviders: Provider<Boolean>,
+    parallelEagerInstantiation: Provider<Boolean>,
+    lazyProviders: Provider<Boolean>,
+    mergeProviders: Provider<Boolean>,
+    flattenContracts: Provider<Boolean>,
+    constantDynamicKeys: Provider<Boolean>,
+    shardKeyRegistry: Provider<Boolean>,
     classpathProvider: Provider<FileCollection>,
     modulesClasspathProvider: Provider<FileCollection>,
     buildCacheService: Provider<LightsaberSharedBuildCacheService>,
@@ -171,6 +235,14 @@ abstract class AndroidLightsaberPlugin : BaseLightsaberPlugin() {
       task.validateUnusedImports.set(validateUnusedImports)
       task.validateUnusedImportsVerbose.set(validateUnusedImportsVerbose)
       task.dumpDebugReport.set(dumpDebugReport)
+      task.cacheDependencyProviders.set(cacheDependencyProviders)
+      task.indexProviders.set(indexProviders)
+      task.parallelEagerInstantiation.set(parallelEagerInstantiation)
+      task.lazyProviders.set(lazyProviders)
+      task.mergeProviders.set(mergeProviders)
+      task.flattenContracts.set(flattenContracts)
+      task.constantDynamicKeys.set(constantDynamicKeys)
+      task.shardKeyRegistry.set(shardKeyRegistry)
 
       @Suppress("UnstableApiUsage")
       task.usesService(buildCacheService)
@@ -205,6 +277,14 @@ abstract class AndroidLightsaberPlugin : BaseLightsaberPlugin() {
       validateUnusedImportsByDefault = Flags.validateUnusedImportsByDefault(project),
       validateUnusedImportsVerboseByDefault = Flags.validateUnusedImportsVerboseByDefault(project),
       dumpDebugReportByDefault = Flags.dumpDebugReportByDefault(project),
+      cacheDependencyProvidersByDefault = Flags.cacheDependencyProvidersByDefault(project),
+      indexProvidersByDefault = Flags.indexProvidersByDefault(project),
+      parallelEagerInstantiationByDefault = Flags.parallelEagerInstantiationByDefault(project),
+      lazyProvidersByDefault = Flags.lazyProvidersByDefault(project),
+      mergeProvidersByDefault = Flags.mergeProvidersByDefault(project),
+      flattenContractsByDefault = Flags.flattenContractsByDefault(project),
+      constantDynamicKeysByDefault = Flags.constantDynamicKeysByDefault(project),
+      shardKeyRegistryByDefault = Flags.shardKeyRegistryByDefault(project),
       reportDirectory = computeReportDirectory().toPath()
     )
 
@@ -7,6 +7,14 @@ open class AndroidLightsaberPluginExtension {
   var validateUnusedImports: Boolean? = null
   var validateUnusedImportsVerbose: Boolean? = null
   var dumpDebugReport: Boolean? = null
+  var cacheDependencyProviders: Boolean? = null
+  var indexProviders: Boolean? = null
+  var parallelEagerInstantiation: Boolean? = null
+  var lazyProviders: Boolean? = null
+  var mergeProviders: Boolean? = null
+  var flattenContracts: Boolean? = null
+  var constantDynamicKeys: Boolean? = null
+  var shardKeyRegistry: Boolean? = null
 
   var cacheable: Boolean = false
   var bootClasspath: List<File> = emptyList()
@@ -53,4 +53,60 @@ internal object Flags {
       .getOrElse("false")
       .toBoolean()
   }
+
+  fun cacheDependencyProvidersByDefault(project: Project): Boolean {
+    return project.providers.gradleProperty("lightsaber.cache.dependency.providers")
+      .forUseAtConfigurationTime()
+      .getOrElse("false")
+      .toBoolean()
+  }
+
+  fun indexProvidersByDefault(project: Project): Boolean {
+    return project.providers.gradleProperty("lightsaber.index.providers")
+      .forUseAtConfigurationTime()
+      .getOrElse("false")
+      .toBoolean()
+  }
+
+  fun parallelEagerInstantiationByDefault(project: Project): Boolean {
+    return project.providers.gradleProperty("lightsaber.parallel.eager.instantiation")
+      .forUseAtConfigurationTime()
+      .getOrElse("false")
+      .toBoolean()
+  }
+
+  fun lazyProvidersByDefault(project: Project): Boolean {
+    return project.providers.gradleProperty("lightsaber.lazy.providers")
+      .forUseAtConfigurationTime()
+      .getOrElse("false")
+      .toBoolean()
+  }
+
+  fun mergeProvidersByDefault(project: Project): Boolean {
+    return project.providers.gradleProperty("lightsaber.merge.providers")
+      .forUseAtConfigurationTime()
+      .getOrElse("false")
+      .toBoolean()
+  }
+
+  fun flattenContractsByDefault(project: Project): Boolean {
+    return project.providers.gradleProperty("lightsaber.flatten.contracts")
+      .forUseAtConfigurationTime()
+      .getOrElse("false")
+      .toBoolean()
+  }
+
+  fun constantDynamicKeysByDefault(project: Project): Boolean {
+    return project.providers.gradleProperty("lightsaber.constant.dynamic.keys")
+      .forUseAtConfigurationTime()
+      .getOrElse("false")
+      .toBoolean()
+  }
+
+  fun shardKeyRegistryByDefault(project: Project): Boolean {
+    return project.providers.gradleProperty("lightsaber.shard.key.registry")
+      .forUseAtConfigurationTime()
+      .getOrElse("false")
+      .toBoolean()
+  }
 }
@@ -179,6 +179,14 @@ abstract class JavaLightsaberPlugin : BaseLightsaberPlugin() {
     val validateUnusedImports = extension.validateUnusedImports ?: Flags.validateUnusedImportsByDefault(project)
     val validateUnusedImportsVerbose = extension.validateUnusedImportsVerbose ?: Flags.validateUnusedImportsVerboseByDefault(project)
     val dumpDebugReport = extension.dumpDebugReport ?: Flags.dumpDebugReportByDefault(project)
+    val cacheDependencyProviders = extension.cacheDependencyProviders ?: Flags.cacheDependencyProvidersByDefault(project)
+    val indexProviders = extension.indexProviders ?: Flags.indexProvidersByDefault(project)
+    val parallelEagerInstantiation = extension.parallelEagerInstantiation ?: Flags.parallelEagerInstantiationByDefault(project)
+    val lazyProviders = extension.lazyProviders ?: Flags.lazyProvidersByDefault(project)
+    val mergeProviders = extension.mergeProviders ?: Flags.mergeProvidersByDefault(project)
+    val flattenContracts = extension.flattenContracts ?: Flags.flattenContractsByDefault(project)
+    val constantDynamicKeys = extension.constantDynamicKeys ?: Flags.constantDynamicKeysByDefault(project)
+    val shardKeyRegistry = extension.shardKeyRegistry ?: Flags.shardKeyRegistryByDefault(project)
 
     return project.tasks.create(taskName, LightsaberTask::class.java) { task ->
       task.description = "Processes .class files with Lightsaber Processor."
@@ -193,6 +201,14 @@ abstract class JavaLightsaberPlugin : BaseLightsaberPlugin() {
       task.validateUnusedImports.set(validateUnusedImports)
       task.validateUnusedImportsVerbose.set(validateUnusedImportsVerbose)
       task.dumpDebugReport.set(dumpDebugReport)
+      task.cacheDependencyProviders.set(cacheDependencyProviders)
+      task.indexProviders.set(indexProviders)
+      task.parallelEagerInstantiation.set(parallelEagerInstantiation)
+      task.lazyProviders.set(lazyProviders)
+      task.mergeProviders.set(mergeProviders)
+      task.flattenContracts.set(flattenContracts)
+      task.constantDynamicKeys.set(constantDynamicKeys)
+      task.shardKeyRegistry.set(shardKeyRegistry)
       @Suppress("UnstableApiUsage")
       task.usesService(buildEntityService)
     }
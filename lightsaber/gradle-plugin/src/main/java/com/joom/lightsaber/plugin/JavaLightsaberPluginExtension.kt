@@ -22,4 +22,12 @@ open class JavaLightsaberPluginExtension {
   var validateUnusedImports: Boolean? = null
   var validateUnusedImportsVerbose: Boolean? = null
   var dumpDebugReport: Boolean? = null
+  var cacheDependencyProviders: Boolean? = null
+  var indexProviders: Boolean? = null
+  var parallelEagerInstantiation: Boolean? = null
+  var lazyProviders: Boolean? = null
+  var mergeProviders: Boolean? = null
+  var flattenContracts: Boolean? = null
+  var constantDynamicKeys: Boolean? = null
+  var shardKeyRegistry: Boolean? = null
 }
@@ -81,6 +81,30 @@ abstract class LightsaberTask @Inject constructor(
   @get:Input
   abstract val dumpDebugReport: Property<Boolean>
 
+  @get:Input
+  abstract val cacheDependencyProviders: Property<Boolean>
+
+  @get:Input
+  abstract val indexProviders: Property<Boolean>
+
+  @get:Input
+  abstract val parallelEagerInstantiation: Property<Boolean>
+
+  @get:Input
+  abstract val lazyProviders: Property<Boolean>
+
+  @get:Input
+  abstract val mergeProviders: Property<Boolean>
+
+  @get:Input
+  abstract val flattenContracts: Property<Boolean>
+
+  @get:Input
+  abstract val constantDynamicKeys: Property<Boolean>
+
+  @get:Input
+  abstract val shardKeyRegistry: Property<Boolean>
+
   private val projectName = formatProjectName()
 
   init {
@@ -107,6 +131,14 @@ abstract class LightsaberTask @Inject constructor(
       validateUnusedImports = validateUnusedImports.get(),
       validateUnusedImportsVerbose = validateUnusedImportsVerbose.get(),
       dumpDebugReport = dumpDebugReport.get(),
+      cacheDependencyProviders = cacheDependencyProviders.get(),
+      indexProviders = indexProviders.get(),
+      parallelEagerInstantiation = parallelEagerInstantiation.get(),
+      lazyProviders = lazyProviders.get(),
+      mergeProviders = mergeProviders.get(),
+      flattenContracts = flattenContracts.get(),
+      constantDynamicKeys = constantDynamicKeys.get(),
+      shardKeyRegistry = shardKeyRegistry.get(),
       reportDirectory = computeReportDirectory().toPath()
     )
 
@@ -41,6 +41,14 @@ class LightsaberTransform(
   private val validateUnusedImportsByDefault: Boolean,
   private val validateUnusedImportsVerboseByDefault: Boolean,
   private val dumpDebugReportByDefault: Boolean,
+  private val cacheDependencyProvidersByDefault: Boolean,
+  private val indexProvidersByDefault: Boolean,
+  private val parallelEagerInstantiationByDefault: Boolean,
+  private val lazyProvidersByDefault: Boolean,
+  private val mergeProvidersByDefault: Boolean,
+  private val flattenContractsByDefault: Boolean,
+  private val constantDynamicKeysByDefault: Boolean,
+  private val shardKeyRegistryByDefault: Boolean,
   private val reportDirectory: Path
 ) : Transform() {
   private val logger = getLogger()
@@ -80,6 +88,14 @@ class LightsaberTransform(
       validateUnusedImports = extension.validateUnusedImports ?: validateUnusedImportsByDefault,
       validateUnusedImportsVerbose = extension.validateUnusedImportsVerbose ?: validateUnusedImportsVerboseByDefault,
       dumpDebugReport = extension.dumpDebugReport ?: dumpDebugReportByDefault,
+      cacheDependencyProviders = extension.cacheDependencyProviders ?: cacheDependencyProvidersByDefault,
+      indexProviders = extension.indexProviders ?: indexProvidersByDefault,
+      parallelEagerInstantiation = extension.parallelEagerInstantiation ?: parallelEagerInstantiationByDefault,
+      lazyProviders = extension.lazyProviders ?: lazyProvidersByDefault,
+      mergeProviders = extension.mergeProviders ?: mergeProvidersByDefault,
+      flattenContracts = extension.flattenContracts ?: flattenContractsByDefault,
+      constantDynamicKeys = extension.constantDynamicKeys ?: constantDynamicKeysByDefault,
+      shardKeyRegistry = extension.shardKeyRegistry ?: shardKeyRegistryByDefault,
       reportDirectory = reportDirectory,
       sharedBuildCache = LightsaberSharedBuildCache.create(),
     )
@@ -111,6 +127,14 @@ class LightsaberTransform(
       "validateUnusedImports" to (extension.validateUnusedImports ?: validateUnusedImportsByDefault),
       "validateUnusedImportsVerbose" to (extension.validateUnusedImportsVerbose ?: validateUnusedImportsVerboseByDefault),
       "dumpDebugReport" to (extension.dumpDebugReport ?: dumpDebugReportByDefault),
+      "cacheDependencyProviders" to (extension.cacheDependencyProviders ?: cacheDependencyProvidersByDefault),
+      "indexProviders" to (extension.indexProviders ?: indexProvidersByDefault),
+      "parallelEagerInstantiation" to (extension.parallelEagerInstantiation ?: parallelEagerInstantiationByDefault),
+      "lazyProviders" to (extension.lazyProviders ?: lazyProvidersByDefault),
+      "mergeProviders" to (extension.mergeProviders ?: mergeProvidersByDefault),
+      "flattenContracts" to (extension.flattenContracts ?: flattenContractsByDefault),
+      "constantDynamicKeys" to (extension.constantDynamicKeys ?: constantDynamicKeysByDefault),
+      "shardKeyRegistry" to (extension.shardKeyRegistry ?: shardKeyRegistryByDefault),
       "cacheable" to extension.cacheable,
       "bootClasspath" to extension.bootClasspath
         .map { it.absolutePath }
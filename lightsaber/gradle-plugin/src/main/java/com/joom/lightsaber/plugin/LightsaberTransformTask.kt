@@ -93,6 +93,30 @@ abstract class LightsaberTransformTask @Inject constructor(
   @get:Input
   abstract val dumpDebugReport: Property<Boolean>
 
+  @get:Input
+  abstract val cacheDependencyProviders: Property<Boolean>
+
+  @get:Input
+  abstract val indexProviders: Property<Boolean>
+
+  @get:Input
+  abstract val parallelEagerInstantiation: Property<Boolean>
+
+  @get:Input
+  abstract val lazyProviders: Property<Boolean>
+
+  @get:Input
+  abstract val mergeProviders: Property<Boolean>
+
+  @get:Input
+  abstract val flattenContracts: Property<Boolean>
+
+  @get:Input
+  abstract val constantDynamicKeys: Property<Boolean>
+
+  @get:Input
+  abstract val shardKeyRegistry: Property<Boolean>
+
   private val projectName = formatProjectName()
 
   init {
@@ -117,6 +141,14 @@ abstract class LightsaberTransformTask @Inject constructor(
       validateUnusedImports = validateUnusedImports.get(),
       validateUnusedImportsVerbose = validateUnusedImportsVerbose.get(),
       dumpDebugReport = dumpDebugReport.get(),
+      cacheDependencyProviders = cacheDependencyProviders.get(),
+      indexProviders = indexProviders.get(),
+      parallelEagerInstantiation = parallelEagerInstantiation.get(),
+      lazyProviders = lazyProviders.get(),
+      mergeProviders = mergeProviders.get(),
+      flattenContracts = flattenContracts.get(),
+      constantDynamicKeys = constantDynamicKeys.get(),
+      shardKeyRegistry = shardKeyRegistry.get(),
       reportDirectory = reports,
       sharedBuildCache = sharedBuildCacheService.get().cache,
     )
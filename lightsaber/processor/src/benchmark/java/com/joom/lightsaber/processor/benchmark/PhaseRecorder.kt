@@ -0,0 +1,54 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.processor.benchmark
+
+import com.joom.lightsaber.processor.ProcessingPhase
+import com.joom.lightsaber.processor.ProcessingPhaseListener
+import java.lang.management.ManagementFactory
+import java.lang.management.MemoryPoolMXBean
+import java.lang.management.MemoryType
+import java.util.EnumMap
+
+class PhaseRecorder : ProcessingPhaseListener {
+  private val heapPools: List<MemoryPoolMXBean> =
+    ManagementFactory.getMemoryPoolMXBeans().filter { it.type == MemoryType.HEAP && it.isValid }
+
+  private val startTimes = EnumMap<ProcessingPhase, Long>(ProcessingPhase::class.java)
+  private val durations = EnumMap<ProcessingPhase, Long>(ProcessingPhase::class.java)
+  private val peakHeaps = EnumMap<ProcessingPhase, Long>(ProcessingPhase::class.java)
+
+  override fun onPhaseStarted(phase: ProcessingPhase) {
+    heapPools.forEach { it.resetPeakUsage() }
+    startTimes[phase] = System.nanoTime()
+  }
+
+  override fun onPhaseFinished(phase: ProcessingPhase) {
+    val startTime = startTimes.remove(phase) ?: error("Phase $phase hasn't been started")
+    durations[phase] = (durations[phase] ?: 0L) + System.nanoTime() - startTime
+    // Summing per-pool peaks overestimates the real peak a little, but it's stable enough to compare runs.
+    val peakHeap = heapPools.sumOf { it.peakUsage.used }
+    peakHeaps[phase] = maxOf(peakHeaps[phase] ?: 0L, peakHeap)
+  }
+
+  fun getDurationNanos(phase: ProcessingPhase): Long {
+    return durations[phase] ?: 0L
+  }
+
+  fun getPeakHeapBytes(phase: ProcessingPhase): Long {
+    return peakHeaps[phase] ?: 0L
+  }
+}
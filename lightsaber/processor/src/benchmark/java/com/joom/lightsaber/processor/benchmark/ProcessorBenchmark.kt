@@ -0,0 +1,171 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.processor.benchmark
+
+import com.joom.lightsaber.processor.JvmRuntimeUtil
+import com.joom.lightsaber.processor.LightsaberOutputFactory
+import com.joom.lightsaber.processor.LightsaberParameters
+import com.joom.lightsaber.processor.LightsaberProcessor
+import com.joom.lightsaber.processor.LightsaberSharedBuildCache
+import com.joom.lightsaber.processor.ProcessingPhase
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.TimeUnit
+
+/**
+ * Generates a synthetic project and runs [LightsaberProcessor] on it several times, reporting time and peak heap usage
+ * of every processing phase.
+ *
+ * Arguments are passed as --name=value pairs: --modules, --classes-per-module, --depth, --contracts, --factories,
+ * --qualified-keys-per-module, --generic-keys-per-module, --warmup-iterations, --iterations.
+ */
+fun main(args: Array<String>) {
+  val arguments = parseArguments(args)
+  val configuration = SyntheticProjectConfiguration(
+    moduleCount = arguments.getInt("modules", 100),
+    classesPerModule = arguments.getInt("classes-per-module", 30),
+    depth = arguments.getInt("depth", 5),
+    contractCount = arguments.getInt("contracts", 20),
+    factoryCount = arguments.getInt("factories", 20),
+    qualifiedKeysPerModule = arguments.getInt("qualified-keys-per-module", 3),
+    genericKeysPerModule = arguments.getInt("generic-keys-per-module", 3),
+  )
+  val warmupIterations = arguments.getInt("warmup-iterations", 2)
+  val iterations = arguments.getInt("iterations", 5)
+
+  val workingDirectory = Files.createTempDirectory("lightsaber-benchmark")
+  try {
+    ProcessorBenchmark(configuration, workingDirectory).run(warmupIterations, iterations)
+  } finally {
+    workingDirectory.toFile().deleteRecursively()
+  }
+}
+
+class ProcessorBenchmark(
+  private val configuration: SyntheticProjectConfiguration,
+  private val workingDirectory: Path
+) {
+
+  private val inputDirectory = workingDirectory.resolve("classes")
+  private val bootClasspath = JvmRuntimeUtil.computeRuntimeClasses()
+
+  fun run(warmupIterations: Int, iterations: Int) {
+    SyntheticProjectGenerator(configuration).generate(inputDirectory)
+    println("Generated ${configuration.classCount} classes in ${configuration.moduleCount} modules: $configuration")
+
+    LightsaberSharedBuildCache.create().use { sharedBuildCache ->
+      repeat(warmupIterations) { iteration ->
+        val recorder = runIteration(sharedBuildCache)
+        printIteration("Warmup ${iteration + 1}", recorder)
+      }
+
+      val recorders = List(iterations) { iteration ->
+        runIteration(sharedBuildCache).also { printIteration("Iteration ${iteration + 1}", it) }
+      }
+
+      printSummary(recorders)
+    }
+  }
+
+  private fun runIteration(sharedBuildCache: LightsaberSharedBuildCache): PhaseRecorder {
+    val outputDirectory = workingDirectory.resolve("processed")
+    outputDirectory.toFile().deleteRecursively()
+    System.gc()
+
+    val recorder = PhaseRecorder()
+    val parameters = LightsaberParameters(
+      inputs = listOf(inputDirectory),
+      classpath = emptyList(),
+      modulesClasspath = emptyList(),
+      bootClasspath = bootClasspath,
+      outputFactory = LightsaberOutputFactory.create(outputDirectory),
+      projectName = "synthetic",
+      validateUsage = true,
+      validateUnusedImports = false,
+      validateUnusedImportsVerbose = false,
+      dumpDebugReport = false,
+      cacheDependencyProviders = false,
+      indexProviders = false,
+      parallelEagerInstantiation = false,
+      lazyProviders = false,
+      mergeProviders = false,
+      flattenContracts = false,
+      constantDynamicKeys = false,
+      shardKeyRegistry = false,
+      reportDirectory = workingDirectory.resolve("reports"),
+      sharedBuildCache = sharedBuildCache,
+      phaseListener = recorder,
+    )
+
+    LightsaberProcessor(parameters).process()
+    return recorder
+  }
+
+  private fun printIteration(title: String, recorder: PhaseRecorder) {
+    val phases = ProcessingPhase.values().joinToString { phase ->
+      "${phase.name.lowercase()} ${formatMillis(recorder.getDurationNanos(phase))}"
+    }
+    val total = ProcessingPhase.values().sumOf { recorder.getDurationNanos(it) }
+    println("$title: total ${formatMillis(total)} ($phases)")
+  }
+
+  private fun printSummary(recorders: List<PhaseRecorder>) {
+    if (recorders.isEmpty()) {
+      return
+    }
+
+    println()
+    println(String.format("%-12s %12s %12s %16s", "Phase", "Avg, ms", "Min, ms", "Peak heap, MB"))
+    ProcessingPhase.values().forEach { phase ->
+      val durations = recorders.map { it.getDurationNanos(phase) }
+      val peakHeap = recorders.maxOf { it.getPeakHeapBytes(phase) }
+      println(
+        String.format(
+          "%-12s %12.1f %12.1f %16.1f",
+          phase.name.lowercase(),
+          toMillis(durations.average()),
+          toMillis(durations.minOrNull()!!.toDouble()),
+          peakHeap / BYTES_IN_MEGABYTE
+        )
+      )
+    }
+  }
+
+  private fun formatMillis(nanos: Long): String {
+    return String.format("%.1f ms", toMillis(nanos.toDouble()))
+  }
+
+  private fun toMillis(nanos: Double): Double {
+    return nanos / TimeUnit.MILLISECONDS.toNanos(1)
+  }
+
+  companion object {
+    private const val BYTES_IN_MEGABYTE = 1024.0 * 1024.0
+  }
+}
+
+private fun parseArguments(args: Array<String>): Map<String, String> {
+  return args.associate { argument ->
+    require(argument.startsWith("--") && "=" in argument) { "Argument $argument must have --name=value format" }
+    argument.removePrefix("--").substringBefore('=') to argument.substringAfter('=')
+  }
+}
+
+private fun Map<String, String>.getInt(name: String, defaultValue: Int): Int {
+  val value = get(name) ?: return defaultValue
+  return requireNotNull(value.toIntOrNull()) { "Argument --$name must be an integer, but was $value" }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.processor.benchmark
+
+data class SyntheticProjectConfiguration(
+  val moduleCount: Int = 100,
+  val classesPerModule: Int = 30,
+  val depth: Int = 5,
+  val contractCount: Int = 20,
+  val factoryCount: Int = 20,
+  val qualifiedKeysPerModule: Int = 3,
+  val genericKeysPerModule: Int = 3,
+) {
+  init {
+    require(moduleCount > 0) { "Module count must be positive" }
+    require(classesPerModule > 0) { "Class count per module must be positive" }
+    require(depth > 0) { "Depth must be positive" }
+    require(contractCount >= 0) { "Contract count must not be negative" }
+    require(factoryCount >= 0) { "Factory count must not be negative" }
+    require(qualifiedKeysPerModule in 0..classesPerModule) { "Qualified key count must be in 0.." }
+    require(genericKeysPerModule in 0..classesPerModule) { "Generic key count must be in 0.." }
+  }
+
+  val classCount: Int
+    get() = moduleCount * classesPerModule
+}
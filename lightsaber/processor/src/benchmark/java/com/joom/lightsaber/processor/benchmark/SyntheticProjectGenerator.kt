@@ -0,0 +1,259 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.processor.benchmark
+
+import org.objectweb.asm.AnnotationVisitor
+import org.objectweb.asm.ClassVisitor
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.MethodVisitor
+import org.objectweb.asm.Opcodes.ACC_ABSTRACT
+import org.objectweb.asm.Opcodes.ACC_INTERFACE
+import org.objectweb.asm.Opcodes.ACC_PUBLIC
+import org.objectweb.asm.Opcodes.ACC_SUPER
+import org.objectweb.asm.Opcodes.ALOAD
+import org.objectweb.asm.Opcodes.ARETURN
+import org.objectweb.asm.Opcodes.INVOKESPECIAL
+import org.objectweb.asm.Opcodes.INVOKESTATIC
+import org.objectweb.asm.Opcodes.RETURN
+import org.objectweb.asm.Opcodes.V1_8
+import org.objectweb.asm.Type
+import java.nio.file.Files
+import java.nio.file.Path
+
+/**
+ * Writes a compiled class set shaped by [SyntheticProjectConfiguration] to a directory. Every module is imported by a
+ * single component and provides a grid of classes with @Inject constructors. A class depends on its predecessor in the
+ * module until the chain reaches the configured depth, and on a root class of the previous module. Qualified and generic
+ * keys are provided by module methods and consumed by the first classes of each module.
+ */
+class SyntheticProjectGenerator(
+  private val configuration: SyntheticProjectConfiguration
+) {
+
+  fun generate(directory: Path) {
+    writeClass(directory, COMPONENT, generateComponent())
+
+    for (module in 0 until configuration.moduleCount) {
+      writeClass(directory, getModuleName(module), generateModule(module))
+      for (index in 0 until configuration.classesPerModule) {
+        writeClass(directory, getNodeName(module, index), generateNode(module, index))
+      }
+    }
+
+    for (contract in 0 until configuration.contractCount) {
+      writeClass(directory, getContractName(contract), generateContract(contract))
+    }
+
+    for (factory in 0 until configuration.factoryCount) {
+      writeClass(directory, getFactoryName(factory), generateFactory(factory))
+      writeClass(directory, getProductName(factory), generateProduct(factory))
+    }
+  }
+
+  private fun generateComponent(): ByteArray {
+    return generateClass(COMPONENT) { visitor ->
+      visitor.visitAnnotation(COMPONENT_DESCRIPTOR, true).visitEnd()
+      visitor.generateDefaultConstructor()
+    }
+  }
+
+  private fun generateModule(module: Int): ByteArray {
+    return generateClass(getModuleName(module)) { visitor ->
+      visitor.visitAnnotation(MODULE_DESCRIPTOR, true).visitEnd()
+      visitor.visitAnnotation(IMPORTED_BY_DESCRIPTOR, true).visitTypes(Type.getObjectType(COMPONENT))
+      visitor.generateDefaultConstructor()
+
+      for (index in 0 until configuration.qualifiedKeysPerModule) {
+        visitor.visitMethod(ACC_PUBLIC, "provideQualified$index", "()$STRING_DESCRIPTOR", null, null).apply {
+          visitAnnotation(PROVIDE_DESCRIPTOR, true).visitEnd()
+          visitAnnotation(NAMED_DESCRIPTOR, true).visitValue(getQualifier(module, index))
+          visitCode()
+          visitLdcInsn(getQualifier(module, index))
+          visitInsn(ARETURN)
+          visitMaxs(0, 0)
+          visitEnd()
+        }
+      }
+
+      for (index in 0 until configuration.genericKeysPerModule) {
+        val signature = "()" + getListSignature(getNodeName(module, index))
+        visitor.visitMethod(ACC_PUBLIC, "provideList$index", "()$LIST_DESCRIPTOR", signature, null).apply {
+          visitAnnotation(PROVIDE_DESCRIPTOR, true).visitEnd()
+          visitCode()
+          visitMethodInsn(INVOKESTATIC, "java/util/Collections", "emptyList", "()$LIST_DESCRIPTOR", false)
+          visitInsn(ARETURN)
+          visitMaxs(0, 0)
+          visitEnd()
+        }
+      }
+    }
+  }
+
+  private fun generateNode(module: Int, index: Int): ByteArray {
+    val level = index % configuration.depth
+    val descriptors = ArrayList<String>()
+    val signatures = ArrayList<String>()
+    var qualifiedParameter = -1
+
+    if (level > 0) {
+      descriptors += getDescriptor(getNodeName(module, index - 1))
+      if (module > 0) {
+        descriptors += getDescriptor(getNodeName(module - 1, index - level))
+      }
+    }
+
+    if (index < configuration.qualifiedKeysPerModule) {
+      qualifiedParameter = descriptors.size
+      descriptors += STRING_DESCRIPTOR
+    }
+
+    signatures += descriptors
+    if (index < configuration.genericKeysPerModule) {
+      descriptors += LIST_DESCRIPTOR
+      signatures += getListSignature(getNodeName(module, index))
+    }
+
+    val descriptor = descriptors.joinToString(separator = "", prefix = "(", postfix = ")V")
+    val signature = signatures.joinToString(separator = "", prefix = "(", postfix = ")V").takeIf { it != descriptor }
+
+    return generateClass(getNodeName(module, index)) { visitor ->
+      visitor.visitAnnotation(PROVIDED_BY_DESCRIPTOR, true).visitTypes(Type.getObjectType(getModuleName(module)))
+      visitor.visitMethod(ACC_PUBLIC, "<init>", descriptor, signature, null).apply {
+        visitAnnotation(INJECT_DESCRIPTOR, true).visitEnd()
+        if (qualifiedParameter >= 0) {
+          visitParameterAnnotation(qualifiedParameter, NAMED_DESCRIPTOR, true).visitValue(getQualifier(module, index))
+        }
+        generateSuperConstructorCall()
+      }
+    }
+  }
+
+  private fun generateContract(contract: Int): ByteArray {
+    val module = contract % configuration.moduleCount
+    val methodCount = minOf(CONTRACT_METHOD_COUNT, configuration.classesPerModule)
+    return generateInterface(getContractName(contract)) { visitor ->
+      visitor.visitAnnotation(CONTRACT_DESCRIPTOR, true).visitEnd()
+      visitor.visitAnnotation(PROVIDED_BY_DESCRIPTOR, true).visitTypes(Type.getObjectType(getModuleName(module)))
+      for (method in 0 until methodCount) {
+        val index = (contract / configuration.moduleCount + method) % configuration.classesPerModule
+        val descriptor = "()" + getDescriptor(getNodeName(module, index))
+        visitor.visitMethod(ACC_PUBLIC or ACC_ABSTRACT, "getNode$method", descriptor, null, null).visitEnd()
+      }
+    }
+  }
+
+  private fun generateFactory(factory: Int): ByteArray {
+    val module = factory % configuration.moduleCount
+    return generateInterface(getFactoryName(factory)) { visitor ->
+      visitor.visitAnnotation(FACTORY_DESCRIPTOR, true).visitEnd()
+      visitor.visitAnnotation(PROVIDED_BY_DESCRIPTOR, true).visitTypes(Type.getObjectType(getModuleName(module)))
+      val descriptor = "($STRING_DESCRIPTOR)" + getDescriptor(getProductName(factory))
+      visitor.visitMethod(ACC_PUBLIC or ACC_ABSTRACT, "create", descriptor, null, null).visitEnd()
+    }
+  }
+
+  private fun generateProduct(factory: Int): ByteArray {
+    val module = factory % configuration.moduleCount
+    val descriptor = "(" + getDescriptor(getNodeName(module, 0)) + STRING_DESCRIPTOR + ")V"
+    return generateClass(getProductName(factory)) { visitor ->
+      visitor.visitMethod(ACC_PUBLIC, "<init>", descriptor, null, null).apply {
+        visitAnnotation(FACTORY_INJECT_DESCRIPTOR, true).visitEnd()
+        visitParameterAnnotation(1, FACTORY_PARAMETER_DESCRIPTOR, true).visitEnd()
+        generateSuperConstructorCall()
+      }
+    }
+  }
+
+  private inline fun generateClass(name: String, body: (ClassVisitor) -> Unit): ByteArray {
+    val writer = ClassWriter(ClassWriter.COMPUTE_MAXS)
+    writer.visit(V1_8, ACC_PUBLIC or ACC_SUPER, name, null, OBJECT, null)
+    body(writer)
+    writer.visitEnd()
+    return writer.toByteArray()
+  }
+
+  private inline fun generateInterface(name: String, body: (ClassVisitor) -> Unit): ByteArray {
+    val writer = ClassWriter(ClassWriter.COMPUTE_MAXS)
+    writer.visit(V1_8, ACC_PUBLIC or ACC_INTERFACE or ACC_ABSTRACT, name, null, OBJECT, null)
+    body(writer)
+    writer.visitEnd()
+    return writer.toByteArray()
+  }
+
+  private fun ClassVisitor.generateDefaultConstructor() {
+    visitMethod(ACC_PUBLIC, "<init>", "()V", null, null).generateSuperConstructorCall()
+  }
+
+  private fun MethodVisitor.generateSuperConstructorCall() {
+    visitCode()
+    visitVarInsn(ALOAD, 0)
+    visitMethodInsn(INVOKESPECIAL, OBJECT, "<init>", "()V", false)
+    visitInsn(RETURN)
+    visitMaxs(0, 0)
+    visitEnd()
+  }
+
+  private fun AnnotationVisitor.visitTypes(vararg types: Type) {
+    val array = visitArray("value")
+    types.forEach { array.visit(null, it) }
+    array.visitEnd()
+    visitEnd()
+  }
+
+  private fun AnnotationVisitor.visitValue(value: String) {
+    visit("value", value)
+    visitEnd()
+  }
+
+  private fun writeClass(directory: Path, name: String, bytes: ByteArray) {
+    val file = directory.resolve("$name.class")
+    Files.createDirectories(file.parent)
+    Files.write(file, bytes)
+  }
+
+  private fun getModuleName(module: Int) = "${PACKAGE}Module$module"
+  private fun getNodeName(module: Int, index: Int) = "${PACKAGE}Node${module}_$index"
+  private fun getContractName(contract: Int) = "${PACKAGE}Contract$contract"
+  private fun getFactoryName(factory: Int) = "${PACKAGE}Factory$factory"
+  private fun getProductName(factory: Int) = "${PACKAGE}Product$factory"
+  private fun getQualifier(module: Int, index: Int) = "Module$module.Qualified$index"
+
+  private fun getDescriptor(internalName: String) = "L$internalName;"
+  private fun getListSignature(elementInternalName: String) = "Ljava/util/List<L$elementInternalName;>;"
+
+  companion object {
+    private const val PACKAGE = "com/joom/lightsaber/synthetic/"
+    private const val COMPONENT = "${PACKAGE}SyntheticComponent"
+    private const val OBJECT = "java/lang/Object"
+    private const val CONTRACT_METHOD_COUNT = 5
+
+    private const val STRING_DESCRIPTOR = "Ljava/lang/String;"
+    private const val LIST_DESCRIPTOR = "Ljava/util/List;"
+
+    private const val COMPONENT_DESCRIPTOR = "Lcom/joom/lightsaber/Component;"
+    private const val CONTRACT_DESCRIPTOR = "Lcom/joom/lightsaber/Contract;"
+    private const val FACTORY_DESCRIPTOR = "Lcom/joom/lightsaber/Factory;"
+    private const val FACTORY_INJECT_DESCRIPTOR = "Lcom/joom/lightsaber/Factory\$Inject;"
+    private const val FACTORY_PARAMETER_DESCRIPTOR = "Lcom/joom/lightsaber/Factory\$Parameter;"
+    private const val IMPORTED_BY_DESCRIPTOR = "Lcom/joom/lightsaber/ImportedBy;"
+    private const val MODULE_DESCRIPTOR = "Lcom/joom/lightsaber/Module;"
+    private const val PROVIDE_DESCRIPTOR = "Lcom/joom/lightsaber/Provide;"
+    private const val PROVIDED_BY_DESCRIPTOR = "Lcom/joom/lightsaber/ProvidedBy;"
+    private const val INJECT_DESCRIPTOR = "Ljavax/inject/Inject;"
+    private const val NAMED_DESCRIPTOR = "Ljavax/inject/Named;"
+  }
+}
@@ -19,15 +19,24 @@ package com.joom.lightsaber
 import com.joom.grip.mirrors.getObjectType
 import com.joom.lightsaber.internal.ContractCreator
 import com.joom.lightsaber.internal.InjectorConfigurator
+import com.joom.lightsaber.internal.KeyIndex
 import com.joom.lightsaber.internal.LightsaberInjector
 import com.joom.lightsaber.internal.MembersInjector
+import com.joom.lightsaber.internal.ProviderFactory
+import com.joom.lightsaber.internal.ReusableProvider
 import com.joom.lightsaber.internal.SingletonProvider
+import com.joom.lightsaber.internal.ThreadScopedProvider
 
 object LightsaberTypes {
   val INJECTOR_CONFIGURATOR_TYPE = getObjectType<InjectorConfigurator>()
+  val SIZED_INJECTOR_CONFIGURATOR_TYPE = getObjectType<InjectorConfigurator.Sized>()
   val MEMBERS_INJECTOR_TYPE = getObjectType<MembersInjector>()
   val LIGHTSABER_INJECTOR_TYPE = getObjectType<LightsaberInjector>()
   val SINGLETON_PROVIDER_TYPE = getObjectType<SingletonProvider<*>>()
+  val REUSABLE_PROVIDER_TYPE = getObjectType<ReusableProvider<*>>()
+  val THREAD_SCOPED_PROVIDER_TYPE = getObjectType<ThreadScopedProvider<*>>()
   val LAZY_ADAPTER_TYPE = getObjectType<LazyAdapter<*>>()
+  val PROVIDER_FACTORY_TYPE = getObjectType<ProviderFactory>()
   val CONTRACT_CREATOR_TYPE = getObjectType<ContractCreator<*>>()
+  val KEY_INDEX_TYPE = getObjectType<KeyIndex>()
 }
@@ -57,21 +57,29 @@ class ClassProcessor(
   private val fileSourcesByInputs = parameters.inputs.associateWith { IoFactory.createFileSource(it) }
 
   fun processClasses() {
-    warmUpGripCaches(grip, parameters.inputs)
-
-    val injectionContext = performAnalysisAndValidation()
-    val providerFactory = ProviderFactoryImpl(grip.fileRegistry, parameters.projectName)
+    val injectionContext = performAnalysis()
+    // Dependency graphs built for validation are reused when modules are patched.
+    val dependencyResolverFactory = DependencyResolverFactory(injectionContext)
+    performValidation(injectionContext, dependencyResolverFactory)
+    val providerFactory = ProviderFactoryImpl(grip.fileRegistry, parameters.projectName, parameters.mergeProviders)
 
     val generationContextFactory = GenerationContextFactory(
       sourceResolver = sourceResolver,
       fileRegistry = grip.fileRegistry,
       classRegistry = grip.classRegistry,
       providerFactory = providerFactory,
-      projectName = parameters.projectName
+      projectName = parameters.projectName,
+      indexProviders = parameters.indexProviders,
+      flattenContracts = parameters.flattenContracts,
+      constantDynamicKeys = parameters.constantDynamicKeys,
+      shardKeyRegistry = parameters.shardKeyRegistry
     )
 
-    val generationContext = generationContextFactory.createGenerationContext(injectionContext)
-    copyAndPatchClasses(injectionContext, generationContext)
+    val generationContext = withPhase(ProcessingPhase.GENERATION) {
+      generationContextFactory.createGenerationContext(injectionContext)
+    }
+
+    copyAndPatchClasses(injectionContext, generationContext, dependencyResolverFactory)
     performGeneration(injectionContext, generationContext)
   }
 
@@ -84,10 +92,11 @@ class ClassProcessor(
     inputsGrip.closeQuietly()
   }
 
-  private fun performAnalysisAndValidation(): InjectionContext {
-    val context = Analyzer(grip, errorReporter, parameters.projectName).analyze(parameters.inputs)
-    val dependencyResolverFactory = DependencyResolverFactory(context)
-    val hintsBuilder = HintsBuilder(grip.classRegistry)
+  private fun performAnalysis(): InjectionContext {
+    val context = withPhase(ProcessingPhase.ANALYSIS) {
+      warmUpGripCaches(grip, parameters.inputs)
+      Analyzer(grip, errorReporter, parameters.projectName).analyze(parameters.inputs)
+    }
 
     if (parameters.dumpDebugReport) {
       FileDumpContext(getOrCreateReportFile()).use { dumpContext ->
@@ -95,24 +104,51 @@ class ClassProcessor(
       }
     }
 
-    Validator(
-      classRegistry = grip.classRegistry,
-      errorReporter = errorReporter,
-      context = context,
-      dependencyResolverFactory = dependencyResolverFactory,
-      hintsBuilder = hintsBuilder,
-      parameters = parameters
-    ).validate()
-
-    if (parameters.validateUsage) {
-      UsageValidator(grip, errorReporter).validateUsage(parameters.modulesClasspath)
+    return context
+  }
+
+  private fun performValidation(context: InjectionContext, dependencyResolverFactory: DependencyResolverFactory) {
+    withPhase(ProcessingPhase.VALIDATION) {
+      val hintsBuilder = HintsBuilder(grip.classRegistry)
+
+      Validator(
+        classRegistry = grip.classRegistry,
+        errorReporter = errorReporter,
+        context = context,
+        dependencyResolverFactory = dependencyResolverFactory,
+        hintsBuilder = hintsBuilder,
+        parameters = parameters
+      ).validate()
+
+      if (parameters.validateUsage) {
+        UsageValidator(grip, errorReporter).validateUsage(parameters.modulesClasspath)
+      }
     }
 
     checkErrors()
-    return context
   }
 
-  private fun copyAndPatchClasses(injectionContext: InjectionContext, generationContext: GenerationContext) {
+  private fun copyAndPatchClasses(
+    injectionContext: InjectionContext,
+    generationContext: GenerationContext,
+    dependencyResolverFactory: DependencyResolverFactory
+  ) {
+    withPhase(ProcessingPhase.PATCHING) {
+      patchClasses(injectionContext, generationContext, dependencyResolverFactory)
+    }
+
+    withPhase(ProcessingPhase.SINK_FLUSH) {
+      fileSourcesByInputs.keys.map { output.getFileSink(it) }.distinct().parallelStream().forEach { it.flush() }
+    }
+
+    checkErrors()
+  }
+
+  private fun patchClasses(
+    injectionContext: InjectionContext,
+    generationContext: GenerationContext,
+    dependencyResolverFactory: DependencyResolverFactory
+  ) {
     fileSourcesByInputs.entries.parallelStream().forEach { (input, fileSource) ->
       val fileSink = output.getFileSink(input)
       logger.debug("Copy from {} to {}", fileSource, fileSink)
@@ -124,7 +160,15 @@ class ClassProcessor(
             val classWriter = StandaloneClassWriter(
               classReader, ClassWriter.COMPUTE_MAXS or ClassWriter.COMPUTE_FRAMES, grip.classRegistry
             )
-            val classVisitor = Patcher(classWriter, grip.classRegistry, injectionContext, generationContext)
+            val classVisitor = Patcher(
+              classWriter,
+              grip.classRegistry,
+              injectionContext,
+              generationContext,
+              dependencyResolverFactory,
+              parameters.parallelEagerInstantiation,
+              parameters.lazyProviders
+            )
             classReader.accept(classVisitor, ClassReader.SKIP_FRAMES)
             fileSink.createFile(path, classWriter.toByteArray())
           }
@@ -133,16 +177,26 @@ class ClassProcessor(
           FileSource.EntryType.DIRECTORY -> fileSink.createDirectory(path)
         }
       }
-
-      fileSink.flush()
     }
-
-    checkErrors()
   }
 
   private fun performGeneration(injectionContext: InjectionContext, generationContext: GenerationContext) {
-    val generator = Generator(grip.classRegistry, errorReporter, output.getGenerationSink(), parameters.projectName)
-    generator.generate(injectionContext, generationContext)
+    val generationSink = output.getGenerationSink()
+    withPhase(ProcessingPhase.GENERATION) {
+      val generator = Generator(
+        classRegistry = grip.classRegistry,
+        errorReporter = errorReporter,
+        fileSink = generationSink,
+        projectName = parameters.projectName,
+        cacheDependencyProviders = parameters.cacheDependencyProviders
+      )
+      generator.generate(injectionContext, generationContext)
+    }
+
+    withPhase(ProcessingPhase.SINK_FLUSH) {
+      generationSink.flush()
+    }
+
     checkErrors()
   }
 
@@ -164,6 +218,15 @@ class ClassProcessor(
     return report
   }
 
+  private inline fun <T> withPhase(phase: ProcessingPhase, action: () -> T): T {
+    parameters.phaseListener?.onPhaseStarted(phase)
+    try {
+      return action()
+    } finally {
+      parameters.phaseListener?.onPhaseFinished(phase)
+    }
+  }
+
   private fun checkErrors() {
     if (errorReporter.hasErrors) {
       throw ProcessingException(errorReporter.errors.joinToString(prefix = "Errors found:\n", separator = "\n"))
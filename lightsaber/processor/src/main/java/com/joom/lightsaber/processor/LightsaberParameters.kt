@@ -29,7 +29,16 @@ data class LightsaberParameters(
   val validateUnusedImports: Boolean,
   val validateUnusedImportsVerbose: Boolean,
   val dumpDebugReport: Boolean,
+  val cacheDependencyProviders: Boolean,
+  val indexProviders: Boolean,
+  val parallelEagerInstantiation: Boolean,
+  val lazyProviders: Boolean,
+  val mergeProviders: Boolean,
+  val flattenContracts: Boolean,
+  val constantDynamicKeys: Boolean,
+  val shardKeyRegistry: Boolean,
   val reportDirectory: Path,
   val sharedBuildCache: LightsaberSharedBuildCache,
   val errorReporter: ErrorReporter = ErrorReporterImpl(),
+  val phaseListener: ProcessingPhaseListener? = null,
 )
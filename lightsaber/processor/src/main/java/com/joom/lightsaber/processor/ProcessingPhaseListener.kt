@@ -0,0 +1,26 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.processor
+
+/**
+ * Receives notifications about [ClassProcessor] phases. A phase may be entered more than once during a single run, so
+ * listeners that measure phases should accumulate their results. All methods are called from the processing thread.
+ */
+interface ProcessingPhaseListener {
+  fun onPhaseStarted(phase: ProcessingPhase)
+  fun onPhaseFinished(phase: ProcessingPhase)
+}
@@ -29,7 +29,7 @@ class Analyzer(
 
   fun analyze(paths: Collection<Path>): InjectionContext {
     val sourceResolver = SourceResolverImpl(grip.fileRegistry, paths)
-    val analyzerHelper = AnalyzerHelperImpl(grip.classRegistry, ScopeRegistry(), errorReporter)
+    val analyzerHelper = AnalyzerHelperImpl(grip.classRegistry, ScopeRegistry(grip.classRegistry, errorReporter), errorReporter)
     val injectionTargetsAnalyzer = InjectionTargetsAnalyzerImpl(grip, analyzerHelper, errorReporter)
     val (injectableTargets, providableTargets) = injectionTargetsAnalyzer.analyze(paths)
     val bindingsAnalyzer = BindingsAnalyzerImpl(grip, analyzerHelper, errorReporter)
@@ -16,15 +16,70 @@
 
 package com.joom.lightsaber.processor.analysis
 
+import com.joom.grip.ClassRegistry
 import com.joom.grip.mirrors.Type
+import com.joom.grip.mirrors.isPublic
 import com.joom.lightsaber.LightsaberTypes
+import com.joom.lightsaber.ScopeProvider
+import com.joom.lightsaber.processor.ErrorReporter
 import com.joom.lightsaber.processor.commons.Types
+import com.joom.lightsaber.processor.commons.toMethodDescriptor
+import com.joom.lightsaber.processor.descriptors.MethodDescriptor
+
+class ScopeRegistry(
+  private val classRegistry: ClassRegistry,
+  private val errorReporter: ErrorReporter
+) {
+
+  private val scopeProvidersByAnnotationTypes = HashMap<Type.Object, Type.Object?>()
 
-class ScopeRegistry {
   fun findScopeProviderByAnnotationType(annotationType: Type.Object): Type.Object? {
     return when (annotationType) {
       Types.SINGLETON_TYPE -> LightsaberTypes.SINGLETON_PROVIDER_TYPE
-      else -> null
+      Types.REUSABLE_TYPE -> LightsaberTypes.REUSABLE_PROVIDER_TYPE
+      Types.THREAD_SCOPED_TYPE -> LightsaberTypes.THREAD_SCOPED_PROVIDER_TYPE
+      else -> findCachedCustomScopeProvider(annotationType)
+    }
+  }
+
+  private fun findCachedCustomScopeProvider(annotationType: Type.Object): Type.Object? {
+    // Annotations that aren't scopes are cached as well, so a null value can't mean a missing entry.
+    if (annotationType in scopeProvidersByAnnotationTypes) {
+      return scopeProvidersByAnnotationTypes[annotationType]
+    }
+
+    return findCustomScopeProvider(annotationType).also { scopeProvidersByAnnotationTypes[annotationType] = it }
+  }
+
+  private fun findCustomScopeProvider(annotationType: Type.Object): Type.Object? {
+    val annotation = classRegistry.getClassMirror(annotationType).annotations[Types.SCOPE_PROVIDER_TYPE] ?: return null
+    val providerType = annotation.values[ScopeProvider::value.name]
+    if (providerType !is Type.Object) {
+      errorReporter.reportError("Scope annotation ${annotationType.className} has a wrong provider $providerType")
+      return null
     }
+
+    val providerMirror = classRegistry.getClassMirror(providerType)
+    if (!providerMirror.isPublic) {
+      errorReporter.reportError("Scope provider ${providerType.className} of ${annotationType.className} must be public")
+      return null
+    }
+
+    val hasDelegateConstructor = providerMirror.methods.any { method ->
+      method.isPublic && method.toMethodDescriptor() == DELEGATE_PROVIDER_CONSTRUCTOR
+    }
+
+    if (!hasDelegateConstructor) {
+      errorReporter.reportError(
+        "Scope provider ${providerType.className} of ${annotationType.className} must have a public constructor that accepts a Provider"
+      )
+      return null
+    }
+
+    return providerType
+  }
+
+  companion object {
+    private val DELEGATE_PROVIDER_CONSTRUCTOR = MethodDescriptor.forConstructor(Types.PROVIDER_TYPE)
   }
 }
@@ -31,6 +31,9 @@ import com.joom.lightsaber.Module
 import com.joom.lightsaber.Provide
 import com.joom.lightsaber.ProvidedAs
 import com.joom.lightsaber.ProvidedBy
+import com.joom.lightsaber.Reusable
+import com.joom.lightsaber.ScopeProvider
+import com.joom.lightsaber.ThreadScoped
 import io.michaelrocks.bimap.BiMap
 import io.michaelrocks.bimap.HashBiMap
 import javax.inject.Inject
@@ -53,7 +56,10 @@ object Types {
   val MODULE_TYPE = getObjectType<Module>()
   val QUALIFIER_TYPE = getObjectType<Qualifier>()
   val SINGLETON_TYPE = getObjectType<Singleton>()
+  val REUSABLE_TYPE = getObjectType<Reusable>()
+  val THREAD_SCOPED_TYPE = getObjectType<ThreadScoped>()
   val EAGER_TYPE = getObjectType<Eager>()
+  val SCOPE_PROVIDER_TYPE = getObjectType<ScopeProvider>()
   val FACTORY_TYPE = getObjectType<Factory>()
   val FACTORY_INJECT_TYPE = getObjectType<Factory.Inject>()
   val FACTORY_PARAMETER_TYPE = getObjectType<Factory.Parameter>()
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.processor.generation
+
+import com.joom.grip.mirrors.Type
+import com.joom.lightsaber.LightsaberTypes
+import com.joom.lightsaber.processor.commons.GeneratorAdapter
+import com.joom.lightsaber.processor.commons.boxed
+import com.joom.lightsaber.processor.commons.Types
+import com.joom.lightsaber.processor.commons.toMethodDescriptor
+import com.joom.lightsaber.processor.descriptors.MethodDescriptor
+import com.joom.lightsaber.processor.generation.model.GenerationContext
+import com.joom.lightsaber.processor.model.Converter
+import com.joom.lightsaber.processor.model.Dependency
+import com.joom.lightsaber.processor.model.Injectee
+import com.joom.lightsaber.processor.model.ProvisionPoint
+import org.objectweb.asm.commons.GeneratorAdapter.EQ
+
+private const val MAX_INLINING_DEPTH = 4
+
+fun Map<Dependency, ProvisionPoint.Constructor>.findInlinedConstructor(injectee: Injectee): ProvisionPoint.Constructor? {
+  return if (injectee.converter == Converter.Instance) get(injectee.dependency.boxed()) else null
+}
+
+// Creates an instance by calling its constructor directly, and the unscoped dependencies of the constructor are
+// created the same way. Everything else is resolved by the injector pushed to the stack by loadInjector. Direct calls
+// bypass interceptors, metrics and tracing, so the injector is asked first and loadDependency is used when it refuses.
+fun GeneratorAdapter.newInlinedInstanceOrLoadDependency(
+  generationContext: GenerationContext,
+  inlinedConstructors: Map<Dependency, ProvisionPoint.Constructor>,
+  constructor: ProvisionPoint.Constructor,
+  loadInjector: GeneratorAdapter.() -> Unit,
+  loadDependency: GeneratorAdapter.() -> Unit
+) {
+  val dependencyLabel = newLabel()
+  val instanceLabel = newLabel()
+  loadInjector()
+  invokeStatic(LightsaberTypes.LIGHTSABER_INJECTOR_TYPE, CAN_INLINE_CONSTRUCTORS_METHOD)
+  ifZCmp(EQ, dependencyLabel)
+  newInlinedInstance(generationContext, inlinedConstructors, constructor, listOf(constructor), loadInjector)
+  goTo(instanceLabel)
+
+  visitLabel(dependencyLabel)
+  loadDependency()
+
+  visitLabel(instanceLabel)
+}
+
+private fun GeneratorAdapter.newInlinedInstance(
+  generationContext: GenerationContext,
+  inlinedConstructors: Map<Dependency, ProvisionPoint.Constructor>,
+  constructor: ProvisionPoint.Constructor,
+  path: List<ProvisionPoint.Constructor>,
+  loadInjector: GeneratorAdapter.() -> Unit
+) {
+  newInstance(constructor.containerType)
+  dup()
+
+  constructor.injectionPoint.injectees.forEach { injectee ->
+    val dependencyConstructor = inlinedConstructors.findInlinedConstructor(injectee)
+    if (dependencyConstructor != null && dependencyConstructor !in path && path.size < MAX_INLINING_DEPTH) {
+      newInlinedInstance(generationContext, inlinedConstructors, dependencyConstructor, path + dependencyConstructor, loadInjector)
+    } else {
+      loadInjector()
+      getDependency(generationContext.keyRegistry, injectee)
+    }
+  }
+
+  invokeConstructor(constructor.containerType, constructor.method.toMethodDescriptor())
+
+  if (constructor.containerType in generationContext.typesWithInjectableMembers) {
+    injectMembers(constructor.containerType, loadInjector)
+  }
+}
+
+private val CAN_INLINE_CONSTRUCTORS_METHOD =
+  MethodDescriptor.forMethod("canInlineConstructors", Type.Primitive.Boolean, Types.INJECTOR_TYPE)
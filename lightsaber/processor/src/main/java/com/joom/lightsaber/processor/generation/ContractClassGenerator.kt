@@ -24,7 +24,7 @@ import com.joom.lightsaber.processor.commons.newMethod
 import com.joom.lightsaber.processor.commons.toMethodDescriptor
 import com.joom.lightsaber.processor.descriptors.FieldDescriptor
 import com.joom.lightsaber.processor.descriptors.MethodDescriptor
-import com.joom.lightsaber.processor.generation.model.KeyRegistry
+import com.joom.lightsaber.processor.generation.model.GenerationContext
 import com.joom.lightsaber.processor.model.Contract
 import com.joom.lightsaber.processor.model.ContractProvisionPoint
 import com.joom.lightsaber.processor.watermark.WatermarkClassVisitor
@@ -38,10 +38,13 @@ import org.objectweb.asm.Opcodes.V1_6
 
 class ContractClassGenerator(
   private val classRegistry: ClassRegistry,
-  private val keyRegistry: KeyRegistry,
+  private val generationContext: GenerationContext,
   private val contract: Contract
 ) {
 
+  private val keyRegistry = generationContext.keyRegistry
+  private val inlinedConstructors = generationContext.findInlinedConstructorsByType(contract.type)
+
   fun generate(): ByteArray {
     val classWriter = StandaloneClassWriter(ClassWriter.COMPUTE_FRAMES or ClassWriter.COMPUTE_MAXS, classRegistry)
     val classVisitor = WatermarkClassVisitor(classWriter, true)
@@ -97,9 +100,24 @@ class ContractClassGenerator(
   }
 
   private fun GeneratorAdapter.newProvisionPoint(provisionPoint: ContractProvisionPoint) {
+    val constructor = inlinedConstructors.findInlinedConstructor(provisionPoint.injectee)
+    if (constructor != null) {
+      newInlinedInstanceOrLoadDependency(generationContext, inlinedConstructors, constructor, { loadInjector() }) {
+        loadDependency(provisionPoint)
+      }
+    } else {
+      loadDependency(provisionPoint)
+    }
+  }
+
+  private fun GeneratorAdapter.loadDependency(provisionPoint: ContractProvisionPoint) {
+    loadInjector()
+    getDependency(keyRegistry, provisionPoint.injectee)
+  }
+
+  private fun GeneratorAdapter.loadInjector() {
     loadThis()
     getField(contract.implementationType, INJECTOR_FIELD)
-    getDependency(keyRegistry, provisionPoint.injectee)
   }
 
   companion object {
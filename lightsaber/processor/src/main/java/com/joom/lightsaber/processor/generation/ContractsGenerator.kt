@@ -30,7 +30,7 @@ class ContractsGenerator(
   fun generate(generationContext: GenerationContext) {
     generationContext.contracts.forEach { contract ->
       logger.debug("Generating contract {}", contract.implementationType.className)
-      val generator = ContractClassGenerator(classRegistry, generationContext.keyRegistry, contract)
+      val generator = ContractClassGenerator(classRegistry, generationContext, contract)
       val contractClassData = generator.generate()
       classProducer.produceClass(contract.implementationType.internalName, contractClassData)
     }
@@ -19,7 +19,6 @@ package com.joom.lightsaber.processor.generation
 import com.joom.grip.ClassRegistry
 import com.joom.grip.mirrors.ClassMirror
 import com.joom.grip.mirrors.MethodMirror
-import com.joom.grip.mirrors.Type
 import com.joom.grip.mirrors.signature.GenericType
 import com.joom.lightsaber.processor.commons.GeneratorAdapter
 import com.joom.lightsaber.processor.commons.StandaloneClassWriter
@@ -175,7 +174,10 @@ class FactoryClassGenerator(
     }
 
     injectionContext.findInjectableTargetByType(dependencyType)?.also {
-      injectMembers()
+      injectMembers(dependencyType) {
+        loadThis()
+        getField(factory.implementationType, INJECTOR_FIELD)
+      }
     }
   }
 
@@ -196,19 +198,8 @@ class FactoryClassGenerator(
     loadArg(injectee.argumentIndex)
   }
 
-  private fun GeneratorAdapter.injectMembers() {
-    dup()
-    loadThis()
-    getField(factory.implementationType, INJECTOR_FIELD)
-    swap()
-    invokeInterface(Types.INJECTOR_TYPE, INJECT_MEMBERS_METHOD)
-  }
-
   companion object {
     private val INJECTOR_FIELD = FieldDescriptor("injector", Types.INJECTOR_TYPE)
     private val CONSTRUCTOR = MethodDescriptor.forConstructor(Types.INJECTOR_TYPE)
-
-    private val INJECT_MEMBERS_METHOD =
-      MethodDescriptor.forMethod("injectMembers", Type.Primitive.Void, Types.OBJECT_TYPE)
   }
 }
@@ -23,12 +23,14 @@ import com.joom.grip.mirrors.getObjectTypeByInternalName
 import com.joom.grip.mirrors.isPublic
 import com.joom.grip.mirrors.packageName
 import com.joom.grip.mirrors.signature.GenericType
+import com.joom.lightsaber.LightsaberTypes
 import com.joom.lightsaber.processor.analysis.SourceResolver
 import com.joom.lightsaber.processor.commons.Types
 import com.joom.lightsaber.processor.commons.associateByIndexedNotNullTo
 import com.joom.lightsaber.processor.commons.associateByIndexedTo
 import com.joom.lightsaber.processor.commons.boxed
 import com.joom.lightsaber.processor.commons.getInjectees
+import com.joom.lightsaber.processor.commons.rawType
 import com.joom.lightsaber.processor.descriptors.FieldDescriptor
 import com.joom.lightsaber.processor.generation.model.GenerationContext
 import com.joom.lightsaber.processor.generation.model.Key
@@ -41,13 +43,19 @@ import com.joom.lightsaber.processor.model.Dependency
 import com.joom.lightsaber.processor.model.Import
 import com.joom.lightsaber.processor.model.InjectionContext
 import com.joom.lightsaber.processor.model.Module
+import com.joom.lightsaber.processor.model.ProvisionPoint
+import com.joom.lightsaber.processor.model.Scope
 
 class GenerationContextFactory(
   private val sourceResolver: SourceResolver,
   private val fileRegistry: FileRegistry,
   private val classRegistry: ClassRegistry,
   private val providerFactory: ProviderFactory,
-  private val projectName: String
+  private val projectName: String,
+  private val indexProviders: Boolean,
+  private val flattenContracts: Boolean,
+  private val constantDynamicKeys: Boolean,
+  private val shardKeyRegistry: Boolean
 ) {
 
   fun createGenerationContext(injectionContext: InjectionContext): GenerationContext {
@@ -57,13 +65,17 @@ class GenerationContextFactory(
     val currentInputFactories = injectionContext.factories.filter { sourceResolver.belongsToCurrentInput(it.type) }
 
     val dependencies = findAllDependencies(modules)
+    val providersByModuleType = groupProvidersByModuleType(currentInputModules)
     return GenerationContext(
-      providersByModuleType = groupProvidersByModuleType(currentInputModules),
+      providersByModuleType = providersByModuleType,
       providersByContractType = groupProvidersByContractType(contractImports),
       packageInvaders = composePackageInvaders(dependencies),
       contracts = groupContracts(currentInputModules),
       factories = currentInputFactories,
-      keyRegistry = composeKeyRegistry(dependencies)
+      keyRegistry = composeKeyRegistry(dependencies),
+      typesWithInjectableMembers = findTypesWithInjectableMembers(injectionContext, modules),
+      inlinedConstructorsByType =
+        if (flattenContracts) composeInlinedConstructors(injectionContext, modules, contractImports, providersByModuleType) else emptyMap()
     )
   }
 
@@ -91,6 +103,33 @@ class GenerationContextFactory(
     }
   }
 
+  private fun findTypesWithInjectableMembers(injectionContext: InjectionContext, modules: Sequence<Module>): Set<Type.Object> {
+    return modules
+      .flatMap { it.provisionPoints.asSequence() }
+      .filterIsInstance<ProvisionPoint.Constructor>()
+      .map { it.containerType }
+      .filterTo(HashSet()) { hasInjectableMembers(injectionContext, it) }
+  }
+
+  // Classes from the classpath are already patched, so they implement MembersInjector if they have injectable members.
+  private tailrec fun hasInjectableMembers(injectionContext: InjectionContext, type: Type.Object): Boolean {
+    if (injectionContext.findInjectableTargetByType(type) != null) {
+      return true
+    }
+
+    val mirror = classRegistry.getClassMirror(type)
+    if (LightsaberTypes.MEMBERS_INJECTOR_TYPE in mirror.interfaces) {
+      return true
+    }
+
+    val superType = mirror.superType
+    if (superType == null || superType == Types.OBJECT_TYPE) {
+      return false
+    }
+
+    return hasInjectableMembers(injectionContext, superType)
+  }
+
   private fun groupProvidersByModuleType(modules: Sequence<Module>): Map<Type.Object, Collection<Provider>> {
     return modules
       .distinctBy { it.type }
@@ -181,6 +220,91 @@ class GenerationContextFactory(
     }
   }
 
+  // A contract configuration creates an injector without a parent, so its whole graph is known here. A generated class
+  // runs in every injector its module is installed in, and a module annotated with @Module may be installed anywhere,
+  // so constructors are called directly only by providers and contracts of a single contract configuration.
+  private fun composeInlinedConstructors(
+    injectionContext: InjectionContext,
+    modules: Sequence<Module>,
+    contractImports: Sequence<Import.Contract>,
+    providersByModuleType: Map<Type.Object, Collection<Provider>>
+  ): Map<Type.Object, Map<Dependency, ProvisionPoint.Constructor>> {
+    val constructors = findInlinableConstructors(modules, contractImports)
+    if (constructors.isEmpty()) {
+      return emptyMap()
+    }
+
+    val sharedModuleTypes = HashSet<Type.Object>()
+    injectionContext.components.forEach { component ->
+      component.getModulesWithDescendants().mapTo(sharedModuleTypes) { it.type }
+    }
+    injectionContext.modules.forEach { module ->
+      module.getModulesWithDescendants().mapTo(sharedModuleTypes) { it.type }
+    }
+
+    val configurationModules = injectionContext.contractConfigurations.map { configuration ->
+      configuration.getModulesWithDescendants().distinctBy { it.type }.toList()
+    }
+    val configurationCountsByModuleType = configurationModules.flatten().groupingBy { it.type }.eachCount()
+    val moduleCountsByContractType = modules.flatMap { it.contracts.asSequence() }.groupingBy { it.type }.eachCount()
+
+    val inlinedConstructorsByType = HashMap<Type.Object, Map<Dependency, ProvisionPoint.Constructor>>()
+    configurationModules.forEach { modulesOfConfiguration ->
+      val configurationConstructors = modulesOfConfiguration
+        .flatMap { it.provisionPoints }
+        .filterIsInstance<ProvisionPoint.Constructor>()
+        .toSet()
+      val inlinedConstructors = constructors.filterValues { it in configurationConstructors }
+      if (inlinedConstructors.isEmpty()) {
+        return@forEach
+      }
+
+      modulesOfConfiguration
+        .filter { it.type !in sharedModuleTypes && configurationCountsByModuleType[it.type] == 1 }
+        .forEach { module ->
+          providersByModuleType[module.type]?.forEach { inlinedConstructorsByType[it.type] = inlinedConstructors }
+          module.contracts
+            .filter { moduleCountsByContractType[it.type] == 1 }
+            .forEach { inlinedConstructorsByType[it.type] = inlinedConstructors }
+        }
+    }
+    return inlinedConstructorsByType
+  }
+
+  // A constructor can be called in place of the injector only when it's the single way to provide the dependency
+  // in the whole graph, otherwise a binding of some other component might be bypassed.
+  private fun findInlinableConstructors(
+    modules: Sequence<Module>,
+    contractImports: Sequence<Import.Contract>
+  ): Map<Dependency, ProvisionPoint.Constructor> {
+    val constructors = HashMap<Dependency, ProvisionPoint.Constructor>()
+    val dependencies = HashSet<Dependency>()
+    modules.forEach { module ->
+      module.provisionPoints.forEach { provisionPoint ->
+        if (provisionPoint is ProvisionPoint.Constructor) {
+          constructors[provisionPoint.dependency.boxed()] = provisionPoint
+        } else {
+          dependencies += provisionPoint.dependency.boxed()
+        }
+      }
+      module.bindings.forEach { dependencies += it.ancestor.boxed() }
+      module.factories.forEach { dependencies += it.dependency.boxed() }
+      module.contracts.forEach { dependencies += it.dependency.boxed() }
+    }
+
+    contractImports.forEach { import ->
+      import.contract.provisionPoints.forEach { dependencies += it.injectee.dependency.boxed() }
+    }
+
+    return constructors.filter { (dependency, provisionPoint) ->
+      dependency !in dependencies && provisionPoint.scope == Scope.None && isPublicConstructor(provisionPoint)
+    }
+  }
+
+  private fun isPublicConstructor(provisionPoint: ProvisionPoint.Constructor): Boolean {
+    return provisionPoint.method.isPublic && classRegistry.getClassMirror(provisionPoint.containerType).isPublic
+  }
+
   private fun composeKeyRegistry(dependencies: Collection<Dependency>): KeyRegistry {
     val type = createUniqueObjectTypeByInternalName("com/joom/lightsaber/KeyRegistry\$$projectName")
     val keys = dependencies.associateByIndexedNotNullTo(
@@ -188,7 +312,56 @@ class GenerationContextFactory(
       { _, dependency -> dependency.boxed() },
       { index, dependency -> maybeComposeKey("key$index", dependency) }
     )
-    return KeyRegistry(type, keys)
+    val indices = if (indexProviders) composeKeyIndices(dependencies) else emptyMap()
+    val shardTypes = if (shardKeyRegistry) composeKeyRegistryShards(type, dependencies, keys, indices) else emptyMap()
+    return KeyRegistry(type, keys, indices, constantDynamicKeys, shardTypes)
+  }
+
+  // Each shard is initialized on its first use, so keys are grouped by the package of the dependency type to keep related
+  // keys together. A key is shared by all modules that consume the dependency, so grouping by the consuming module would
+  // either put a key into several shards or make the shard depend on the order modules are processed in. The registry
+  // type is already unique, so shards are named after it.
+  private fun composeKeyRegistryShards(
+    registryType: Type.Object,
+    dependencies: Collection<Dependency>,
+    keys: Map<Dependency, Key>,
+    indices: Map<Dependency, FieldDescriptor>
+  ): Map<FieldDescriptor, Type.Object> {
+    val shardTypes = HashMap<FieldDescriptor, Type.Object>()
+    dependencies
+      .map { it.boxed() }
+      .distinct()
+      .filter { it in keys || it in indices }
+      .groupBy { extractDependencyPackageName(it) }
+      .values
+      .flatMap { it.chunked(MAX_KEY_REGISTRY_SHARD_SIZE) }
+      .forEachIndexed { index, shardDependencies ->
+        val shardType = getObjectTypeByInternalName("${registryType.internalName}\$Shard$index")
+        shardDependencies.forEach { dependency ->
+          keys[dependency]?.let { shardTypes[it.field] = shardType }
+          indices[dependency]?.let { shardTypes[it] = shardType }
+        }
+      }
+    return shardTypes
+  }
+
+  private fun extractDependencyPackageName(dependency: Dependency): String {
+    return when (val type = dependency.type.rawType) {
+      is Type.Object -> type.packageName
+      is Type.Array -> (type.elementType as? Type.Object)?.packageName.orEmpty()
+      else -> ""
+    }
+  }
+
+  private fun composeKeyIndices(dependencies: Collection<Dependency>): Map<Dependency, FieldDescriptor> {
+    return dependencies
+      .map { it.boxed() }
+      .distinct()
+      .associateByIndexedTo(
+        LinkedHashMap(),
+        { _, dependency -> dependency },
+        { index, _ -> FieldDescriptor("index$index", Type.Primitive.Int) }
+      )
   }
 
   private fun maybeComposeKey(name: String, dependency: Dependency): Key? {
@@ -208,4 +381,8 @@ class GenerationContextFactory(
     val type = getObjectTypeByInternalName(internalName + index)
     return if (type !in fileRegistry) type else createUniqueObjectTypeByInternalName(internalName, index + 1)
   }
+
+  companion object {
+    private const val MAX_KEY_REGISTRY_SHARD_SIZE = 256
+  }
 }
@@ -28,6 +28,7 @@ class Generator(
   private val errorReporter: ErrorReporter,
   private val fileSink: FileSink,
   private val projectName: String,
+  private val cacheDependencyProviders: Boolean,
 ) {
 
   private val classProducer = ProcessorClassProducer(fileSink, errorReporter)
@@ -39,12 +40,10 @@ class Generator(
     generateContracts(generationContext)
     generatePackageInvaders(generationContext)
     generateKeyRegistry(generationContext)
-
-    fileSink.flush()
   }
 
   private fun generateProviders(generationContext: GenerationContext) {
-    val generator = ProvidersGenerator(classProducer, classRegistry)
+    val generator = ProvidersGenerator(classProducer, classRegistry, cacheDependencyProviders)
     generator.generate(generationContext)
   }
 
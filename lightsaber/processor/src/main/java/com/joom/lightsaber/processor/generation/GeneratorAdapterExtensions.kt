@@ -17,12 +17,15 @@
 package com.joom.lightsaber.processor.generation
 
 import com.joom.grip.mirrors.Type
+import com.joom.grip.mirrors.isPrimitive
 import com.joom.grip.mirrors.signature.GenericType
 import com.joom.lightsaber.LightsaberTypes
 import com.joom.lightsaber.processor.commons.GeneratorAdapter
+import com.joom.lightsaber.processor.commons.Methods.GET_METHOD
 import com.joom.lightsaber.processor.commons.Types
 import com.joom.lightsaber.processor.commons.boxed
 import com.joom.lightsaber.processor.commons.rawType
+import com.joom.lightsaber.processor.descriptors.FieldDescriptor
 import com.joom.lightsaber.processor.descriptors.MethodDescriptor
 import com.joom.lightsaber.processor.generation.model.Key
 import com.joom.lightsaber.processor.generation.model.KeyRegistry
@@ -56,8 +59,38 @@ private val REGISTER_PROVIDER_FOR_TYPE_METHOD =
 private val REGISTER_PROVIDER_FOR_KEY_METHOD =
   MethodDescriptor.forMethod("registerProvider", Type.Primitive.Void, Types.KEY_TYPE, Types.PROVIDER_TYPE)
 
+private val REGISTER_CUSTOM_SCOPED_PROVIDER_FOR_CLASS_METHOD =
+  MethodDescriptor.forMethod("registerCustomScopedProvider", Type.Primitive.Void, Types.CLASS_TYPE, Types.PROVIDER_TYPE)
+private val REGISTER_CUSTOM_SCOPED_PROVIDER_FOR_TYPE_METHOD =
+  MethodDescriptor.forMethod("registerCustomScopedProvider", Type.Primitive.Void, Types.TYPE_TYPE, Types.PROVIDER_TYPE)
+private val REGISTER_CUSTOM_SCOPED_PROVIDER_FOR_KEY_METHOD =
+  MethodDescriptor.forMethod("registerCustomScopedProvider", Type.Primitive.Void, Types.KEY_TYPE, Types.PROVIDER_TYPE)
+private val REGISTER_CUSTOM_SCOPED_PROVIDER_FOR_INDEX_METHOD =
+  MethodDescriptor.forMethod("registerCustomScopedProvider", Type.Primitive.Void, Type.Primitive.Int, Types.PROVIDER_TYPE)
+
+private val REGISTER_LAZY_PROVIDER_FOR_CLASS_METHOD = createRegisterLazyProviderMethod(Types.CLASS_TYPE)
+private val REGISTER_LAZY_PROVIDER_FOR_TYPE_METHOD = createRegisterLazyProviderMethod(Types.TYPE_TYPE)
+private val REGISTER_LAZY_PROVIDER_FOR_KEY_METHOD = createRegisterLazyProviderMethod(Types.KEY_TYPE)
+private val REGISTER_LAZY_PROVIDER_FOR_INDEX_METHOD = createRegisterLazyProviderMethod(Type.Primitive.Int)
+
+private val BUILT_IN_SCOPE_PROVIDER_TYPES = setOf(
+  LightsaberTypes.SINGLETON_PROVIDER_TYPE,
+  LightsaberTypes.REUSABLE_PROVIDER_TYPE,
+  LightsaberTypes.THREAD_SCOPED_PROVIDER_TYPE
+)
+
+private val GET_INDEXED_PROVIDER_METHOD =
+  MethodDescriptor.forMethod("getIndexedProvider", Types.PROVIDER_TYPE, Types.INJECTOR_TYPE, Type.Primitive.Int)
+private val REGISTER_PROVIDER_FOR_INDEX_METHOD =
+  MethodDescriptor.forMethod("registerProvider", Type.Primitive.Void, Type.Primitive.Int, Types.PROVIDER_TYPE)
+
 private val DELEGATE_PROVIDER_CONSTRUCTOR = MethodDescriptor.forConstructor(Types.PROVIDER_TYPE)
 
+private val INJECT_FIELDS_METHOD =
+  MethodDescriptor.forMethod("injectFields", Type.Primitive.Void, Types.INJECTOR_TYPE)
+private val INJECT_METHODS_METHOD =
+  MethodDescriptor.forMethod("injectMethods", Type.Primitive.Void, Types.INJECTOR_TYPE)
+
 fun GeneratorAdapter.getDependency(keyRegistry: KeyRegistry, injectee: Injectee) {
   when (injectee.converter) {
     is Converter.Identity -> {
@@ -65,23 +98,65 @@ fun GeneratorAdapter.getDependency(keyRegistry: KeyRegistry, injectee: Injectee)
     }
 
     is Converter.Instance -> {
-      if (injectee.dependency.type.rawType != Types.INJECTOR_TYPE || injectee.dependency.qualifier != null) {
-        getInstance(keyRegistry, injectee.dependency)
-        unbox(injectee.dependency.type.rawType)
+      if (injectee.isResolvedByInjector) {
+        val type = injectee.dependency.type.rawType
+        if (type.isPrimitive) {
+          getProvider(keyRegistry, injectee.dependency)
+          getValueFromProvider(type)
+        } else {
+          getInstance(keyRegistry, injectee.dependency)
+          unbox(type)
+        }
       }
     }
 
     is Converter.Adapter -> {
       getProvider(keyRegistry, injectee.dependency)
-      newInstance(injectee.converter.adapterType)
-      dupX1()
-      swap()
-      invokeConstructor(injectee.converter.adapterType, ADAPTER_CONSTRUCTOR)
+      adaptProvider(injectee.converter)
+    }
+  }
+}
+
+fun GeneratorAdapter.convertProvider(injectee: Injectee) {
+  when (injectee.converter) {
+    is Converter.Identity -> Unit
+
+    is Converter.Instance -> {
+      getValueFromProvider(injectee.dependency.type.rawType)
+    }
+
+    is Converter.Adapter -> {
+      adaptProvider(injectee.converter)
     }
   }
 }
 
+private fun GeneratorAdapter.adaptProvider(converter: Converter.Adapter) {
+  newInstance(converter.adapterType)
+  dupX1()
+  swap()
+  invokeConstructor(converter.adapterType, ADAPTER_CONSTRUCTOR)
+}
+
+// Expects an instance of the type on the stack and keeps it there. The type has to have injectable members, so it
+// implements MembersInjector once patched and the methods can be invoked without a type check.
+fun GeneratorAdapter.injectMembers(type: Type.Object, loadInjector: GeneratorAdapter.() -> Unit) {
+  dup()
+  loadInjector()
+  invokeVirtual(type, INJECT_FIELDS_METHOD)
+  dup()
+  loadInjector()
+  invokeVirtual(type, INJECT_METHODS_METHOD)
+}
+
+val Injectee.isResolvedByInjector: Boolean
+  get() = converter != Converter.Instance || dependency.type.rawType != Types.INJECTOR_TYPE || dependency.qualifier != null
+
 fun GeneratorAdapter.getProvider(keyRegistry: KeyRegistry, dependency: Dependency) {
+  if (getProviderByIndex(keyRegistry, dependency)) {
+    return
+  }
+
   val key = pushTypeOrKey(keyRegistry, dependency)
 
   when (key) {
@@ -92,6 +167,11 @@ fun GeneratorAdapter.getProvider(keyRegistry: KeyRegistry, dependency: Dependenc
 }
 
 fun GeneratorAdapter.getInstance(keyRegistry: KeyRegistry, dependency: Dependency) {
+  if (getProviderByIndex(keyRegistry, dependency)) {
+    invokeInterface(Types.PROVIDER_TYPE, GET_METHOD)
+    return
+  }
+
   val key = pushTypeOrKey(keyRegistry, dependency)
 
   when (key) {
@@ -102,18 +182,97 @@ fun GeneratorAdapter.getInstance(keyRegistry: KeyRegistry, dependency: Dependenc
 }
 
 fun GeneratorAdapter.registerProvider(keyRegistry: KeyRegistry, provider: Provider, providerCreator: () -> Unit) {
+  registerProvider(keyRegistry, provider.dependency, provider.isCustomScoped) {
+    newScopedProvider(provider, providerCreator)
+  }
+}
+
+// Providers created by custom scopes are registered separately, so the injector knows that they may return cached instances
+// without inspecting their classes.
+fun GeneratorAdapter.registerProvider(
+  keyRegistry: KeyRegistry,
+  dependency: Dependency,
+  isCustomScoped: Boolean,
+  providerCreator: () -> Unit
+) {
+  val index = keyRegistry.indices[dependency.boxed()]
+  if (index != null) {
+    getKeyRegistryValue(keyRegistry, index)
+    providerCreator()
+    invokeVirtual(
+      LightsaberTypes.LIGHTSABER_INJECTOR_TYPE,
+      if (isCustomScoped) REGISTER_CUSTOM_SCOPED_PROVIDER_FOR_INDEX_METHOD else REGISTER_PROVIDER_FOR_INDEX_METHOD
+    )
+    return
+  }
+
+  val key = pushTypeOrKey(keyRegistry, dependency)
+  providerCreator()
+
+  val method = when (key) {
+    null -> if (isCustomScoped) REGISTER_CUSTOM_SCOPED_PROVIDER_FOR_CLASS_METHOD else REGISTER_PROVIDER_FOR_CLASS_METHOD
+    is Key.Type -> if (isCustomScoped) REGISTER_CUSTOM_SCOPED_PROVIDER_FOR_TYPE_METHOD else REGISTER_PROVIDER_FOR_TYPE_METHOD
+    is Key.QualifiedType -> if (isCustomScoped) REGISTER_CUSTOM_SCOPED_PROVIDER_FOR_KEY_METHOD else REGISTER_PROVIDER_FOR_KEY_METHOD
+  }
+  invokeVirtual(LightsaberTypes.LIGHTSABER_INJECTOR_TYPE, method)
+}
+
+// The provider is created by the factory when it's requested for the first time, so the injector only records the factory
+// and the identifier of the provider.
+fun GeneratorAdapter.registerLazyProvider(keyRegistry: KeyRegistry, provider: Provider, id: Int, loadFactory: () -> Unit) {
+  val index = keyRegistry.indices[provider.dependency.boxed()]
+  if (index != null) {
+    getKeyRegistryValue(keyRegistry, index)
+    pushLazyProviderArguments(provider, id, loadFactory)
+    invokeVirtual(LightsaberTypes.LIGHTSABER_INJECTOR_TYPE, REGISTER_LAZY_PROVIDER_FOR_INDEX_METHOD)
+    return
+  }
+
   val key = pushTypeOrKey(keyRegistry, provider.dependency)
+  pushLazyProviderArguments(provider, id, loadFactory)
+
+  when (key) {
+    null -> invokeVirtual(LightsaberTypes.LIGHTSABER_INJECTOR_TYPE, REGISTER_LAZY_PROVIDER_FOR_CLASS_METHOD)
+    is Key.Type -> invokeVirtual(LightsaberTypes.LIGHTSABER_INJECTOR_TYPE, REGISTER_LAZY_PROVIDER_FOR_TYPE_METHOD)
+    is Key.QualifiedType -> invokeVirtual(LightsaberTypes.LIGHTSABER_INJECTOR_TYPE, REGISTER_LAZY_PROVIDER_FOR_KEY_METHOD)
+  }
+}
+
+private fun GeneratorAdapter.pushLazyProviderArguments(provider: Provider, id: Int, loadFactory: () -> Unit) {
+  loadFactory()
+  push(id)
+  push(provider.isCustomScoped)
+}
+
+private fun createRegisterLazyProviderMethod(keyType: Type): MethodDescriptor {
+  return MethodDescriptor.forMethod(
+    "registerLazyProvider",
+    Type.Primitive.Void,
+    keyType,
+    LightsaberTypes.PROVIDER_FACTORY_TYPE,
+    Type.Primitive.Int,
+    Type.Primitive.Boolean
+  )
+}
+
+val Provider.isCustomScoped: Boolean
+  get() {
+    val scope = scope
+    return scope is Scope.Class && scope.scopeType !in BUILT_IN_SCOPE_PROVIDER_TYPES
+  }
 
+fun GeneratorAdapter.newScopedProvider(provider: Provider, providerCreator: () -> Unit) {
   when (val scope = provider.scope) {
     is Scope.Class -> newDelegator(scope.scopeType, providerCreator)
     is Scope.None -> providerCreator()
   }
+}
 
-  when (key) {
-    null -> invokeVirtual(LightsaberTypes.LIGHTSABER_INJECTOR_TYPE, REGISTER_PROVIDER_FOR_CLASS_METHOD)
-    is Key.Type -> invokeVirtual(LightsaberTypes.LIGHTSABER_INJECTOR_TYPE, REGISTER_PROVIDER_FOR_TYPE_METHOD)
-    is Key.QualifiedType -> invokeVirtual(LightsaberTypes.LIGHTSABER_INJECTOR_TYPE, REGISTER_PROVIDER_FOR_KEY_METHOD)
-  }
+private fun GeneratorAdapter.getProviderByIndex(keyRegistry: KeyRegistry, dependency: Dependency): Boolean {
+  val index = keyRegistry.indices[dependency.boxed()] ?: return false
+  getKeyRegistryValue(keyRegistry, index)
+  invokeStatic(LightsaberTypes.LIGHTSABER_INJECTOR_TYPE, GET_INDEXED_PROVIDER_METHOD)
+  return true
 }
 
 private fun GeneratorAdapter.newDelegator(scopeType: Type, providerCreator: () -> Unit) {
@@ -123,16 +282,26 @@ private fun GeneratorAdapter.newDelegator(scopeType: Type, providerCreator: () -
   invokeConstructor(scopeType, DELEGATE_PROVIDER_CONSTRUCTOR)
 }
 
-private fun GeneratorAdapter.pushTypeOrKey(keyRegistry: KeyRegistry, dependency: Dependency): Key? {
+fun GeneratorAdapter.pushTypeOrKey(keyRegistry: KeyRegistry, dependency: Dependency): Key? {
   val key = keyRegistry.keys[dependency.boxed()]
   if (key == null) {
     push(dependency.type)
   } else {
-    getStatic(keyRegistry.type, key.field)
+    getKeyRegistryValue(keyRegistry, key.field)
   }
   return key
 }
 
+// Values of a constant dynamic registry are resolved on first use by accessor methods instead of a static initializer.
+fun GeneratorAdapter.getKeyRegistryValue(keyRegistry: KeyRegistry, field: FieldDescriptor) {
+  val ownerType = keyRegistry.getOwnerType(field)
+  if (keyRegistry.isConstantDynamic) {
+    invokeStatic(ownerType, MethodDescriptor.forMethod(field.name, field.type))
+  } else {
+    getStatic(ownerType, field)
+  }
+}
+
 private fun GeneratorAdapter.push(type: GenericType) {
   when (type) {
     is GenericType.Raw -> push(type.type.boxed())
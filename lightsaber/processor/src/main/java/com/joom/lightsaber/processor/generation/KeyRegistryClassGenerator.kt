@@ -21,6 +21,7 @@ import com.joom.grip.mirrors.Type
 import com.joom.grip.mirrors.getObjectType
 import com.joom.grip.mirrors.signature.GenericType
 import com.joom.grip.mirrors.toArrayType
+import com.joom.lightsaber.LightsaberTypes
 import com.joom.lightsaber.internal.GenericArrayTypeImpl
 import com.joom.lightsaber.internal.ParameterizedTypeImpl
 import com.joom.lightsaber.internal.WildcardTypeImpl
@@ -30,6 +31,8 @@ import com.joom.lightsaber.processor.commons.StandaloneClassWriter
 import com.joom.lightsaber.processor.commons.Types
 import com.joom.lightsaber.processor.commons.boxed
 import com.joom.lightsaber.processor.commons.newDefaultConstructor
+import com.joom.lightsaber.processor.commons.newMethod
+import com.joom.lightsaber.processor.descriptors.FieldDescriptor
 import com.joom.lightsaber.processor.descriptors.MethodDescriptor
 import com.joom.lightsaber.processor.descriptors.descriptor
 import com.joom.lightsaber.processor.generation.model.GenerationContext
@@ -39,13 +42,23 @@ import com.joom.lightsaber.processor.model.Dependency
 import com.joom.lightsaber.processor.watermark.WatermarkClassVisitor
 import org.objectweb.asm.ClassVisitor
 import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.ConstantDynamic
+import org.objectweb.asm.Handle
 import org.objectweb.asm.Opcodes.ACC_FINAL
+import org.objectweb.asm.Opcodes.ACC_PRIVATE
 import org.objectweb.asm.Opcodes.ACC_PUBLIC
 import org.objectweb.asm.Opcodes.ACC_STATIC
 import org.objectweb.asm.Opcodes.ACC_SUPER
+import org.objectweb.asm.Opcodes.H_INVOKESTATIC
+import org.objectweb.asm.Opcodes.V11
 import org.objectweb.asm.Opcodes.V1_6
+import java.lang.invoke.MethodHandles
 
 private val KEY_CONSTRUCTOR = MethodDescriptor.forConstructor(Types.TYPE_TYPE, Types.ANNOTATION_TYPE)
+private val KEY_INTERN_METHOD = MethodDescriptor.forMethod("intern", Types.KEY_TYPE)
+private val GET_INDEX_METHOD = MethodDescriptor.forMethod("getIndex", Type.Primitive.Int, Types.OBJECT_TYPE)
+
+private val LOOKUP_TYPE = getObjectType<MethodHandles.Lookup>()
 
 private val PARAMETERIZED_TYPE_IMPL_TYPE = getObjectType<ParameterizedTypeImpl>()
 private val GENERIC_ARRAY_TYPE_IMPL_TYPE = getObjectType<GenericArrayTypeImpl>()
@@ -68,28 +81,38 @@ class KeyRegistryClassGenerator(
   private val keyRegistry = generationContext.keyRegistry
 
   fun generate() {
+    keyRegistry.types.forEach { generateKeyRegistryClass(it) }
+  }
+
+  private fun generateKeyRegistryClass(registryType: Type.Object) {
     val classWriter = StandaloneClassWriter(ClassWriter.COMPUTE_FRAMES or ClassWriter.COMPUTE_MAXS, classRegistry)
     val classVisitor = WatermarkClassVisitor(classWriter, true)
     classVisitor.visit(
-      V1_6,
+      if (keyRegistry.isConstantDynamic) V11 else V1_6,
       ACC_PUBLIC or ACC_SUPER,
-      keyRegistry.type.internalName,
+      registryType.internalName,
       null,
       Types.OBJECT_TYPE.internalName,
       null
     )
 
-    generateFields(classVisitor)
-    generateStaticInitializer(classVisitor)
+    val keys = keyRegistry.keys.filterValues { keyRegistry.getOwnerType(it.field) == registryType }
+    val indices = keyRegistry.indices.filterValues { keyRegistry.getOwnerType(it) == registryType }
+    if (keyRegistry.isConstantDynamic) {
+      generateConstantDynamicAccessors(classVisitor, registryType, keys, indices)
+    } else {
+      generateFields(classVisitor, keys, indices)
+      generateStaticInitializer(classVisitor, registryType, keys, indices)
+    }
     classVisitor.newDefaultConstructor()
 
     classVisitor.visitEnd()
     val classBytes = classWriter.toByteArray()
-    classProducer.produceClass(keyRegistry.type.internalName, classBytes)
+    classProducer.produceClass(registryType.internalName, classBytes)
   }
 
-  private fun generateFields(classVisitor: ClassVisitor) {
-    for (key in keyRegistry.keys.values) {
+  private fun generateFields(classVisitor: ClassVisitor, keys: Map<Dependency, Key>, indices: Map<Dependency, FieldDescriptor>) {
+    for (key in keys.values) {
       val field = key.field
       val fieldVisitor = classVisitor.visitField(
         ACC_PUBLIC or ACC_STATIC or ACC_FINAL,
@@ -100,22 +123,83 @@ class KeyRegistryClassGenerator(
       )
       fieldVisitor.visitEnd()
     }
+
+    for (field in indices.values) {
+      val fieldVisitor = classVisitor.visitField(
+        ACC_PUBLIC or ACC_STATIC or ACC_FINAL,
+        field.name,
+        field.descriptor,
+        null,
+        null
+      )
+      fieldVisitor.visitEnd()
+    }
   }
 
-  private fun generateStaticInitializer(classVisitor: ClassVisitor) {
+  private fun generateStaticInitializer(
+    classVisitor: ClassVisitor,
+    registryType: Type.Object,
+    keys: Map<Dependency, Key>,
+    indices: Map<Dependency, FieldDescriptor>
+  ) {
     val staticInitializer = MethodDescriptor.forStaticInitializer()
     val generator = GeneratorAdapter(classVisitor, ACC_STATIC, staticInitializer)
     generator.visitCode()
 
-    for ((dependency, key) in keyRegistry.keys.entries) {
+    for ((dependency, key) in keys.entries) {
       generator.pushInstanceOfKey(dependency, key)
-      generator.putStatic(keyRegistry.type, key.field)
+      generator.putStatic(registryType, key.field)
+    }
+
+    for ((dependency, field) in indices.entries) {
+      generator.pushKeyOrType(dependency)
+      generator.invokeStatic(LightsaberTypes.KEY_INDEX_TYPE, GET_INDEX_METHOD)
+      generator.putStatic(registryType, field)
     }
 
     generator.returnValue()
     generator.endMethod()
   }
 
+  private fun generateConstantDynamicAccessors(
+    classVisitor: ClassVisitor,
+    registryType: Type.Object,
+    keys: Map<Dependency, Key>,
+    indices: Map<Dependency, FieldDescriptor>
+  ) {
+    for ((dependency, key) in keys.entries) {
+      generateConstantDynamicAccessor(classVisitor, registryType, key.field) {
+        pushInstanceOfKey(dependency, key)
+      }
+    }
+
+    for ((dependency, field) in indices.entries) {
+      generateConstantDynamicAccessor(classVisitor, registryType, field) {
+        pushKeyOrType(dependency)
+        invokeStatic(LightsaberTypes.KEY_INDEX_TYPE, GET_INDEX_METHOD)
+      }
+    }
+  }
+
+  // Every value gets its own bootstrap method, so it's created only when the accessor is called for the first time.
+  private fun generateConstantDynamicAccessor(
+    classVisitor: ClassVisitor,
+    registryType: Type.Object,
+    field: FieldDescriptor,
+    valueCreator: GeneratorAdapter.() -> Unit
+  ) {
+    val bootstrapMethodName = "new" + field.name.replaceFirstChar { it.uppercaseChar() }
+    val bootstrapMethod = MethodDescriptor.forMethod(bootstrapMethodName, field.type, LOOKUP_TYPE, Types.STRING_TYPE, Types.CLASS_TYPE)
+    classVisitor.newMethod(ACC_PRIVATE or ACC_STATIC, bootstrapMethod) {
+      valueCreator()
+    }
+
+    val bootstrapMethodHandle = Handle(H_INVOKESTATIC, registryType.internalName, bootstrapMethod.name, bootstrapMethod.descriptor, false)
+    classVisitor.newMethod(ACC_PUBLIC or ACC_STATIC, MethodDescriptor.forMethod(field.name, field.type)) {
+      visitLdcInsn(ConstantDynamic(field.name, field.type.descriptor, bootstrapMethodHandle))
+    }
+  }
+
   private fun GeneratorAdapter.pushInstanceOfKey(dependency: Dependency, key: Key) {
     when (key) {
       is Key.QualifiedType -> newKey(dependency)
@@ -123,6 +207,15 @@ class KeyRegistryClassGenerator(
     }
   }
 
+  private fun GeneratorAdapter.pushKeyOrType(dependency: Dependency) {
+    val key = keyRegistry.keys[dependency]
+    if (key != null) {
+      getKeyRegistryValue(keyRegistry, key.field)
+    } else {
+      push(dependency.type)
+    }
+  }
+
   private fun GeneratorAdapter.newKey(dependency: Dependency) {
     newInstance(Types.KEY_TYPE)
     dup()
@@ -135,6 +228,7 @@ class KeyRegistryClassGenerator(
     }
 
     invokeConstructor(Types.KEY_TYPE, KEY_CONSTRUCTOR)
+    invokeVirtual(Types.KEY_TYPE, KEY_INTERN_METHOD)
   }
 
   private fun GeneratorAdapter.push(type: GenericType) {
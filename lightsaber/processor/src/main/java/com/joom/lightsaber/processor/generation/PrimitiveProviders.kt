@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.processor.generation
+
+import com.joom.grip.mirrors.Type
+import com.joom.grip.mirrors.getObjectType
+import com.joom.lightsaber.internal.PrimitiveProvider
+import com.joom.lightsaber.processor.commons.GeneratorAdapter
+import com.joom.lightsaber.processor.commons.Methods.GET_METHOD
+import com.joom.lightsaber.processor.commons.Types
+import com.joom.lightsaber.processor.descriptors.MethodDescriptor
+import org.objectweb.asm.commons.GeneratorAdapter.EQ
+
+class PrimitiveProviderType(
+  val type: Type.Object,
+  val method: MethodDescriptor
+)
+
+fun findPrimitiveProviderType(type: Type): PrimitiveProviderType? {
+  return when (type) {
+    Type.Primitive.Boolean -> PRIMITIVE_PROVIDER_OF_BOOLEAN
+    Type.Primitive.Byte -> PRIMITIVE_PROVIDER_OF_BYTE
+    Type.Primitive.Char -> PRIMITIVE_PROVIDER_OF_CHAR
+    Type.Primitive.Short -> PRIMITIVE_PROVIDER_OF_SHORT
+    Type.Primitive.Int -> PRIMITIVE_PROVIDER_OF_INT
+    Type.Primitive.Long -> PRIMITIVE_PROVIDER_OF_LONG
+    Type.Primitive.Float -> PRIMITIVE_PROVIDER_OF_FLOAT
+    Type.Primitive.Double -> PRIMITIVE_PROVIDER_OF_DOUBLE
+    else -> null
+  }
+}
+
+// Expects a provider on the stack and replaces it with a value of the given type. Providers wrapped by scopes,
+// interceptors or metrics don't implement primitive interfaces, so the value is unboxed for them.
+fun GeneratorAdapter.getValueFromProvider(type: Type) {
+  val primitiveProviderType = findPrimitiveProviderType(type)
+  if (primitiveProviderType == null) {
+    invokeInterface(Types.PROVIDER_TYPE, GET_METHOD)
+    unbox(type)
+    return
+  }
+
+  val boxedValueLabel = newLabel()
+  val valueLabel = newLabel()
+  dup()
+  instanceOf(primitiveProviderType.type)
+  ifZCmp(EQ, boxedValueLabel)
+  checkCast(primitiveProviderType.type)
+  invokeInterface(primitiveProviderType.type, primitiveProviderType.method)
+  goTo(valueLabel)
+
+  visitLabel(boxedValueLabel)
+  invokeInterface(Types.PROVIDER_TYPE, GET_METHOD)
+  unbox(type)
+
+  visitLabel(valueLabel)
+}
+
+private val PRIMITIVE_PROVIDER_OF_BOOLEAN =
+  createPrimitiveProviderType<PrimitiveProvider.OfBoolean>("getBoolean", Type.Primitive.Boolean)
+private val PRIMITIVE_PROVIDER_OF_BYTE =
+  createPrimitiveProviderType<PrimitiveProvider.OfByte>("getByte", Type.Primitive.Byte)
+private val PRIMITIVE_PROVIDER_OF_CHAR =
+  createPrimitiveProviderType<PrimitiveProvider.OfChar>("getChar", Type.Primitive.Char)
+private val PRIMITIVE_PROVIDER_OF_SHORT =
+  createPrimitiveProviderType<PrimitiveProvider.OfShort>("getShort", Type.Primitive.Short)
+private val PRIMITIVE_PROVIDER_OF_INT =
+  createPrimitiveProviderType<PrimitiveProvider.OfInt>("getInt", Type.Primitive.Int)
+private val PRIMITIVE_PROVIDER_OF_LONG =
+  createPrimitiveProviderType<PrimitiveProvider.OfLong>("getLong", Type.Primitive.Long)
+private val PRIMITIVE_PROVIDER_OF_FLOAT =
+  createPrimitiveProviderType<PrimitiveProvider.OfFloat>("getFloat", Type.Primitive.Float)
+private val PRIMITIVE_PROVIDER_OF_DOUBLE =
+  createPrimitiveProviderType<PrimitiveProvider.OfDouble>("getDouble", Type.Primitive.Double)
+
+private inline fun <reified T : Any> createPrimitiveProviderType(methodName: String, returnType: Type.Primitive): PrimitiveProviderType {
+  return PrimitiveProviderType(getObjectType<T>(), MethodDescriptor.forMethod(methodName, returnType))
+}
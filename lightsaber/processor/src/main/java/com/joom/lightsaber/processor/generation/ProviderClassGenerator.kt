@@ -26,13 +26,15 @@ import com.joom.lightsaber.processor.commons.Methods.GET_METHOD
 import com.joom.lightsaber.processor.commons.Methods.GET_VALUE_METHOD
 import com.joom.lightsaber.processor.commons.StandaloneClassWriter
 import com.joom.lightsaber.processor.commons.Types
+import com.joom.lightsaber.processor.commons.boxed
 import com.joom.lightsaber.processor.commons.newMethod
 import com.joom.lightsaber.processor.commons.rawType
 import com.joom.lightsaber.processor.commons.toFieldDescriptor
 import com.joom.lightsaber.processor.commons.toMethodDescriptor
 import com.joom.lightsaber.processor.descriptors.FieldDescriptor
 import com.joom.lightsaber.processor.descriptors.MethodDescriptor
-import com.joom.lightsaber.processor.generation.model.KeyRegistry
+import com.joom.lightsaber.processor.descriptors.returnType
+import com.joom.lightsaber.processor.generation.model.GenerationContext
 import com.joom.lightsaber.processor.generation.model.Provider
 import com.joom.lightsaber.processor.generation.model.ProviderMedium
 import com.joom.lightsaber.processor.generation.model.moduleType
@@ -40,6 +42,7 @@ import com.joom.lightsaber.processor.model.Binding
 import com.joom.lightsaber.processor.model.Contract
 import com.joom.lightsaber.processor.model.ContractProvisionPoint
 import com.joom.lightsaber.processor.model.Converter
+import com.joom.lightsaber.processor.model.Dependency
 import com.joom.lightsaber.processor.model.Factory
 import com.joom.lightsaber.processor.model.ImportPoint
 import com.joom.lightsaber.processor.model.Injectee
@@ -55,14 +58,28 @@ import org.objectweb.asm.Opcodes.V1_6
 
 class ProviderClassGenerator(
   private val classRegistry: ClassRegistry,
-  private val keyRegistry: KeyRegistry,
-  private val provider: Provider
+  private val generationContext: GenerationContext,
+  providers: List<Provider>,
+  private val cacheDependencyProviders: Boolean
 ) {
 
+  private val keyRegistry = generationContext.keyRegistry
+
+  private val providers: List<Provider> = providers.sortedBy { it.index }
+  private val provider: Provider = this.providers.first()
+  private val providerType = provider.type
+  private val inlinedConstructors = generationContext.findInlinedConstructorsByType(providerType)
   private val moduleType = provider.moduleType
+  private val isMerged = provider.isMerged
+  private val primitiveProviderTypes = this.providers.mapNotNull { findPrimitiveProviderType(it.dependency.type.rawType) }.distinct()
+  private val dependencyProviderFields = if (cacheDependencyProviders) createDependencyProviderFields() else emptyMap()
 
   private val providerConstructor: MethodDescriptor
-    get() = if (moduleType == null) CONSTRUCTOR_WITH_INJECTOR else MethodDescriptor.forConstructor(moduleType, Types.INJECTOR_TYPE)
+    get() = when {
+      moduleType == null -> CONSTRUCTOR_WITH_INJECTOR
+      isMerged -> MethodDescriptor.forConstructor(moduleType, Types.INJECTOR_TYPE, Type.Primitive.Int)
+      else -> MethodDescriptor.forConstructor(moduleType, Types.INJECTOR_TYPE)
+    }
 
   fun generate(): ByteArray {
     val classWriter = StandaloneClassWriter(ClassWriter.COMPUTE_FRAMES or ClassWriter.COMPUTE_MAXS, classRegistry)
@@ -70,25 +87,44 @@ class ProviderClassGenerator(
     classVisitor.visit(
       V1_6,
       ACC_PUBLIC or ACC_SUPER,
-      provider.type.internalName,
+      providerType.internalName,
       null,
       Types.OBJECT_TYPE.internalName,
-      arrayOf(Types.PROVIDER_TYPE.internalName)
+      createInterfaces()
     )
 
     generateFields(classVisitor)
     generateConstructor(classVisitor)
-    generateGetMethod(classVisitor)
+    if (isMerged) {
+      generateMergedGetMethod(classVisitor)
+      primitiveProviderTypes.forEach { generateMergedPrimitiveGetMethod(classVisitor, it) }
+    } else {
+      generateGetMethod(classVisitor)
+      generatePrimitiveGetMethod(classVisitor)
+    }
 
     classVisitor.visitEnd()
     return classWriter.toByteArray()
   }
 
+  private fun createInterfaces(): Array<String> {
+    val primitiveInterfaces = primitiveProviderTypes.map { it.type.internalName }
+    return arrayOf(Types.PROVIDER_TYPE.internalName, *primitiveInterfaces.toTypedArray())
+  }
+
   private fun generateFields(classVisitor: ClassVisitor) {
     generateInjectorField(classVisitor)
     if (moduleType != null) {
       generateModuleField(classVisitor, moduleType)
     }
+
+    if (isMerged) {
+      generateIndexField(classVisitor)
+    }
+
+    dependencyProviderFields.values.forEach { field ->
+      generateDependencyProviderField(classVisitor, field)
+    }
   }
 
   private fun generateModuleField(classVisitor: ClassVisitor, moduleType: Type.Object) {
@@ -102,6 +138,17 @@ class ProviderClassGenerator(
     fieldVisitor.visitEnd()
   }
 
+  private fun generateIndexField(classVisitor: ClassVisitor) {
+    val fieldVisitor = classVisitor.visitField(
+      ACC_PRIVATE or ACC_FINAL,
+      INDEX_FIELD.name,
+      INDEX_FIELD.type.descriptor,
+      null,
+      null
+    )
+    fieldVisitor.visitEnd()
+  }
+
   private fun generateInjectorField(classVisitor: ClassVisitor) {
     val fieldVisitor = classVisitor.visitField(
       ACC_PRIVATE or ACC_FINAL,
@@ -113,6 +160,41 @@ class ProviderClassGenerator(
     fieldVisitor.visitEnd()
   }
 
+  private fun generateDependencyProviderField(classVisitor: ClassVisitor, field: FieldDescriptor) {
+    val fieldVisitor = classVisitor.visitField(
+      ACC_PRIVATE,
+      field.name,
+      field.type.descriptor,
+      null,
+      null
+    )
+    fieldVisitor.visitEnd()
+  }
+
+  private fun createDependencyProviderFields(): Map<Dependency, FieldDescriptor> {
+    val dependencies = providers.flatMap { provider ->
+      when (val medium = provider.medium) {
+        is ProviderMedium.ProvisionPoint -> {
+          val provisionPoint = medium.provisionPoint.bridge ?: medium.provisionPoint
+          if (provisionPoint is ProvisionPoint.AbstractMethod) {
+            provisionPoint.injectionPoint.injectees
+              .filter { it.isResolvedByInjector }
+              .map { it.dependency.boxed() }
+          } else {
+            emptyList()
+          }
+        }
+
+        is ProviderMedium.Binding -> listOf(medium.binding.dependency.boxed())
+        else -> emptyList()
+      }
+    }
+
+    return dependencies.distinct().withIndex().associate { (index, dependency) ->
+      dependency to FieldDescriptor("dependencyProvider$index", Types.PROVIDER_TYPE)
+    }
+  }
+
   private fun generateConstructor(classVisitor: ClassVisitor) {
     classVisitor.newMethod(ACC_PUBLIC, providerConstructor) {
       visitCode()
@@ -122,56 +204,126 @@ class ProviderClassGenerator(
       if (moduleType == null) {
         loadThis()
         loadArg(0)
-        putField(provider.type, INJECTOR_FIELD)
+        putField(providerType, INJECTOR_FIELD)
       } else {
         loadThis()
         loadArg(1)
-        putField(provider.type, INJECTOR_FIELD)
+        putField(providerType, INJECTOR_FIELD)
 
         loadThis()
         loadArg(0)
-        putField(provider.type, MODULE_FIELD_NAME, moduleType)
+        putField(providerType, MODULE_FIELD_NAME, moduleType)
+
+        if (isMerged) {
+          loadThis()
+          loadArg(2)
+          putField(providerType, INDEX_FIELD)
+        }
       }
     }
   }
 
   private fun generateGetMethod(classVisitor: ClassVisitor) {
+    val primitiveProviderType = primitiveProviderTypes.firstOrNull()
     classVisitor.newMethod(ACC_PUBLIC, GET_METHOD) {
-      when (val medium = provider.medium) {
-        is ProviderMedium.ProvisionPoint -> provideFromProvisionPoint(medium.provisionPoint)
-        is ProviderMedium.Binding -> provideFromBinding(medium.binding)
-        is ProviderMedium.Factory -> provideFactory(medium.factory)
-        is ProviderMedium.Contract -> provideContract(medium.contract)
-        is ProviderMedium.ContractProvisionPoint -> provideFromContractProvisionPoint(medium.contractType, medium.converter, medium.contractProvisionPoint)
+      if (primitiveProviderType != null) {
+        loadThis()
+        invokeVirtual(providerType, primitiveProviderType.method)
+      } else {
+        provide(provider)
       }
 
       valueOf(provider.dependency.type.rawType)
     }
   }
 
-  private fun GeneratorAdapter.provideFromProvisionPoint(provisionPoint: ProvisionPoint) {
+  private fun generatePrimitiveGetMethod(classVisitor: ClassVisitor) {
+    val primitiveProviderType = primitiveProviderTypes.firstOrNull()
+    if (primitiveProviderType != null) {
+      classVisitor.newMethod(ACC_PUBLIC, primitiveProviderType.method) {
+        provide(provider)
+      }
+    }
+  }
+
+  private fun generateMergedGetMethod(classVisitor: ClassVisitor) {
+    classVisitor.newMethod(ACC_PUBLIC, GET_METHOD) {
+      val providerLabels = Array(providers.size) { newLabel() }
+      val unknownProviderLabel = newLabel()
+      loadThis()
+      getField(providerType, INDEX_FIELD)
+      visitTableSwitchInsn(0, providers.size - 1, unknownProviderLabel, *providerLabels)
+
+      providers.forEachIndexed { index, provider ->
+        visitLabel(providerLabels[index])
+        provide(provider)
+        valueOf(provider.dependency.type.rawType)
+        returnValue()
+      }
+
+      visitLabel(unknownProviderLabel)
+      throwException(ILLEGAL_ARGUMENT_EXCEPTION_TYPE, "Unknown provider index")
+    }
+  }
+
+  private fun generateMergedPrimitiveGetMethod(classVisitor: ClassVisitor, primitiveProviderType: PrimitiveProviderType) {
+    val primitiveProviders = providers.filter { findPrimitiveProviderType(it.dependency.type.rawType) === primitiveProviderType }
+    classVisitor.newMethod(ACC_PUBLIC, primitiveProviderType.method) {
+      val providerLabels = Array(primitiveProviders.size) { newLabel() }
+      val boxedValueLabel = newLabel()
+      loadThis()
+      getField(providerType, INDEX_FIELD)
+      visitLookupSwitchInsn(boxedValueLabel, primitiveProviders.map { it.index!! }.toIntArray(), providerLabels)
+
+      primitiveProviders.forEachIndexed { index, provider ->
+        visitLabel(providerLabels[index])
+        provide(provider)
+        returnValue()
+      }
+
+      visitLabel(boxedValueLabel)
+      loadThis()
+      invokeVirtual(providerType, GET_METHOD)
+      unbox(primitiveProviderType.method.returnType)
+    }
+  }
+
+  private fun GeneratorAdapter.provide(provider: Provider) {
+    when (val medium = provider.medium) {
+      is ProviderMedium.ProvisionPoint -> provideFromProvisionPoint(provider, medium.provisionPoint)
+      is ProviderMedium.Binding -> provideFromBinding(medium.binding)
+      is ProviderMedium.Factory -> provideFactory(medium.factory)
+      is ProviderMedium.Contract -> provideContract(medium.contract)
+      is ProviderMedium.ContractProvisionPoint ->
+        provideFromContractProvisionPoint(provider, medium.contractType, medium.converter, medium.contractProvisionPoint)
+    }
+  }
+
+  private fun GeneratorAdapter.provideFromProvisionPoint(provider: Provider, provisionPoint: ProvisionPoint) {
     val bridge = provisionPoint.bridge
     if (bridge != null) {
-      provideFromMethod(bridge)
+      provideFromMethod(provider, bridge)
     } else {
       when (provisionPoint) {
         is ProvisionPoint.Field -> provideFromField(provisionPoint)
         is ProvisionPoint.Constructor -> provideFromConstructor(provisionPoint)
-        is ProvisionPoint.Method -> provideFromMethod(provisionPoint)
+        is ProvisionPoint.Method -> provideFromMethod(provider, provisionPoint)
       }
     }
   }
 
   private fun GeneratorAdapter.provideFromField(provisionPoint: ProvisionPoint.Field) {
     loadThis()
-    getField(provider.type, MODULE_FIELD_NAME, provisionPoint.containerType)
+    getField(providerType, MODULE_FIELD_NAME, provisionPoint.containerType)
     val field = provisionPoint.field.toFieldDescriptor()
     getField(provisionPoint.containerType, field)
   }
 
   private fun GeneratorAdapter.provideFromConstructor(provisionPoint: ProvisionPoint.Constructor) {
     invokeConstructor(provisionPoint)
-    injectMembers()
+    if (provisionPoint.containerType in generationContext.typesWithInjectableMembers) {
+      injectMembers(provisionPoint.containerType) { loadInjector() }
+    }
   }
 
   private fun GeneratorAdapter.invokeConstructor(provisionPoint: ProvisionPoint.Constructor) {
@@ -182,9 +334,9 @@ class ProviderClassGenerator(
     invokeConstructor(provisionPoint.containerType, method)
   }
 
-  private fun GeneratorAdapter.provideFromMethod(provisionPoint: ProvisionPoint.Method) {
+  private fun GeneratorAdapter.provideFromMethod(provider: Provider, provisionPoint: ProvisionPoint.Method) {
     loadThis()
-    getField(provider.type, MODULE_FIELD_NAME, provisionPoint.containerType)
+    getField(providerType, MODULE_FIELD_NAME, provisionPoint.containerType)
     loadArguments(provisionPoint)
     invokeVirtual(provisionPoint.containerType, provisionPoint.method.toMethodDescriptor())
 
@@ -206,23 +358,66 @@ class ProviderClassGenerator(
   }
 
   private fun GeneratorAdapter.loadArgument(injectee: Injectee) {
+    val constructor = inlinedConstructors.findInlinedConstructor(injectee)
+    if (constructor != null) {
+      newInlinedInstanceOrLoadDependency(generationContext, inlinedConstructors, constructor, { loadInjector() }) {
+        loadDependency(injectee)
+      }
+    } else {
+      loadDependency(injectee)
+    }
+  }
+
+  private fun GeneratorAdapter.loadDependency(injectee: Injectee) {
+    val field = dependencyProviderFields[injectee.dependency.boxed()]
+    if (field != null && injectee.isResolvedByInjector) {
+      loadDependencyProvider(field, injectee.dependency)
+      convertProvider(injectee)
+    } else {
+      loadInjector()
+      getDependency(keyRegistry, injectee)
+    }
+  }
+
+  private fun GeneratorAdapter.loadInjector() {
     loadThis()
-    getField(provider.type, INJECTOR_FIELD)
-    getDependency(keyRegistry, injectee)
+    getField(providerType, INJECTOR_FIELD)
   }
 
-  private fun GeneratorAdapter.injectMembers() {
+  // The field is neither final nor volatile on purpose: providers are immutable once constructed and every provider
+  // the injector returns is safely published by the injector itself, so a thread that sees a stale null just resolves
+  // a provider again. The field is read once to make sure a non-null value isn't followed by a null one.
+  // The first resolved provider is kept for the lifetime of this provider, so a ProviderInterceptor that isn't
+  // deterministic is consulted only once per dependency when the cacheDependencyProviders option is enabled.
+  private fun GeneratorAdapter.loadDependencyProvider(field: FieldDescriptor, dependency: Dependency) {
+    val providerIsCachedLabel = newLabel()
+    loadThis()
+    getField(providerType, field)
+    dup()
+    ifNonNull(providerIsCachedLabel)
+
+    pop()
+    loadThis()
+    getField(providerType, INJECTOR_FIELD)
+    getProvider(keyRegistry, dependency)
     dup()
     loadThis()
-    getField(provider.type, INJECTOR_FIELD)
     swap()
-    invokeInterface(Types.INJECTOR_TYPE, INJECT_MEMBERS_METHOD)
+    putField(providerType, field)
+
+    visitLabel(providerIsCachedLabel)
   }
 
   private fun GeneratorAdapter.provideFromBinding(binding: Binding) {
-    loadThis()
-    getField(provider.type, INJECTOR_FIELD)
-    getInstance(keyRegistry, binding.dependency)
+    val field = dependencyProviderFields[binding.dependency.boxed()]
+    if (field != null) {
+      loadDependencyProvider(field, binding.dependency)
+      invokeInterface(Types.PROVIDER_TYPE, GET_METHOD)
+    } else {
+      loadThis()
+      getField(providerType, INJECTOR_FIELD)
+      getInstance(keyRegistry, binding.dependency)
+    }
     checkCast(binding.ancestor.type.rawType)
   }
 
@@ -238,11 +433,12 @@ class ProviderClassGenerator(
     newInstance(type)
     dup()
     loadThis()
-    getField(provider.type, INJECTOR_FIELD)
+    getField(providerType, INJECTOR_FIELD)
     invokeConstructor(type, CONSTRUCTOR_WITH_INJECTOR)
   }
 
   private fun GeneratorAdapter.provideFromContractProvisionPoint(
+    provider: Provider,
     contractType: Type.Object,
     converter: ImportPoint.Converter,
     contractProvisionPoint: ContractProvisionPoint
@@ -282,7 +478,7 @@ class ProviderClassGenerator(
   ) {
     when (converter) {
       is ImportPoint.Converter.Adapter -> {
-        getField(provider.type, MODULE_FIELD_NAME, converter.adapterType)
+        getField(providerType, MODULE_FIELD_NAME, converter.adapterType)
 
         when (converter.adapterType) {
           Types.LAZY_TYPE -> {
@@ -297,7 +493,7 @@ class ProviderClassGenerator(
         }
       }
       ImportPoint.Converter.Instance -> {
-        getField(provider.type, MODULE_FIELD_NAME, contractType)
+        getField(providerType, MODULE_FIELD_NAME, contractType)
       }
     }
   }
@@ -307,11 +503,11 @@ class ProviderClassGenerator(
 
     private val NULL_POINTER_EXCEPTION_TYPE = getObjectType<NullPointerException>()
 
+    private val ILLEGAL_ARGUMENT_EXCEPTION_TYPE = getObjectType<IllegalArgumentException>()
+
     private val INJECTOR_FIELD = FieldDescriptor("injector", Types.INJECTOR_TYPE)
+    private val INDEX_FIELD = FieldDescriptor("index", Type.Primitive.Int)
 
     private val CONSTRUCTOR_WITH_INJECTOR = MethodDescriptor.forConstructor(Types.INJECTOR_TYPE)
-
-    private val INJECT_MEMBERS_METHOD =
-      MethodDescriptor.forMethod("injectMembers", Type.Primitive.Void, Types.OBJECT_TYPE)
   }
 }
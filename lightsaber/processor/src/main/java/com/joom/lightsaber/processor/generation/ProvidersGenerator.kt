@@ -22,19 +22,20 @@ import com.joom.lightsaber.processor.logging.getLogger
 
 class ProvidersGenerator(
   private val classProducer: ClassProducer,
-  private val classRegistry: ClassRegistry
+  private val classRegistry: ClassRegistry,
+  private val cacheDependencyProviders: Boolean
 ) {
 
   private val logger = getLogger()
 
   fun generate(generationContext: GenerationContext) {
     generationContext.providers
-      .distinctBy { it.type }
-      .forEach { provider ->
-        logger.debug("Generating provider {}", provider.type.internalName)
-        val generator = ProviderClassGenerator(classRegistry, generationContext.keyRegistry, provider)
+      .groupBy { it.type }
+      .forEach { (providerType, providers) ->
+        logger.debug("Generating provider {}", providerType.internalName)
+        val generator = ProviderClassGenerator(classRegistry, generationContext, providers, cacheDependencyProviders)
         val providerClassData = generator.generate()
-        classProducer.produceClass(provider.type.internalName, providerClassData)
+        classProducer.produceClass(providerType.internalName, providerClassData)
       }
   }
 }
@@ -19,7 +19,9 @@ package com.joom.lightsaber.processor.generation.model
 import com.joom.grip.mirrors.Type
 import com.joom.grip.mirrors.packageName
 import com.joom.lightsaber.processor.model.Contract
+import com.joom.lightsaber.processor.model.Dependency
 import com.joom.lightsaber.processor.model.Factory
+import com.joom.lightsaber.processor.model.ProvisionPoint
 
 data class GenerationContext(
   private val providersByModuleType: Map<Type.Object, Collection<Provider>>,
@@ -27,10 +29,12 @@ data class GenerationContext(
   val packageInvaders: Collection<PackageInvader>,
   val contracts: Collection<Contract>,
   val factories: Collection<Factory>,
-  val keyRegistry: KeyRegistry
+  val keyRegistry: KeyRegistry,
+  val typesWithInjectableMembers: Set<Type.Object>,
+  private val inlinedConstructorsByType: Map<Type.Object, Map<Dependency, ProvisionPoint.Constructor>> = emptyMap()
 ) {
 
-  val providers: Collection<Provider> = providersByModuleType.values.plus(providersByContractType.values).flatten().distinctBy { it.type }
+  val providers: Collection<Provider> = providersByModuleType.values.plus(providersByContractType.values).flatten().distinct()
 
   private val packageInvadersByPackageName = packageInvaders.associateBy { it.packageName }
 
@@ -42,6 +46,10 @@ data class GenerationContext(
     return providersByContractType[contractType] ?: emptyList()
   }
 
+  fun findInlinedConstructorsByType(type: Type.Object): Map<Dependency, ProvisionPoint.Constructor> {
+    return inlinedConstructorsByType[type] ?: emptyMap()
+  }
+
   fun findPackageInvaderByTargetType(targetType: Type.Object): PackageInvader? {
     return packageInvadersByPackageName[targetType.packageName]
   }
@@ -17,9 +17,20 @@
 package com.joom.lightsaber.processor.generation.model
 
 import com.joom.grip.mirrors.Type
+import com.joom.lightsaber.processor.descriptors.FieldDescriptor
 import com.joom.lightsaber.processor.model.Dependency
 
 data class KeyRegistry(
   val type: Type.Object,
-  val keys: Map<Dependency, Key>
-)
+  val keys: Map<Dependency, Key>,
+  val indices: Map<Dependency, FieldDescriptor>,
+  val isConstantDynamic: Boolean = false,
+  private val shardTypesByField: Map<FieldDescriptor, Type.Object> = emptyMap()
+) {
+
+  val types: Collection<Type.Object> = if (shardTypesByField.isEmpty()) listOf(type) else shardTypesByField.values.distinct()
+
+  fun getOwnerType(field: FieldDescriptor): Type.Object {
+    return shardTypesByField[field] ?: type
+  }
+}
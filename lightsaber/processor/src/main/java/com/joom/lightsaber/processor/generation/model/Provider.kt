@@ -24,10 +24,12 @@ import com.joom.lightsaber.processor.model.Scope
 
 data class Provider(
   val type: Type.Object,
-  val medium: ProviderMedium
+  val medium: ProviderMedium,
+  val index: Int? = null
 ) {
 
   val dependency: Dependency get() = medium.dependency
+  val isMerged: Boolean get() = index != null
 }
 
 val Provider.moduleType: Type.Object?
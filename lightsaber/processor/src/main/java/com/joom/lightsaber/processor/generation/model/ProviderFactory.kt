@@ -35,7 +35,8 @@ interface ProviderFactory {
 
 class ProviderFactoryImpl(
   private val fileRegistry: FileRegistry,
-  private val projectName: String
+  private val projectName: String,
+  private val mergeProviders: Boolean
 ) : ProviderFactory {
 
   private val typeRegistry = mutableSetOf<Type.Object>()
@@ -50,7 +51,15 @@ class ProviderFactoryImpl(
   override fun createProvidersForModule(module: Module): Collection<Provider> {
     return providersByModuleType.getOrPut(module.type) {
       val providers = ArrayList<Provider>()
-      module.provisionPoints.mapTo(providers) { newProviderForProvisionPoint(it) }
+      val mergedProviderType = if (shouldMergeModuleProviders(module)) newMergedProviderType(module.type) else null
+      var index = 0
+      module.provisionPoints.mapTo(providers) { provisionPoint ->
+        if (mergedProviderType != null && provisionPoint !is ProvisionPoint.Constructor) {
+          Provider(mergedProviderType, ProviderMedium.ProvisionPoint(provisionPoint), index++)
+        } else {
+          newProviderForProvisionPoint(provisionPoint)
+        }
+      }
       module.bindings.mapTo(providers) { newBindingProvider(it) }
       module.factories.mapTo(providers) { newFactoryProvider(it) }
       module.contracts.mapTo(providers) { newContractProvider(it) }
@@ -60,12 +69,29 @@ class ProviderFactoryImpl(
 
   override fun createProvidersForContract(contract: Contract, converter: ImportPoint.Converter): Collection<Provider> {
     return providersByImportedContractType.getOrPut(contract.type) {
-      contract.provisionPoints.map { provisionPoint ->
-        newContractProvisionPointProvider(contract, provisionPoint, converter)
+      if (mergeProviders && contract.provisionPoints.size > 1) {
+        val mergedProviderType = newMergedProviderType(contract.type)
+        contract.provisionPoints.mapIndexed { index, provisionPoint ->
+          Provider(mergedProviderType, ProviderMedium.ContractProvisionPoint(contract.type, converter, provisionPoint), index)
+        }
+      } else {
+        contract.provisionPoints.map { provisionPoint ->
+          newContractProvisionPointProvider(contract, provisionPoint, converter)
+        }
       }
     }
   }
 
+  // Constructor providers are shared between modules and may live in other packages, so only the providers that
+  // belong to the module exclusively are merged into a single class.
+  private fun shouldMergeModuleProviders(module: Module): Boolean {
+    return mergeProviders && module.provisionPoints.count { it !is ProvisionPoint.Constructor } > 1
+  }
+
+  private fun newMergedProviderType(ownerType: Type.Object): Type.Object {
+    return getObjectTypeByUniqueInternalName("${ownerType.internalName}\$Providers%d\$$projectName")
+  }
+
   private fun newProviderForProvisionPoint(provisionPoint: ProvisionPoint): Provider {
     return when (provisionPoint) {
       is ProvisionPoint.Constructor -> newConstructorProvider(provisionPoint)
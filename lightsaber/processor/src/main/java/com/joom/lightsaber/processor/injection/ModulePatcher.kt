@@ -19,12 +19,15 @@ package com.joom.lightsaber.processor.injection
 import com.joom.grip.mirrors.FieldMirror
 import com.joom.grip.mirrors.MethodMirror
 import com.joom.grip.mirrors.Type
+import com.joom.grip.mirrors.getObjectType
 import com.joom.grip.mirrors.isStatic
+import com.joom.grip.mirrors.toArrayType
 import com.joom.lightsaber.LightsaberTypes
 import com.joom.lightsaber.processor.commons.GeneratorAdapter
 import com.joom.lightsaber.processor.commons.Methods.GET_METHOD
 import com.joom.lightsaber.processor.commons.Methods.GET_VALUE_METHOD
 import com.joom.lightsaber.processor.commons.Types
+import com.joom.lightsaber.processor.commons.boxed
 import com.joom.lightsaber.processor.commons.invokeMethod
 import com.joom.lightsaber.processor.commons.newMethod
 import com.joom.lightsaber.processor.commons.toFieldDescriptor
@@ -35,13 +38,19 @@ import com.joom.lightsaber.processor.generation.getInstance
 import com.joom.lightsaber.processor.generation.model.GenerationContext
 import com.joom.lightsaber.processor.generation.model.Provider
 import com.joom.lightsaber.processor.generation.model.moduleType
+import com.joom.lightsaber.processor.generation.pushTypeOrKey
+import com.joom.lightsaber.processor.generation.newScopedProvider
+import com.joom.lightsaber.processor.generation.registerLazyProvider
 import com.joom.lightsaber.processor.generation.registerProvider
+import com.joom.lightsaber.processor.graph.DirectedGraph
 import com.joom.lightsaber.processor.model.Contract
+import com.joom.lightsaber.processor.model.Dependency
 import com.joom.lightsaber.processor.model.Import
 import com.joom.lightsaber.processor.model.ImportPoint
 import com.joom.lightsaber.processor.model.InjectionContext
 import com.joom.lightsaber.processor.model.Module
 import com.joom.lightsaber.processor.model.ProvisionPoint
+import com.joom.lightsaber.processor.validation.DependencyResolverFactory
 import org.objectweb.asm.ClassVisitor
 import org.objectweb.asm.Opcodes.ACC_PUBLIC
 import org.objectweb.asm.Opcodes.ACC_SYNTHETIC
@@ -50,7 +59,10 @@ class ModulePatcher(
   classVisitor: ClassVisitor,
   private val injectionContext: InjectionContext,
   private val generationContext: GenerationContext,
-  private val module: Module
+  private val dependencyResolverFactory: DependencyResolverFactory,
+  private val module: Module,
+  private val parallelEagerInstantiation: Boolean,
+  private val lazyProviders: Boolean
 ) : BaseInjectionClassVisitor(classVisitor) {
 
   private val keyRegistry = generationContext.keyRegistry
@@ -60,6 +72,12 @@ class ModulePatcher(
 
   private var isInjectorConfigurator = false
 
+  private val isRootModule =
+    injectionContext.findComponentByType(module.type) != null || injectionContext.findContractConfigurationByType(module.type) != null
+
+  private val providers = generationContext.findProvidersByModuleType(module.type).toList()
+  private val isProviderFactory = lazyProviders && providers.isNotEmpty()
+
   init {
     for (provisionPoint in module.provisionPoints) {
       when (provisionPoint) {
@@ -73,8 +91,13 @@ class ModulePatcher(
   override fun visit(version: Int, access: Int, name: String, signature: String?, superName: String?, interfaces: Array<String>?) {
     val injectorConfiguratorType = LightsaberTypes.INJECTOR_CONFIGURATOR_TYPE.internalName
     if (interfaces == null || injectorConfiguratorType !in interfaces) {
+      val injectorConfiguratorTypes = listOfNotNull(
+        injectorConfiguratorType,
+        LightsaberTypes.SIZED_INJECTOR_CONFIGURATOR_TYPE.internalName.takeIf { isRootModule },
+        LightsaberTypes.PROVIDER_FACTORY_TYPE.internalName.takeIf { isProviderFactory }
+      )
       val newInterfaces =
-        if (interfaces == null) arrayOf(injectorConfiguratorType) else interfaces + injectorConfiguratorType
+        if (interfaces == null) injectorConfiguratorTypes.toTypedArray() else interfaces + injectorConfiguratorTypes
       super.visit(version, access, name, signature, superName, newInterfaces)
       isDirty = true
     } else {
@@ -87,6 +110,12 @@ class ModulePatcher(
     if (!isInjectorConfigurator) {
       generateBridges()
       implementInjectorConfigurator()
+      if (isRootModule) {
+        implementSizedInjectorConfigurator()
+      }
+      if (isProviderFactory) {
+        implementProviderFactory()
+      }
     }
     super.visitEnd()
   }
@@ -132,32 +161,94 @@ class ModulePatcher(
       registerProviders()
       configureInjector()
 
-      if (injectionContext.findComponentByType(module.type) != null || injectionContext.findContractConfigurationByType(module.type) != null) {
+      if (isRootModule) {
         instantiateEagerDependencies()
       }
     }
   }
 
+  private fun implementSizedInjectorConfigurator() {
+    newMethod(ACC_PUBLIC, GET_PROVIDER_COUNT_METHOD) {
+      push(computeProviderCount())
+    }
+  }
+
+  private fun computeProviderCount(): Int {
+    return module.getModulesWithDescendants().sumOf { descendant ->
+      val contractProviderCount = descendant.imports.sumOf { import ->
+        when (import) {
+          is Import.Module -> 0
+          is Import.Contract -> generationContext.findProvidersByContractType(import.contract.type).size
+        }
+      }
+
+      generationContext.findProvidersByModuleType(descendant.type).size + contractProviderCount
+    }
+  }
+
+  private fun implementProviderFactory() {
+    newMethod(ACC_PUBLIC, CREATE_PROVIDER_METHOD) {
+      val providerLabels = Array(providers.size) { newLabel() }
+      val unknownProviderLabel = newLabel()
+      loadArg(1)
+      visitTableSwitchInsn(0, providers.size - 1, unknownProviderLabel, *providerLabels)
+
+      providers.forEachIndexed { id, provider ->
+        visitLabel(providerLabels[id])
+        newScopedProvider(provider) {
+          newProvider(provider)
+        }
+        returnValue()
+      }
+
+      visitLabel(unknownProviderLabel)
+      throwException(ILLEGAL_ARGUMENT_EXCEPTION_TYPE, "Unknown provider id")
+    }
+  }
+
   private fun GeneratorAdapter.registerProviders() {
-    generationContext.findProvidersByModuleType(module.type).forEach { provider ->
+    if (isProviderFactory) {
+      registerLazyProviders()
+      return
+    }
+
+    providers.forEach { provider ->
       loadArg(0)
       registerProvider(keyRegistry, provider) {
-        val moduleType = provider.moduleType
-        if (moduleType != null) {
-          newModuleProvider(provider, moduleType)
-        } else {
-          newConstructorProvider(provider)
-        }
+        newProvider(provider)
       }
     }
   }
 
+  private fun GeneratorAdapter.registerLazyProviders() {
+    providers.forEachIndexed { id, provider ->
+      loadArg(0)
+      registerLazyProvider(keyRegistry, provider, id) {
+        loadThis()
+      }
+    }
+  }
+
+  private fun GeneratorAdapter.newProvider(provider: Provider) {
+    val moduleType = provider.moduleType
+    if (moduleType != null) {
+      newModuleProvider(provider, moduleType)
+    } else {
+      newConstructorProvider(provider)
+    }
+  }
+
   private fun GeneratorAdapter.newModuleProvider(provider: Provider, moduleType: Type.Object) {
     newInstance(provider.type)
     dup()
     loadThis()
     loadArg(0)
-    val constructor = MethodDescriptor.forConstructor(moduleType, Types.INJECTOR_TYPE)
+    val constructor = if (provider.index != null) {
+      push(provider.index)
+      MethodDescriptor.forConstructor(moduleType, Types.INJECTOR_TYPE, Type.Primitive.Int)
+    } else {
+      MethodDescriptor.forConstructor(moduleType, Types.INJECTOR_TYPE)
+    }
     invokeConstructor(provider.type, constructor)
   }
 
@@ -175,9 +266,16 @@ class ModulePatcher(
     loadModule(import.importPoint)
     loadArg(0)
 
-    val constructor = when (val converter = import.importPoint.converter) {
-      is ImportPoint.Converter.Adapter -> MethodDescriptor.forConstructor(converter.adapterType, Types.INJECTOR_TYPE)
-      is ImportPoint.Converter.Instance -> MethodDescriptor.forConstructor(import.contract.type, Types.INJECTOR_TYPE)
+    val moduleType = when (val converter = import.importPoint.converter) {
+      is ImportPoint.Converter.Adapter -> converter.adapterType
+      is ImportPoint.Converter.Instance -> import.contract.type
+    }
+
+    val constructor = if (provider.index != null) {
+      push(provider.index)
+      MethodDescriptor.forConstructor(moduleType, Types.INJECTOR_TYPE, Type.Primitive.Int)
+    } else {
+      MethodDescriptor.forConstructor(moduleType, Types.INJECTOR_TYPE)
     }
 
     invokeConstructor(provider.type, constructor)
@@ -217,11 +315,9 @@ class ModulePatcher(
   }
 
   private fun GeneratorAdapter.configureInjectorWithModule(import: Import.Module) {
-    loadModule(import.importPoint)
-    // TODO: It would be better to throw ConfigurationException here.
-    checkCast(LightsaberTypes.INJECTOR_CONFIGURATOR_TYPE)
     loadArg(0)
-    invokeInterface(LightsaberTypes.INJECTOR_CONFIGURATOR_TYPE, CONFIGURE_INJECTOR_METHOD)
+    loadModule(import.importPoint)
+    invokeVirtual(LightsaberTypes.LIGHTSABER_INJECTOR_TYPE, CONFIGURE_MODULE_METHOD)
   }
 
   private fun GeneratorAdapter.loadModule(importPoint: ImportPoint) {
@@ -276,6 +372,20 @@ class ModulePatcher(
   }
 
   private fun GeneratorAdapter.instantiateEagerDependencies() {
+    if (parallelEagerInstantiation) {
+      val eagerDependencies = module.getModulesWithDescendants()
+        .flatMap { it.provisionPoints.asSequence() }
+        .filter { it.scope.isEager }
+        .map { it.dependency.boxed() }
+        .distinct()
+        .toList()
+
+      if (eagerDependencies.isNotEmpty()) {
+        instantiateEagerDependenciesInParallel(eagerDependencies)
+        return
+      }
+    }
+
     for (module in module.getModulesWithDescendants()) {
       for (provisionPoint in module.provisionPoints) {
         if (provisionPoint.scope.isEager) {
@@ -286,6 +396,66 @@ class ModulePatcher(
     }
   }
 
+  private fun GeneratorAdapter.instantiateEagerDependenciesInParallel(eagerDependencies: List<Dependency>) {
+    val prerequisites = computeEagerPrerequisites(eagerDependencies)
+
+    loadArg(0)
+
+    newArray(Types.OBJECT_TYPE, eagerDependencies.size)
+    eagerDependencies.forEachIndexed { index, dependency ->
+      dup()
+      push(index)
+      pushTypeOrKey(keyRegistry, dependency)
+      arrayStore(Types.OBJECT_TYPE)
+    }
+
+    newArray(INT_ARRAY_TYPE, prerequisites.size)
+    prerequisites.forEachIndexed { index, indices ->
+      dup()
+      push(index)
+      newArray(Type.Primitive.Int, indices.size)
+      indices.forEachIndexed { prerequisiteIndex, prerequisite ->
+        dup()
+        push(prerequisiteIndex)
+        push(prerequisite)
+        arrayStore(Type.Primitive.Int)
+      }
+      arrayStore(INT_ARRAY_TYPE)
+    }
+
+    invokeVirtual(LightsaberTypes.LIGHTSABER_INJECTOR_TYPE, INSTANTIATE_EAGER_DEPENDENCIES_METHOD)
+  }
+
+  private fun computeEagerPrerequisites(eagerDependencies: List<Dependency>): List<List<Int>> {
+    val graph = dependencyResolverFactory.getOrCreate(module).getDependencyGraph()
+    val indices = eagerDependencies.withIndex().associate { it.value to it.index }
+    return eagerDependencies.map { findEagerPrerequisites(graph, it, indices) }
+  }
+
+  private fun findEagerPrerequisites(graph: DirectedGraph<Dependency>, dependency: Dependency, indices: Map<Dependency, Int>): List<Int> {
+    // Only the nearest eager dependencies are prerequisites since they wait for their own prerequisites.
+    val prerequisites = sortedSetOf<Int>()
+    val visited = hashSetOf(dependency)
+    val queue = ArrayDeque<Dependency>()
+    graph.getAdjacentVertices(dependency)?.let { queue.addAll(it) }
+
+    while (queue.isNotEmpty()) {
+      val next = queue.removeFirst().boxed()
+      if (!visited.add(next)) {
+        continue
+      }
+
+      val index = indices[next]
+      if (index != null) {
+        prerequisites += index
+      } else {
+        graph.getAdjacentVertices(next)?.let { queue.addAll(it) }
+      }
+    }
+
+    return prerequisites.toList()
+  }
+
   private fun shouldInstantiateImmediately(contract: Contract): Boolean {
     val dependencies = contract.provisionPoints.map { it.injectee.dependency }.toHashSet()
 
@@ -305,5 +475,22 @@ class ModulePatcher(
   companion object {
     private val CONFIGURE_INJECTOR_METHOD =
       MethodDescriptor.forMethod("configureInjector", Type.Primitive.Void, LightsaberTypes.LIGHTSABER_INJECTOR_TYPE)
+    private val CREATE_PROVIDER_METHOD =
+      MethodDescriptor.forMethod("createProvider", Types.PROVIDER_TYPE, LightsaberTypes.LIGHTSABER_INJECTOR_TYPE, Type.Primitive.Int)
+    private val ILLEGAL_ARGUMENT_EXCEPTION_TYPE = getObjectType<IllegalArgumentException>()
+
+    private val GET_PROVIDER_COUNT_METHOD =
+      MethodDescriptor.forMethod("getProviderCount", Type.Primitive.Int)
+    private val CONFIGURE_MODULE_METHOD =
+      MethodDescriptor.forMethod("configureModule", Type.Primitive.Void, Types.OBJECT_TYPE)
+
+    private val INT_ARRAY_TYPE = Type.Primitive.Int.toArrayType()
+    private val INSTANTIATE_EAGER_DEPENDENCIES_METHOD =
+      MethodDescriptor.forMethod(
+        "instantiateEagerDependencies",
+        Type.Primitive.Void,
+        Types.OBJECT_TYPE.toArrayType(),
+        INT_ARRAY_TYPE.toArrayType()
+      )
   }
 }
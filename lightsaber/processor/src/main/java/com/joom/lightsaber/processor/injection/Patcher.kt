@@ -23,6 +23,7 @@ import com.joom.lightsaber.processor.commons.Types
 import com.joom.lightsaber.processor.generation.model.GenerationContext
 import com.joom.lightsaber.processor.model.InjectionContext
 import com.joom.lightsaber.processor.model.InjectionTarget
+import com.joom.lightsaber.processor.validation.DependencyResolverFactory
 import org.objectweb.asm.ClassVisitor
 import org.objectweb.asm.Opcodes
 
@@ -30,7 +31,10 @@ class Patcher(
   classVisitor: ClassVisitor,
   private val classRegistry: ClassRegistry,
   private val injectionContext: InjectionContext,
-  private val generationContext: GenerationContext
+  private val generationContext: GenerationContext,
+  private val dependencyResolverFactory: DependencyResolverFactory,
+  private val parallelEagerInstantiation: Boolean,
+  private val lazyProviders: Boolean
 ) : ClassVisitor(Opcodes.ASM9, classVisitor) {
 
   private val keyRegistry get() = generationContext.keyRegistry
@@ -50,7 +54,15 @@ class Patcher(
     }
 
     injectionContext.findModuleByType(type)?.also {
-      cv = ModulePatcher(cv, injectionContext, generationContext, it)
+      cv = ModulePatcher(
+        cv,
+        injectionContext,
+        generationContext,
+        dependencyResolverFactory,
+        it,
+        parallelEagerInstantiation,
+        lazyProviders
+      )
     }
 
     injectionContext.findInjectableTargetByType(type)?.also {
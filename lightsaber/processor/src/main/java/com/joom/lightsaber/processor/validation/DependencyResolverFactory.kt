@@ -35,6 +35,8 @@ class DependencyResolverFactory(
     return DependencyResolverImpl(injectionContext, includeAllDependenciesInGraph)
   }
 
+  // Resolvers are shared with module patching that runs in parallel, so they're created under a lock.
+  @Synchronized
   fun getOrCreate(component: Component): DependencyResolver {
     return dependencyResolversByComponentType.getOrPut(component.type) {
       createEmpty().also { resolver ->
@@ -46,6 +48,7 @@ class DependencyResolverFactory(
     }
   }
 
+  @Synchronized
   fun getOrCreate(contractConfiguration: ContractConfiguration): DependencyResolver {
     return dependencyResolversByContractConfigurationType.getOrPut(contractConfiguration.type) {
       createEmpty().also { resolver ->
@@ -54,6 +57,7 @@ class DependencyResolverFactory(
     }
   }
 
+  @Synchronized
   fun getOrCreate(module: Module): DependencyResolver {
     return dependencyResolversByModuleType.getOrPut(module.type) {
       createEmpty().also { resolver ->
@@ -48,4 +48,14 @@ class AnalyzerHelperImplTest {
       message = "Element test_case_projects.analyzer_helper.eager_without_scope.Instance is annotated with @Eager but doesn't have a scope"
     )
   }
+
+  @Test
+  fun test_analysis_failed_when_scope_provider_has_no_delegate_constructor() {
+    integrationTestRule.assertInvalidProject(
+      sourceCodeDir = "scope_provider_without_delegate_constructor",
+      message = "Scope provider test_case_projects.analyzer_helper.scope_provider_without_delegate_constructor.InvalidProvider of" +
+          " test_case_projects.analyzer_helper.scope_provider_without_delegate_constructor.InvalidScope must have a public constructor" +
+          " that accepts a Provider"
+    )
+  }
 }
@@ -16,14 +16,28 @@
 
 package com.joom.lightsaber.processor.generation
 
+import com.joom.grip.mirrors.getObjectType
+import com.joom.lightsaber.ContractConfiguration
+import com.joom.lightsaber.Lightsaber
+import com.joom.lightsaber.LightsaberTypes
+import com.joom.lightsaber.internal.PrimitiveProvider
+import com.joom.lightsaber.processor.commons.Types
 import com.joom.lightsaber.processor.integration.IntegrationTestRule
 import com.joom.lightsaber.processor.integration.TestErrorReporter
 import org.junit.Assert
 import org.junit.Rule
 import org.junit.Test
+import org.objectweb.asm.ClassReader
+import org.objectweb.asm.ClassVisitor
+import org.objectweb.asm.FieldVisitor
+import org.objectweb.asm.MethodVisitor
+import org.objectweb.asm.Opcodes
+import java.net.URLClassLoader
 import java.nio.file.Path
 import java.nio.file.Paths
+import javax.inject.Provider
 import kotlin.io.path.exists
+import kotlin.io.path.readBytes
 
 class GeneratorTest {
 
@@ -39,6 +53,15 @@ class GeneratorTest {
     path.shouldContain(computeConstructorProviderPath("first_project", projectName = "first_project", className = "FirstModuleDependencyImpl"))
   }
 
+  @Test
+  fun `does not inject members of classes without injectable members`() {
+    val path = integrationTestRule.processProject("first_project", reporter)
+
+    val providerPath = computeConstructorProviderPath("first_project", projectName = "first_project", className = "FirstModuleDependencyImpl")
+    val owners = path.readInvokedMethodOwners(providerPath)
+    Assert.assertFalse(Types.INJECTOR_TYPE.internalName in owners)
+  }
+
   @Test
   fun `generates binding provider`() {
     val path = integrationTestRule.processProject("first_project", reporter)
@@ -107,6 +130,286 @@ class GeneratorTest {
     integrationTestRule.assertValidProject("bounded_generics")
   }
 
+  @Test
+  fun `caches dependency providers when enabled`() {
+    val path = integrationTestRule.processProject("first_project", reporter, cacheDependencyProviders = true)
+
+    val fields = path.readFieldNames(computeMethodProviderPath("first_project", projectName = "first_project", className = "FirstDependencyModule"))
+    Assert.assertTrue("dependencyProvider0" in fields)
+  }
+
+  @Test
+  fun `resolves cached dependency provider once`() {
+    val path = integrationTestRule.processProject("cached_providers", reporter, cacheDependencyProviders = true)
+
+    Assert.assertEquals(1L, path.countCachedDependencyLookups(instantiationCount = 3))
+  }
+
+  @Test
+  fun `resolves dependency provider on every instantiation by default`() {
+    val path = integrationTestRule.processProject("cached_providers", reporter)
+
+    Assert.assertEquals(3L, path.countCachedDependencyLookups(instantiationCount = 3))
+  }
+
+  @Test
+  fun `does not cache dependency providers by default`() {
+    val path = integrationTestRule.processProject("first_project", reporter)
+
+    val fields = path.readFieldNames(computeMethodProviderPath("first_project", projectName = "first_project", className = "FirstDependencyModule"))
+    Assert.assertFalse("dependencyProvider0" in fields)
+  }
+
+  @Test
+  fun `generates key indices when enabled`() {
+    val path = integrationTestRule.processProject("first_project", reporter, indexProviders = true)
+
+    val fields = path.readFieldNames(computeKeyRegistryPath("first_project"))
+    Assert.assertTrue("index0" in fields)
+  }
+
+  @Test
+  fun `does not generate key indices by default`() {
+    val path = integrationTestRule.processProject("first_project", reporter)
+
+    val fields = path.readFieldNames(computeKeyRegistryPath("first_project"))
+    Assert.assertFalse("index0" in fields)
+  }
+
+  @Test
+  fun `generates constant dynamic key accessors when enabled`() {
+    val path = integrationTestRule.processProject("first_project", reporter, indexProviders = true, constantDynamicKeys = true)
+
+    val keyRegistryPath = computeKeyRegistryPath("first_project")
+    Assert.assertFalse("index0" in path.readFieldNames(keyRegistryPath))
+    Assert.assertTrue("index0" in path.readMethodNames(keyRegistryPath))
+  }
+
+  @Test
+  fun `resolves dependencies with constant dynamic keys`() {
+    val path = integrationTestRule.processProject("cached_providers", reporter, indexProviders = true, constantDynamicKeys = true)
+
+    Assert.assertTrue("index0" in path.readMethodNames(computeKeyRegistryPath("cached_providers")))
+    path.assertConsumerIsResolved()
+  }
+
+  @Test
+  fun `splits key registry into shards when enabled`() {
+    val path = integrationTestRule.processProject("first_project", reporter, shardKeyRegistry = true)
+
+    path.shouldContain(Paths.get("com", "joom", "lightsaber", "KeyRegistry\$first_project\$Shard0.class"))
+    path.shouldNotContain(computeKeyRegistryPath("first_project"))
+  }
+
+  @Test
+  fun `resolves dependencies with sharded key registry`() {
+    val path = integrationTestRule.processProject("cached_providers", reporter, indexProviders = true, shardKeyRegistry = true)
+
+    path.shouldContain(Paths.get("com", "joom", "lightsaber", "KeyRegistry\$cached_providers\$Shard0.class"))
+    path.assertConsumerIsResolved()
+  }
+
+  @Test
+  fun `implements provider factory in modules when lazy providers are enabled`() {
+    val path = integrationTestRule.processProject("first_project", reporter, lazyProviders = true)
+
+    val interfaces = path.readInterfaces(computeClassPath("first_project", className = "FirstDependencyModule"))
+    Assert.assertTrue(LightsaberTypes.PROVIDER_FACTORY_TYPE.internalName in interfaces)
+  }
+
+  @Test
+  fun `does not implement provider factory in modules by default`() {
+    val path = integrationTestRule.processProject("first_project", reporter)
+
+    val interfaces = path.readInterfaces(computeClassPath("first_project", className = "FirstDependencyModule"))
+    Assert.assertFalse(LightsaberTypes.PROVIDER_FACTORY_TYPE.internalName in interfaces)
+  }
+
+  @Test
+  fun `merges module providers into a single class when merged providers are enabled`() {
+    val path = integrationTestRule.processProject("first_project", reporter, mergeProviders = true)
+
+    val providerPath = computeMergedProviderPath("first_project", projectName = "first_project", className = "FirstDependencyModule")
+    path.shouldContain(providerPath)
+    path.shouldNotContain(computeMethodProviderPath("first_project", projectName = "first_project", className = "FirstDependencyModule"))
+
+    val interfaces = path.readInterfaces(providerPath)
+    Assert.assertTrue(getObjectType<PrimitiveProvider.OfInt>().internalName in interfaces)
+  }
+
+  @Test
+  fun `resolves dependencies with merged providers`() {
+    val path = integrationTestRule.processProject("cached_providers", reporter, mergeProviders = true)
+
+    path.shouldContain(computeMergedProviderPath("cached_providers", projectName = "cached_providers", className = "CachedProvidersModule"))
+    path.assertConsumerIsResolved()
+  }
+
+  @Test
+  fun `does not merge module providers by default`() {
+    val path = integrationTestRule.processProject("first_project", reporter)
+
+    path.shouldNotContain(computeMergedProviderPath("first_project", projectName = "first_project", className = "FirstDependencyModule"))
+  }
+
+  @Test
+  fun `constructs unscoped dependencies in place when contracts are flattened`() {
+    val path = integrationTestRule.processProject("flattened_contracts", reporter, flattenContracts = true)
+
+    val providerPath =
+      computeMethodProviderPath("flattened_contracts", projectName = "flattened_contracts", className = "FlattenedContractConfiguration")
+    val owners = path.readInvokedMethodOwners(providerPath)
+    Assert.assertTrue("$ROOT/flattened_contracts/InlinedDependency" in owners)
+    Assert.assertEquals(listOf("inlined", "inlined"), path.readFlattenedDependencyNames(overrideDependency = false))
+  }
+
+  @Test
+  fun `lets interceptors override dependencies constructed in place`() {
+    val path = integrationTestRule.processProject("flattened_contracts", reporter, flattenContracts = true)
+
+    Assert.assertEquals(listOf("overriding", "overriding"), path.readFlattenedDependencyNames(overrideDependency = true))
+  }
+
+  @Test
+  fun `does not construct dependencies in place in modules when contracts are flattened`() {
+    val path = integrationTestRule.processProject("first_project", reporter, flattenContracts = true)
+
+    val providerPath = computeMethodProviderPath("first_project", projectName = "first_project", className = "FirstDependencyModule")
+    val owners = path.readInvokedMethodOwners(providerPath)
+    Assert.assertFalse("$ROOT/first_project/FirstModuleDependencyImpl" in owners)
+  }
+
+  @Test
+  fun `resolves unscoped dependencies with injector by default`() {
+    val path = integrationTestRule.processProject("first_project", reporter)
+
+    val providerPath = computeMethodProviderPath("first_project", projectName = "first_project", className = "FirstDependencyModule")
+    val owners = path.readInvokedMethodOwners(providerPath)
+    Assert.assertFalse("$ROOT/first_project/FirstModuleDependencyImpl" in owners)
+  }
+
+  private fun Path.readInterfaces(path: Path): List<String> {
+    return ClassReader(resolve(path).readBytes()).interfaces.toList()
+  }
+
+  private fun Path.readInvokedMethodOwners(path: Path): Set<String> {
+    val owners = HashSet<String>()
+    ClassReader(resolve(path).readBytes()).accept(
+      object : ClassVisitor(Opcodes.ASM9) {
+        override fun visitMethod(
+          access: Int,
+          name: String,
+          descriptor: String,
+          signature: String?,
+          exceptions: Array<out String>?
+        ): MethodVisitor {
+          return object : MethodVisitor(Opcodes.ASM9) {
+            override fun visitMethodInsn(opcode: Int, owner: String, name: String, descriptor: String, isInterface: Boolean) {
+              owners += owner
+            }
+          }
+        }
+      },
+      0
+    )
+    return owners
+  }
+
+  private fun Path.readMethodNames(path: Path): Set<String> {
+    val methods = HashSet<String>()
+    ClassReader(resolve(path).readBytes()).accept(
+      object : ClassVisitor(Opcodes.ASM9) {
+        override fun visitMethod(
+          access: Int,
+          name: String,
+          descriptor: String,
+          signature: String?,
+          exceptions: Array<out String>?
+        ): MethodVisitor? {
+          methods += name
+          return null
+        }
+      },
+      ClassReader.SKIP_CODE
+    )
+    return methods
+  }
+
+  private fun Path.readFieldNames(path: Path): Set<String> {
+    val fields = HashSet<String>()
+    ClassReader(resolve(path).readBytes()).accept(
+      object : ClassVisitor(Opcodes.ASM9) {
+        override fun visitField(access: Int, name: String, descriptor: String, signature: String?, value: Any?): FieldVisitor? {
+          fields += name
+          return null
+        }
+      },
+      ClassReader.SKIP_CODE
+    )
+    return fields
+  }
+
+  private fun Path.countCachedDependencyLookups(instantiationCount: Int): Long {
+    return URLClassLoader(arrayOf(toUri().toURL()), javaClass.classLoader).use { classLoader ->
+      val packageName = "test_case_projects.generator.cached_providers"
+      val component = classLoader.loadClass("$packageName.CachedProvidersComponent").getConstructor().newInstance()
+      val consumerType = classLoader.loadClass("$packageName.CachedDependencyConsumer")
+      val dependencyType = classLoader.loadClass("$packageName.CachedDependency")
+
+      val injector = Lightsaber.Builder().collectMetrics(true).build().createInjector(component)
+      repeat(instantiationCount) {
+        injector.getInstance<Any>(consumerType)
+      }
+
+      injector.providerMetrics.single { it.key == dependencyType }.lookupCount
+    }
+  }
+
+  private fun Path.readFlattenedDependencyNames(overrideDependency: Boolean): List<String> {
+    return URLClassLoader(arrayOf(toUri().toURL()), javaClass.classLoader).use { classLoader ->
+      val packageName = "test_case_projects.generator.flattened_contracts"
+      val configurationType = classLoader.loadClass("$packageName.FlattenedContractConfiguration")
+      val contractType = classLoader.loadClass("$packageName.FlattenedContract")
+      val consumerType = classLoader.loadClass("$packageName.InlinedDependencyConsumer")
+      val dependencyType = classLoader.loadClass("$packageName.InlinedDependency")
+      val overridingDependencyType = classLoader.loadClass("$packageName.OverridingDependency")
+
+      val builder = Lightsaber.Builder()
+      if (overrideDependency) {
+        builder.addProviderInterceptor { chain, key ->
+          if (key.type == dependencyType) {
+            Provider { overridingDependencyType.getConstructor().newInstance() }
+          } else {
+            chain.proceed(key)
+          }
+        }
+      }
+
+      @Suppress("UNCHECKED_CAST")
+      val configuration = configurationType.getConstructor().newInstance() as ContractConfiguration<Any>
+      val contract = builder.build().createContract(configuration)
+      val dependency = contractType.getMethod("getDependency").invoke(contract)
+      val consumer = contractType.getMethod("getConsumer").invoke(contract)
+      val consumerDependency = consumerType.getMethod("getDependency").invoke(consumer)
+      listOf(dependency, consumerDependency).map { dependencyType.getMethod("getName").invoke(it) as String }
+    }
+  }
+
+  private fun Path.assertConsumerIsResolved() {
+    URLClassLoader(arrayOf(toUri().toURL()), javaClass.classLoader).use { classLoader ->
+      val packageName = "test_case_projects.generator.cached_providers"
+      val component = classLoader.loadClass("$packageName.CachedProvidersComponent").getConstructor().newInstance()
+      val consumerType = classLoader.loadClass("$packageName.CachedDependencyConsumer")
+      val dependencyType = classLoader.loadClass("$packageName.CachedDependency")
+
+      val injector = Lightsaber.Builder().build().createInjector(component)
+      val consumer = injector.getInstance<Any>(consumerType)
+      val dependency = consumerType.getMethod("getDependency").invoke(consumer)
+      Assert.assertTrue(consumerType.isInstance(consumer))
+      Assert.assertTrue(dependencyType.isInstance(dependency))
+    }
+  }
+
   private fun Path.shouldContain(path: Path) {
     Assert.assertTrue(resolve(path).exists())
   }
@@ -127,6 +430,10 @@ class GeneratorTest {
     return computeProviderPath(sourceCodeDir, projectName, "MethodProvider0", className)
   }
 
+  private fun computeMergedProviderPath(sourceCodeDir: String, projectName: String, className: String): Path {
+    return computeProviderPath(sourceCodeDir, projectName, "Providers0", className)
+  }
+
   private fun computeFactoryProviderPath(sourceCodeDir: String, projectName: String, className: String): Path {
     return computeProviderPath(sourceCodeDir, projectName, "FactoryProvider0", className)
   }
@@ -135,6 +442,14 @@ class GeneratorTest {
     return Paths.get(ROOT, sourceCodeDir, "${className}\$Lightsaber\$Factory.class")
   }
 
+  private fun computeClassPath(sourceCodeDir: String, className: String): Path {
+    return Paths.get(ROOT, sourceCodeDir, "${className}.class")
+  }
+
+  private fun computeKeyRegistryPath(projectName: String): Path {
+    return Paths.get("com", "joom", "lightsaber", "KeyRegistry\$${projectName}.class")
+  }
+
   private fun computeProviderPath(sourceCodeDir: String, projectName: String, providerName: String, className: String): Path {
     return Paths.get(ROOT, sourceCodeDir, "${className}\$${providerName}\$${projectName}.class")
   }
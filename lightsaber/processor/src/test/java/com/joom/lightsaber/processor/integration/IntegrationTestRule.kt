@@ -77,6 +77,14 @@ class IntegrationTestRule(
     errorReporter: ErrorReporter,
     modules: List<Path> = emptyList(),
     ignoreErrors: Boolean = false,
+    cacheDependencyProviders: Boolean = false,
+    indexProviders: Boolean = false,
+    parallelEagerInstantiation: Boolean = false,
+    lazyProviders: Boolean = false,
+    mergeProviders: Boolean = false,
+    flattenContracts: Boolean = false,
+    constantDynamicKeys: Boolean = false,
+    shardKeyRegistry: Boolean = false,
   ): Path {
     return processProject(
       compiled = compileProject(sourceCodeDir, classpath = modules),
@@ -84,6 +92,14 @@ class IntegrationTestRule(
       errorReporter = errorReporter,
       modules = modules,
       ignoreErrors = ignoreErrors,
+      cacheDependencyProviders = cacheDependencyProviders,
+      indexProviders = indexProviders,
+      parallelEagerInstantiation = parallelEagerInstantiation,
+      lazyProviders = lazyProviders,
+      mergeProviders = mergeProviders,
+      flattenContracts = flattenContracts,
+      constantDynamicKeys = constantDynamicKeys,
+      shardKeyRegistry = shardKeyRegistry,
     )
   }
 
@@ -96,6 +112,14 @@ class IntegrationTestRule(
     validateUsage: Boolean = true,
     validateUnusedImports: Boolean = false,
     dumpDebugReport: Boolean = false,
+    cacheDependencyProviders: Boolean = false,
+    indexProviders: Boolean = false,
+    parallelEagerInstantiation: Boolean = false,
+    lazyProviders: Boolean = false,
+    mergeProviders: Boolean = false,
+    flattenContracts: Boolean = false,
+    constantDynamicKeys: Boolean = false,
+    shardKeyRegistry: Boolean = false,
   ): Path {
     val outputDirectory = processedDirectory.resolve(projectName)
     val reportDirectory = reportDirectory.resolve(projectName)
@@ -112,6 +136,14 @@ class IntegrationTestRule(
       validateUnusedImports = validateUnusedImports,
       validateUnusedImportsVerbose = false,
       dumpDebugReport = dumpDebugReport,
+      cacheDependencyProviders = cacheDependencyProviders,
+      indexProviders = indexProviders,
+      parallelEagerInstantiation = parallelEagerInstantiation,
+      lazyProviders = lazyProviders,
+      mergeProviders = mergeProviders,
+      flattenContracts = flattenContracts,
+      constantDynamicKeys = constantDynamicKeys,
+      shardKeyRegistry = shardKeyRegistry,
       reportDirectory = reportDirectory,
       sharedBuildCache = LightsaberSharedBuildCache.create(),
     )
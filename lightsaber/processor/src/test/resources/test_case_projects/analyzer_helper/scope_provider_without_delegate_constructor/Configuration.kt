@@ -0,0 +1,41 @@
+/*
+ * Copyright 2022 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test_case_projects.analyzer_helper.scope_provider_without_delegate_constructor
+
+import com.joom.lightsaber.Contract
+import com.joom.lightsaber.ContractConfiguration
+import com.joom.lightsaber.ProvidedBy
+import com.joom.lightsaber.ScopeProvider
+import javax.inject.Inject
+import javax.inject.Provider
+
+@ScopeProvider(InvalidProvider::class)
+@Retention(AnnotationRetention.RUNTIME)
+annotation class InvalidScope
+
+class InvalidProvider<T> : Provider<T> {
+  override fun get(): T = throw UnsupportedOperationException()
+}
+
+@InvalidScope
+@ProvidedBy(AppContractConfiguration::class)
+class Instance @Inject constructor()
+
+@Contract
+interface AppContract
+
+class AppContractConfiguration : ContractConfiguration<AppContract>()
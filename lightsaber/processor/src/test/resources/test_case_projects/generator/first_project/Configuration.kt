@@ -37,6 +37,12 @@ class FirstDependencyModule {
   internal fun provideFirstModuleDependency(firstModuleDependencyImpl: FirstModuleDependencyImpl): FirstModuleDependency {
     return firstModuleDependencyImpl
   }
+
+  @Provide
+  @FirstDependencyQualifier
+  internal fun provideFirstModuleDependencyCount(): Int {
+    return 1
+  }
 }
 
 interface FirstContractDependency
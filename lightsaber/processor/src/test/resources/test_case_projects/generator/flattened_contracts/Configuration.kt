@@ -0,0 +1,48 @@
+/*
+ * Copyright 2022 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test_case_projects.generator.flattened_contracts
+
+import com.joom.lightsaber.ContractConfiguration
+import com.joom.lightsaber.Provide
+import com.joom.lightsaber.ProvidedBy
+import javax.inject.Inject
+
+@ProvidedBy(FlattenedContractConfiguration::class)
+open class InlinedDependency @Inject constructor() {
+  open val name: String
+    get() = "inlined"
+}
+
+class OverridingDependency : InlinedDependency() {
+  override val name: String
+    get() = "overriding"
+}
+
+class InlinedDependencyConsumer(val dependency: InlinedDependency)
+
+interface FlattenedContract {
+  val dependency: InlinedDependency
+  val consumer: InlinedDependencyConsumer
+}
+
+class FlattenedContractConfiguration : ContractConfiguration<FlattenedContract>() {
+
+  @Provide
+  fun provideInlinedDependencyConsumer(dependency: InlinedDependency): InlinedDependencyConsumer {
+    return InlinedDependencyConsumer(dependency)
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.benchmark;
+
+import com.joom.lightsaber.Injector;
+import com.joom.lightsaber.Lightsaber;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChildInjectorBenchmark {
+  @Param({ "1", "4", "16" })
+  public int depth;
+
+  private Injector injector;
+  private Injector deepestInjector;
+
+  @Setup
+  public void setUp() {
+    injector = new Lightsaber.Builder().build().createInjector(new BenchmarkComponent());
+    deepestInjector = createChildInjectors();
+  }
+
+  @Benchmark
+  public Injector createChildInjectors() {
+    Injector childInjector = injector;
+    for (int i = 0; i < depth; ++i) {
+      childInjector = childInjector.createChildInjector(new ChildComponent());
+    }
+    return childInjector;
+  }
+
+  @Benchmark
+  public Leaf getUnscopedInstanceFromDeepestChild() {
+    return deepestInjector.getInstance(Leaf.class);
+  }
+
+  @Benchmark
+  public Service getSingletonInstanceFromDeepestChild() {
+    return deepestInjector.getInstance(Service.class);
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.benchmark;
+
+import com.joom.lightsaber.Lightsaber;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FactoryContractBenchmark {
+  private Lightsaber lightsaber;
+  private WidgetFactory factory;
+  private BenchmarkContract contract;
+
+  @Setup
+  public void setUp() {
+    lightsaber = new Lightsaber.Builder().build();
+    factory = lightsaber.createInjector(new BenchmarkComponent()).getInstance(WidgetFactory.class);
+    contract = lightsaber.createContract(new BenchmarkContractConfiguration());
+  }
+
+  @Benchmark
+  public Widget createWidgetWithFactory() {
+    return factory.createWidget("Widget");
+  }
+
+  @Benchmark
+  public Leaf getUnscopedInstanceFromContract() {
+    return contract.getLeaf();
+  }
+
+  @Benchmark
+  public Service getSingletonInstanceFromContract() {
+    return contract.getService();
+  }
+
+  @Benchmark
+  public Widget createWidgetWithContractFactory() {
+    return contract.getWidgetFactory().createWidget("Widget");
+  }
+
+  @Benchmark
+  public BenchmarkContract createContract() {
+    return lightsaber.createContract(new BenchmarkContractConfiguration());
+  }
+}
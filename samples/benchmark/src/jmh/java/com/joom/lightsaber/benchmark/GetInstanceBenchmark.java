@@ -0,0 +1,84 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.benchmark;
+
+import com.joom.lightsaber.Injector;
+import com.joom.lightsaber.Key;
+import com.joom.lightsaber.Lightsaber;
+import com.joom.lightsaber.internal.ParameterizedTypeImpl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Named;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GetInstanceBenchmark {
+  private Injector injector;
+  private Type parameterizedType;
+  private Key<String> qualifiedKey;
+
+  @Setup
+  public void setUp() throws NoSuchMethodException {
+    injector = new Lightsaber.Builder().build().createInjector(new BenchmarkComponent());
+    parameterizedType = new ParameterizedTypeImpl(null, List.class, String.class);
+    final Named named = BenchmarkModule.class.getDeclaredMethod("provideQualifiedString").getAnnotation(Named.class);
+    qualifiedKey = Key.of(String.class, named);
+  }
+
+  @Benchmark
+  public Leaf getUnscopedClassInstance() {
+    return injector.getInstance(Leaf.class);
+  }
+
+  @Benchmark
+  public Service getSingletonClassInstance() {
+    return injector.getInstance(Service.class);
+  }
+
+  @Benchmark
+  public List<String> getParameterizedInstance() {
+    return injector.getInstance(parameterizedType);
+  }
+
+  @Benchmark
+  public String getQualifiedInstance() {
+    return injector.getInstance(qualifiedKey);
+  }
+
+  @Benchmark
+  public Graph.Root getDeepGraphInstance() {
+    return injector.getInstance(Graph.Root.class);
+  }
+}
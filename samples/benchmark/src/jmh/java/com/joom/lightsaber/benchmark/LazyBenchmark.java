@@ -0,0 +1,67 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.benchmark;
+
+import com.joom.lightsaber.Injector;
+import com.joom.lightsaber.Lazy;
+import com.joom.lightsaber.Lightsaber;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LazyBenchmark {
+  private Injector injector;
+  private Lazy<Service> lazy;
+
+  @Setup
+  public void setUp() {
+    injector = new Lightsaber.Builder().build().createInjector(new BenchmarkComponent());
+    lazy = injector.getInstance(LazyConsumer.class).getService();
+    lazy.get();
+  }
+
+  @Benchmark
+  public Service getDirectDependency() {
+    return injector.getInstance(DirectConsumer.class).getService();
+  }
+
+  @Benchmark
+  public Service getLazyDependency() {
+    return injector.getInstance(LazyConsumer.class).getService().get();
+  }
+
+  @Benchmark
+  public Service getInitializedLazy() {
+    return lazy.get();
+  }
+}
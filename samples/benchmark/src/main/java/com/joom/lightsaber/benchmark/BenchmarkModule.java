@@ -0,0 +1,41 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.benchmark;
+
+import com.joom.lightsaber.Module;
+import com.joom.lightsaber.Provide;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.inject.Named;
+
+@Module
+public class BenchmarkModule {
+  public static final String QUALIFIER = "qualified";
+
+  @Provide
+  @Named(QUALIFIER)
+  private String provideQualifiedString() {
+    return "Qualified";
+  }
+
+  @Provide
+  private List<String> provideStrings() {
+    return Collections.singletonList("Parameterized");
+  }
+}
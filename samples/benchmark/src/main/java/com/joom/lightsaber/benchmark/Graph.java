@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.benchmark;
+
+import com.joom.lightsaber.ProvidedBy;
+
+import javax.inject.Inject;
+
+/**
+ * A binary dependency tree of unscoped classes. Resolving {@link Root} constructs 63 objects.
+ */
+public final class Graph {
+  private Graph() {
+  }
+
+  @ProvidedBy(BenchmarkModule.class)
+  public static class Level1 {
+    @Inject
+    public Level1(final Leaf left, final Leaf right) {
+    }
+  }
+
+  @ProvidedBy(BenchmarkModule.class)
+  public static class Level2 {
+    @Inject
+    public Level2(final Level1 left, final Level1 right) {
+    }
+  }
+
+  @ProvidedBy(BenchmarkModule.class)
+  public static class Level3 {
+    @Inject
+    public Level3(final Level2 left, final Level2 right) {
+    }
+  }
+
+  @ProvidedBy(BenchmarkModule.class)
+  public static class Level4 {
+    @Inject
+    public Level4(final Level3 left, final Level3 right) {
+    }
+  }
+
+  @ProvidedBy(BenchmarkModule.class)
+  public static class Root {
+    @Inject
+    public Root(final Level4 left, final Level4 right) {
+    }
+  }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber.benchmark;
+
+import com.joom.lightsaber.Lazy;
+import com.joom.lightsaber.ProvidedBy;
+
+import javax.inject.Inject;
+
+@ProvidedBy(BenchmarkModule.class)
+public class LazyConsumer {
+  private final Lazy<Service> service;
+
+  @Inject
+  public LazyConsumer(final Lazy<Service> service) {
+    this.service = service;
+  }
+
+  public Lazy<Service> getService() {
+    return service;
+  }
+}
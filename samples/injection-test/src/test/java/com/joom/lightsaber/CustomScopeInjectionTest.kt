@@ -0,0 +1,87 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertSame
+import org.junit.Test
+import java.util.concurrent.atomic.AtomicInteger
+import javax.inject.Inject
+import javax.inject.Provider
+
+class CustomScopeInjectionTest {
+  @Test
+  fun testCustomScopeOnClass() {
+    val lightsaber = Lightsaber.Builder().build()
+    val injector = lightsaber.createInjector(CustomScopeComponent())
+
+    val dependency1 = injector.getInstance<CachedDependency>()
+    val dependency2 = injector.getInstance<CachedDependency>()
+    assertSame(dependency1, dependency2)
+    assertNotSame(injector.getInstance<UncachedDependency>(), injector.getInstance<UncachedDependency>())
+  }
+
+  @Test
+  fun testCustomScopeOnProviderMethod() {
+    val lightsaber = Lightsaber.Builder().build()
+    val component = CustomScopeComponent()
+    val injector = lightsaber.createInjector(component)
+
+    assertEquals("0", injector.getInstance<String>())
+    assertEquals("0", injector.getInstance<String>())
+    assertEquals(1, component.counter.get())
+  }
+
+  @Test
+  fun testCustomScopeIsPerInjector() {
+    val lightsaber = Lightsaber.Builder().build()
+    val injector1 = lightsaber.createInjector(CustomScopeComponent())
+    val injector2 = lightsaber.createInjector(CustomScopeComponent())
+
+    assertNotSame(injector1.getInstance<CachedDependency>(), injector2.getInstance<CachedDependency>())
+  }
+
+  @ScopeProvider(CachingProvider::class)
+  @Retention(AnnotationRetention.RUNTIME)
+  annotation class Cached
+
+  class CachingProvider<T>(private val delegate: Provider<T>) : Provider<T> {
+    private var instance: T? = null
+
+    override fun get(): T {
+      return instance ?: delegate.get().also { instance = it }
+    }
+  }
+
+  @Component
+  class CustomScopeComponent {
+
+    val counter = AtomicInteger()
+
+    @Provide
+    @Cached
+    fun provideString(): String = counter.getAndIncrement().toString()
+  }
+
+  @Cached
+  @ProvidedBy(CustomScopeComponent::class)
+  class CachedDependency @Inject constructor()
+
+  @ProvidedBy(CustomScopeComponent::class)
+  class UncachedDependency @Inject constructor()
+}
@@ -16,8 +16,11 @@
 
 package com.joom.lightsaber
 
+import com.joom.lightsaber.internal.PrimitiveProvider
 import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
 import org.junit.Assert.assertNotNull
+import org.junit.Assert.assertTrue
 import org.junit.Test
 import javax.inject.Inject
 
@@ -176,6 +179,19 @@ class PrimitiveInjectionTest {
     assertNotNull(boxedResult)
   }
 
+  @Test
+  fun testUnboxedProviderImplementsPrimitiveProvider() {
+    val unboxedInjector = Lightsaber.Builder().build().createInjector(UnboxedPrimitiveComponent())
+    val boxedInjector = Lightsaber.Builder().build().createInjector(BoxedPrimitiveComponent())
+
+    val unboxedProvider = unboxedInjector.getProvider<Int>(java.lang.Integer::class.java)
+    val boxedProvider = boxedInjector.getProvider<Int>(java.lang.Integer::class.java)
+
+    assertTrue(unboxedProvider is PrimitiveProvider.OfInt)
+    assertEquals(UnboxedPrimitiveModule().provideInt(), (unboxedProvider as PrimitiveProvider.OfInt).getInt())
+    assertFalse(boxedProvider is PrimitiveProvider.OfInt)
+  }
+
   private class UnboxedInjectableContainer {
     @Inject var booleanField: Boolean = false
     @Inject var byteField: Byte = 0
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertSame
+import org.junit.Test
+import java.util.concurrent.atomic.AtomicInteger
+import javax.inject.Inject
+
+class ReusableInjectionTest {
+  @Test
+  fun testReusableClass() {
+    val lightsaber = Lightsaber.Builder().build()
+    val injector = lightsaber.createInjector(ReusableComponent())
+
+    assertSame(injector.getInstance<ReusableDependency>(), injector.getInstance<ReusableDependency>())
+  }
+
+  @Test
+  fun testReusableProviderMethod() {
+    val lightsaber = Lightsaber.Builder().build()
+    val component = ReusableComponent()
+    val injector = lightsaber.createInjector(component)
+
+    assertEquals("0", injector.getInstance<String>())
+    assertEquals("0", injector.getInstance<String>())
+    assertEquals(1, component.counter.get())
+  }
+
+  @Test
+  fun testReusableIsPerInjector() {
+    val lightsaber = Lightsaber.Builder().build()
+    val injector1 = lightsaber.createInjector(ReusableComponent())
+    val injector2 = lightsaber.createInjector(ReusableComponent())
+
+    assertNotSame(injector1.getInstance<ReusableDependency>(), injector2.getInstance<ReusableDependency>())
+  }
+
+  @Component
+  class ReusableComponent {
+
+    val counter = AtomicInteger()
+
+    @Provide
+    @Reusable
+    fun provideString(): String = counter.getAndIncrement().toString()
+  }
+
+  @Reusable
+  @ProvidedBy(ReusableComponent::class)
+  class ReusableDependency @Inject constructor()
+}
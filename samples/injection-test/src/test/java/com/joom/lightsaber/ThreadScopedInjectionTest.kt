@@ -0,0 +1,77 @@
+/*
+ * Copyright 2020 SIA Joom
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.joom.lightsaber
+
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertThrows
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.io.Closeable
+import javax.inject.Inject
+
+class ThreadScopedInjectionTest {
+  @Test
+  fun testThreadScopedClassIsCachedPerThread() {
+    val lightsaber = Lightsaber.Builder().build()
+    val injector = lightsaber.createInjector(ThreadScopedComponent())
+
+    val instance = injector.getInstance<ThreadScopedDependency>()
+    var otherInstance: ThreadScopedDependency? = null
+    val thread = Thread { otherInstance = injector.getInstance<ThreadScopedDependency>() }
+    thread.start()
+    thread.join()
+
+    assertSame(instance, injector.getInstance<ThreadScopedDependency>())
+    assertNotSame(instance, otherInstance)
+  }
+
+  @Test
+  fun testThreadScopedInstancesAreClosedOnDispose() {
+    val lightsaber = Lightsaber.Builder().build()
+    val injector = lightsaber.createInjector(ThreadScopedComponent())
+
+    val resource = injector.getInstance<ThreadScopedResource>()
+    assertFalse(resource.closed)
+
+    injector.dispose()
+
+    assertTrue(resource.closed)
+    assertThrows(IllegalStateException::class.java) { injector.getInstance<ThreadScopedResource>() }
+  }
+
+  @Component
+  class ThreadScopedComponent {
+
+    @Provide
+    @ThreadScoped
+    fun provideResource(): ThreadScopedResource = ThreadScopedResource()
+  }
+
+  @ThreadScoped
+  @ProvidedBy(ThreadScopedComponent::class)
+  class ThreadScopedDependency @Inject constructor()
+
+  class ThreadScopedResource : Closeable {
+    var closed = false
+
+    override fun close() {
+      closed = true
+    }
+  }
+}